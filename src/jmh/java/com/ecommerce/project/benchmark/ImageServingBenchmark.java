@@ -0,0 +1,108 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.SbEcomApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second for {@code GET /images/{fileName}} over loopback HTTP, from 8 client threads, for an image
+ * below the sendfile threshold, copied from the open file, and one above it, sent by Tomcat with sendfile.
+ * Multiply by {@code size} for bytes per second. {@code revalidate} is a browser checking its cached copy, answered
+ * with 304 and no body.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageServingBenchmark {
+
+    @Param({"16384", "4194304"})
+    int size;
+
+    private ConfigurableApplicationContext context;
+    private Path directory;
+    private HttpClient client;
+    private HttpRequest get;
+    private HttpRequest revalidate;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        directory = Files.createTempDirectory("image-benchmark");
+        byte[] image = new byte[size];
+        new Random(size).nextBytes(image);
+        Files.write(directory.resolve("image.jpg"), image);
+
+        context = SpringApplication.run(SbEcomApplication.class,
+                "--server.port=0",
+                "--project.image=" + directory,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.ecommerce.project=WARN",
+                "--logging.level.org.springframework=WARN",
+                // Logs every request otherwise, which would dominate the measurement
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.hibernate.SQL=WARN");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        get = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/images/image.jpg")).build();
+        String etag = client.send(get, HttpResponse.BodyHandlers.discarding()).headers()
+                .firstValue("ETag").orElseThrow();
+        revalidate = HttpRequest.newBuilder(get.uri()).header("If-None-Match", etag).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList())
+                Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public int get() throws Exception {
+        return send(get, 200);
+    }
+
+    @Benchmark
+    public int revalidate() throws Exception {
+        return send(revalidate, 304);
+    }
+
+    private int send(HttpRequest request, int expectedStatus) throws Exception {
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != expectedStatus)
+            throw new IllegalStateException("Expected " + expectedStatus + " but got " + status);
+        return status;
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping with the application's {@link ModelMapper}, the way the services do it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final Category category = new Category(1L, "Benchmark", null);
+    private final Product product = product(1L, category);
+
+    @Benchmark
+    public ProductDTO productToProductDTO() {
+        return modelMapper.map(product, ProductDTO.class);
+    }
+
+    /**
+     * As in {@code CartServiceImpl.getCartForLoggedInUser}.
+     */
+    @Benchmark
+    public CartDTO cartToCartDTO(CartFixture fixture) {
+        Cart cart = fixture.cart;
+        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+        List<ProductDTO> products = cart.getCartItems().stream()
+                .map(cartItem -> {
+                    ProductDTO productDTO = modelMapper.map(cartItem.getProduct(), ProductDTO.class);
+                    productDTO.setQuantity(cartItem.getQuantity());
+                    return productDTO;
+                })
+                .toList();
+        cartDTO.setProducts(products);
+        return cartDTO;
+    }
+
+    @State(Scope.Benchmark)
+    public static class CartFixture {
+
+        @Param({"1", "10"})
+        private int cartItems;
+
+        private Cart cart;
+
+        @Setup
+        public void setUp(MappingBenchmark benchmark) {
+            cart = new Cart();
+            cart.setCartId(1L);
+            for (int i = 0; i < cartItems; i++) {
+                CartItem item = new CartItem();
+                item.setCartItemId((long) i);
+                item.setCart(cart);
+                item.setProduct(product(i + 2L, benchmark.category));
+                item.setQuantity(2);
+                item.setDiscount(10.0);
+                item.setProductPrice(9_000);
+                cart.getCartItems().add(item);
+                cart.setTotalPrice(cart.getTotalPrice() + 18_000);
+            }
+        }
+    }
+
+    private static Product product(long id, Category category) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName("Product " + id);
+        product.setDescription("Benchmark product " + id);
+        product.setImage("default.png");
+        product.setQuantity(100);
+        product.setPrice(10_000);
+        product.setDiscount(10.0);
+        product.setSpecialPrice(9_000);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,171 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.SbEcomApplication;
+import com.ecommerce.project.model.Address;
+import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.money.Money;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.repositories.AddressRepository;
+import com.ecommerce.project.repositories.CartRepository;
+import com.ecommerce.project.repositories.CategoryRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.service.CartService;
+import com.ecommerce.project.service.OrderService;
+import com.ecommerce.project.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service methods against the embedded H2 database, seeded with {@value Application#PRODUCTS} products.
+ * Each benchmark method runs in its own fork, so one cannot disturb another's data.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    @Benchmark
+    public ProductResponse searchProductByKeyword(Application app) {
+        return app.productService.searchProductByKeyword("product 42", 0, 10, "productId", "asc");
+    }
+
+    /**
+     * Re-prices a product in a cart and recomputes the cart total, as after an admin price change.
+     */
+    @Benchmark
+    public void updateProductInCarts(Application app) {
+        app.cartService.updateProductInCarts(app.cartId, app.cartProductId);
+    }
+
+    @Benchmark
+    public OrderDTO placeOrder(Application app, FilledCart filledCart) {
+        return app.orderService.placeOrder(app.user, app.addressId, "card", "stripe", "pg-1", "ok", "Benchmark");
+    }
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        static final int PRODUCTS = 10_000;
+        private static final String USERNAME = "user1";
+
+        ConfigurableApplicationContext context;
+        ProductService productService;
+        CartService cartService;
+        OrderService orderService;
+        TransactionTemplate transaction;
+
+        User user;
+        Long addressId;
+        Long cartId;
+        Long cartProductId;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = SpringApplication.run(SbEcomApplication.class,
+                    "--spring.main.web-application-type=none",
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.root=WARN",
+                    "--logging.level.com.ecommerce.project=WARN",
+                    // N+1 warnings would otherwise be logged on every invocation
+                    "--logging.level.com.ecommerce.project.monitoring=ERROR",
+                    "--logging.level.org.springframework=WARN",
+                    "--logging.level.org.hibernate.SQL=WARN");
+
+            productService = context.getBean(ProductService.class);
+            cartService = context.getBean(CartService.class);
+            orderService = context.getBean(OrderService.class);
+            transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+            // JMH may run setup and benchmark on different threads
+            SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+            SecurityContextHolder.getContext()
+                    .setAuthentication(new UsernamePasswordAuthenticationToken(USERNAME, null, List.of()));
+
+            user = context.getBean(UserRepository.class).findByUsername(USERNAME).orElseThrow();
+            addressId = context.getBean(AddressRepository.class)
+                    .save(new Address("Main street", "B1", "Town", "State", "Country", "12345"))
+                    .getAddressId();
+
+            List<Product> products = seedProducts();
+            cartProductId = products.get(0).getProductId();
+            addToCart(cartProductId);
+            Cart cart = context.getBean(CartRepository.class).findCartByEmail(user.getEmail());
+            cartId = cart.getCartId();
+        }
+
+        /**
+         * Runs like a web request does under open-session-in-view, which the cart service relies on.
+         */
+        void addToCart(Long productId) {
+            transaction.executeWithoutResult(status -> cartService.addProductToCart(productId, 1));
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+
+        private List<Product> seedProducts() {
+            Category category = new Category();
+            category.setCategoryName("Benchmark");
+            category = context.getBean(CategoryRepository.class).save(category);
+
+            List<Product> products = new ArrayList<>(PRODUCTS);
+            for (int i = 0; i < PRODUCTS; i++) {
+                Product product = new Product();
+                product.setProductName("Product " + i);
+                product.setDescription("Benchmark product " + i);
+                product.setImage("default.png");
+                product.setQuantity(Integer.MAX_VALUE / 2);
+                product.setPrice(1_000 + i);
+                product.setDiscount(10.0);
+                product.setSpecialPrice(Money.discounted(1_000 + i, 10.0));
+                product.setCategory(category);
+                products.add(product);
+            }
+            return context.getBean(ProductRepository.class).saveAll(products);
+        }
+    }
+
+    /**
+     * Puts a product back in the cart before every order, since placing one empties it.
+     */
+    @State(Scope.Thread)
+    public static class FilledCart {
+
+        @Setup(Level.Invocation)
+        public void fill(Application app) {
+            boolean empty = app.transaction.execute(status ->
+                    app.cartService.getCartForLoggedInUser().getProducts().isEmpty());
+            if (empty)
+                app.addToCart(app.cartProductId);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.ecommerce.project.benchmark;
+
+import com.ecommerce.project.SbEcomApplication;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.repositories.CategoryRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.service.ProductService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request handling on a platform thread pool against one virtual thread per request.
+ *
+ * Each invocation starts {@code concurrency} simulated requests at once and waits for all of them. A request makes
+ * the same JPA call as {@code GET /api/public/products/keyword/{keyword}} and then blocks for {@code io.millis}
+ * (default 50ms) to stand in for the network and disk waits a real deployment has, which an in-memory H2 database
+ * does not. The platform pool is sized like Tomcat's default (200 threads). Besides the time per batch it reports
+ * {@code requestsPerSecond}, {@code peakInFlight} and {@code kibPerInFlight}, the growth of resident memory per
+ * request in flight.
+ *
+ * The virtual mode needs Java 21+ as the {@code java} on the path, which the forked benchmark JVM runs on. Whether
+ * virtual threads get pinned on the request path is checked by {@code VirtualThreadPinningTests}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadModelBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+    private static final long IO_MILLIS = Long.getLong("io.millis", 50);
+
+    @Param({"platform", "virtual"})
+    String mode;
+
+    @Param({"1000", "10000"})
+    int concurrency;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ExecutorService platformPool;
+    private SimpleAsyncTaskExecutor virtualExecutor;
+
+    /**
+     * Reported next to the time per batch; a single-shot iteration runs one batch, so these are its values.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Results {
+        public long requestsPerSecond;
+        public long peakInFlight;
+        public long kibPerInFlight;
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        if (mode.equals("virtual") && Runtime.version().feature() < 21)
+            throw new IllegalStateException("Virtual threads need Java 21+, running on " + Runtime.version());
+
+        context = SpringApplication.run(SbEcomApplication.class,
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.ecommerce.project=WARN",
+                // N+1 warnings would otherwise be logged on every request
+                "--logging.level.com.ecommerce.project.monitoring=ERROR",
+                "--logging.level.org.springframework=WARN",
+                "--logging.level.org.hibernate.SQL=WARN");
+        seed();
+        productService = context.getBean(ProductService.class);
+
+        if (mode.equals("virtual")) {
+            virtualExecutor = new SimpleAsyncTaskExecutor("bench-");
+            virtualExecutor.setVirtualThreads(true);
+        } else {
+            platformPool = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+        if (platformPool != null) {
+            platformPool.shutdown();
+            platformPool.awaitTermination(1, TimeUnit.MINUTES);
+        } else {
+            virtualExecutor.close();
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public void requests(Results results) throws InterruptedException {
+        Executor executor = platformPool != null ? platformPool : virtualExecutor;
+
+        System.gc();
+        long baseline = residentBytes();
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        AtomicLong peakResident = new AtomicLong(baseline);
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        Thread sampler = new Thread(() -> {
+            while (done.getCount() > 0) {
+                peakResident.accumulateAndGet(residentBytes(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            String keyword = "product " + (i % 100);
+            executor.execute(() -> {
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    productService.searchProductByKeyword(keyword, 0, 10, "productId", "asc");
+                    Thread.sleep(IO_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        sampler.interrupt();
+
+        results.requestsPerSecond = Math.round(concurrency / (elapsed / 1e9));
+        results.peakInFlight = peakInFlight.get();
+        results.kibPerInFlight = Math.max(0, peakResident.get() - baseline) / 1024 / Math.max(1, peakInFlight.get());
+    }
+
+    private void seed() {
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+
+        Category category = new Category();
+        category.setCategoryName("Benchmark");
+        category = categoryRepository.save(category);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setDescription("Benchmark product " + i);
+            product.setImage("default.png");
+            product.setQuantity(100);
+            product.setPrice(1_000 + i);
+            product.setSpecialPrice(1_000 + i);
+            product.setCategory(category);
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+    }
+
+    /**
+     * Resident set size from /proc on Linux, which includes platform thread stacks; elsewhere falls back to
+     * heap plus non-heap usage, which only captures virtual thread stacks.
+     */
+    private static long residentBytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:"))
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // Not Linux
+        }
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        return memory.getHeapMemoryUsage().getUsed() + memory.getNonHeapMemoryUsage().getUsed();
+    }
+}
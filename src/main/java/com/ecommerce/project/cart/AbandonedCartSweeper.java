@@ -0,0 +1,178 @@
+package com.ecommerce.project.cart;
+
+import com.ecommerce.project.service.CartService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes carts, with their items, that have not changed for {@code project.cart.sweep.max-idle}.
+ *
+ * A run walks the carts in cart id order, a chunk at a time, and deletes each chunk in a short transaction of its
+ * own, pausing between chunks, so it never holds many row locks or a long transaction. The chunk's carts are
+ * locked and checked again before they are deleted: one changed since it was picked is kept. Carts the cart service
+ * holds in memory are evicted from it before and after the delete, so none outlives its row. The chunk size and the
+ * pause can be changed, and the sweeper paused, while the application runs.
+ *
+ * Deleted carts count towards {@code cart.sweeper.deleted} and chunks towards {@code cart.sweeper.chunks};
+ * {@code cart.sweeper.position} is the last cart id the current or last run got to.
+ */
+public class AbandonedCartSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbandonedCartSweeper.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final CartService cartService;
+    private final Duration maxIdle;
+    private final Counter deleted;
+    private final Counter chunks;
+    private final AtomicLong position = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile int chunkSize;
+    private volatile Duration pause;
+    private volatile boolean paused;
+
+    public AbandonedCartSweeper(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                CartService cartService, AbandonedCartSweeperProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.cartService = cartService;
+        this.maxIdle = properties.getMaxIdle();
+        this.chunkSize = properties.getChunkSize();
+        this.pause = properties.getPause();
+        this.deleted = Counter.builder("cart.sweeper.deleted")
+                .description("Abandoned carts deleted")
+                .register(meterRegistry);
+        this.chunks = Counter.builder("cart.sweeper.chunks")
+                .description("Chunks of abandoned carts deleted")
+                .register(meterRegistry);
+        Gauge.builder("cart.sweeper.position", position, AtomicLong::get)
+                .description("Last cart id the sweeper got to")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the number of carts deleted; 0 if paused, or if a run is already going on
+     */
+    public int sweep() {
+        if (paused || !running.compareAndSet(false, true))
+            return 0;
+        try {
+            // Changes held in memory by the write-behind store count as changes
+            cartService.flushAllCarts();
+            Timestamp cutoff = Timestamp.from(Instant.now().minus(maxIdle));
+
+            int count = 0;
+            long after = 0;
+            position.set(0);
+            while (!paused) {
+                List<Long> cartIds = jdbcTemplate.queryForList("SELECT cart_id FROM carts "
+                                + "WHERE cart_id > ? AND last_modified < ? ORDER BY cart_id FETCH FIRST ? ROWS ONLY",
+                        Long.class, after, cutoff, chunkSize);
+                if (cartIds.isEmpty())
+                    break;
+
+                count += deleteChunk(cartIds, cutoff);
+                chunks.increment();
+                after = cartIds.get(cartIds.size() - 1);
+                position.set(after);
+                Thread.sleep(pause.toMillis());
+            }
+            if (count > 0)
+                logger.info("Deleted {} carts not changed since {}", count, cutoff);
+            return count;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int deleteChunk(List<Long> cartIds, Timestamp cutoff) {
+        // A cart held in memory by the write-behind store would otherwise outlive its row there and take changes
+        // that can no longer be saved; one with unsaved changes is written now, and so no longer counts as idle
+        cartService.evictCarts(cartIds);
+
+        String in = String.join(", ", Collections.nCopies(cartIds.size(), "?"));
+        Object[] arguments = cartIds.toArray();
+        List<Long> stale = transaction.execute(status -> {
+            // Lock the carts that are still abandoned; a cart changed meanwhile drops out here
+            List<Long> locked = jdbcTemplate.queryForList("SELECT cart_id FROM carts WHERE cart_id IN (" + in + ") "
+                    + "AND last_modified < ? FOR UPDATE", Long.class, append(arguments, cutoff));
+            if (locked.isEmpty())
+                return locked;
+
+            String lockedIn = String.join(", ", Collections.nCopies(locked.size(), "?"));
+            jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id IN (" + lockedIn + ")", locked.toArray());
+            jdbcTemplate.update("DELETE FROM carts WHERE cart_id IN (" + lockedIn + ")", locked.toArray());
+            return locked;
+        });
+        // Read into memory again since the eviction above, the carts must not stay there now they are gone
+        cartService.evictCarts(stale);
+        deleted.increment(stale.size());
+        return stale.size();
+    }
+
+    private static Object[] append(Object[] arguments, Object last) {
+        Object[] result = new Object[arguments.length + 1];
+        System.arraycopy(arguments, 0, result, 0, arguments.length);
+        result[arguments.length] = last;
+        return result;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("chunkSize must be at least 1");
+        this.chunkSize = chunkSize;
+    }
+
+    public Duration getPause() {
+        return pause;
+    }
+
+    public void setPause(Duration pause) {
+        if (pause.isNegative())
+            throw new IllegalArgumentException("pause must not be negative");
+        this.pause = pause;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Pausing stops a run in progress after its current chunk; runs resume on schedule once unpaused.
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public long getPosition() {
+        return position.get();
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.project.cart;
+
+import com.ecommerce.project.service.CartService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+
+/**
+ * Runs the {@link AbandonedCartSweeper} every {@code project.cart.sweep.interval}, unless
+ * {@code project.cart.sweep.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "project.cart.sweep", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(AbandonedCartSweeperProperties.class)
+public class AbandonedCartSweeperConfig {
+
+    @Bean
+    public AbandonedCartSweeper abandonedCartSweeper(JdbcTemplate jdbcTemplate,
+                                                     PlatformTransactionManager transactionManager,
+                                                     CartService cartService,
+                                                     AbandonedCartSweeperProperties properties,
+                                                     MeterRegistry meterRegistry, TaskScheduler taskScheduler) {
+        AbandonedCartSweeper sweeper = new AbandonedCartSweeper(jdbcTemplate, transactionManager, cartService,
+                properties, meterRegistry);
+        taskScheduler.scheduleWithFixedDelay(sweeper::sweep, Instant.now().plus(properties.getInterval()),
+                properties.getInterval());
+        return sweeper;
+    }
+}
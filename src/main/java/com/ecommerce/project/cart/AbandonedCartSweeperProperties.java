@@ -0,0 +1,38 @@
+package com.ecommerce.project.cart;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the job that deletes abandoned carts, bound from the {@code project.cart.sweep.*} properties. The
+ * chunk size and pause are only the starting values; both can be changed while the application runs.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.cart.sweep")
+public class AbandonedCartSweeperProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Time between runs; the first run is one interval after startup.
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    /**
+     * Carts not changed for this long are deleted. Keep it well above the write-behind idle timeout, so no cart
+     * held in memory is swept.
+     */
+    private Duration maxIdle = Duration.ofDays(30);
+
+    /**
+     * Carts deleted per transaction.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Wait between chunks, leaving the database to other work.
+     */
+    private Duration pause = Duration.ofMillis(100);
+}
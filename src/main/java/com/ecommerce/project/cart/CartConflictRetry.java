@@ -0,0 +1,68 @@
+package com.ecommerce.project.cart;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries {@link RetryOnConflict} methods that fail because another request changed the same cart first: the
+ * {@code @Version} check on {@code Cart} or {@code CartItem} failed, or a row lock could not be taken in time.
+ * Attempts are bounded, and spaced by exponential backoff with full jitter so that two devices retrying the same
+ * cart do not collide again in lockstep.
+ *
+ * Conflicts count towards {@code cart.conflicts} and the attempts made after them towards {@code cart.retries},
+ * both tagged with the method. A call made within the caller's transaction is not retried: the conflict rolls back
+ * the caller's work as well, so only the caller can start over.
+ */
+public class CartConflictRetry implements MethodInterceptor {
+
+    private final CartRetryProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public CartConflictRetry(CartRetryProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive())
+            return invocation.proceed();
+
+        String method = invocation.getMethod().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // A clone runs the advice after this one again, the method's own transaction included
+                return ((ProxyMethodInvocation) invocation).invocableClone().proceed();
+            } catch (ConcurrencyFailureException e) {
+                counter("cart.conflicts", method).increment();
+                if (attempt >= properties.getMaxAttempts())
+                    throw e;
+
+                counter("cart.retries", method).increment();
+                Thread.sleep(backoffMillis(attempt));
+            }
+        }
+    }
+
+    /**
+     * @return a random wait of up to the initial backoff doubled for every earlier retry, capped at the maximum
+     */
+    long backoffMillis(int attempt) {
+        long ceiling = Math.min(properties.getMaxBackoff().toMillis(),
+                properties.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private Counter counter(String name, String method) {
+        return Counter.builder(name)
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+}
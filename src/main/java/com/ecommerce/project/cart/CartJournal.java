@@ -0,0 +1,182 @@
+package com.ecommerce.project.cart;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead log for the write-behind cart store: every cart change is appended as a JSON line holding the whole
+ * new {@link CartSnapshot} before the change is acknowledged, so replaying the log means writing the last snapshot
+ * of each cart. A cart the store stops holding is {@link #forget forgotten}, so that changes made to it in the
+ * database afterwards are not overwritten by a replay.
+ *
+ * The log is split into numbered segment files. A flush first {@link #roll() rolls} to a new segment; once every
+ * cart changed before the roll is in the database, the older segments are deleted. The log therefore only holds
+ * about one flush interval of changes.
+ */
+public class CartJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartJournal.class);
+
+    private static final Pattern SEGMENT = Pattern.compile("cart-journal-(\\d+)\\.log");
+
+    private final Path directory;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long sequence;
+    private FileChannel channel;
+    private long size;
+
+    public CartJournal(Path directory, boolean fsync, ObjectMapper objectMapper) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.objectMapper = objectMapper;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            sequence = files.mapToLong(CartJournal::sequenceOf).max().orElse(0);
+        }
+        open(sequence + 1);
+    }
+
+    public void append(CartSnapshot snapshot) {
+        write(new Entry(snapshot.cartId(), snapshot));
+    }
+
+    public void forget(Long cartId) {
+        write(new Entry(cartId, null));
+    }
+
+    private void write(Entry entry) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(entry);
+            ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+            lock.lock();
+            try {
+                // Unbuffered, so an entry is with the operating system once append returns
+                while (line.hasRemaining())
+                    size += channel.write(line);
+                if (fsync)
+                    channel.force(false);
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal change to cart " + entry.cartId(), e);
+        }
+    }
+
+    /**
+     * @return bytes in the current segment
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Starts a new segment for the changes that follow.
+     *
+     * @return the older segments, oldest first
+     */
+    public List<Path> roll() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+            open(sequence + 1);
+        } finally {
+            lock.unlock();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> sequenceOf(file) > 0 && sequenceOf(file) < sequence)
+                    .sorted((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)))
+                    .toList();
+        }
+    }
+
+    public void delete(List<Path> segments) throws IOException {
+        for (Path segment : segments)
+            Files.deleteIfExists(segment);
+    }
+
+    /**
+     * Hands the last snapshot of every cart in the segments left by an earlier run to {@code writer}, then deletes
+     * those segments.
+     *
+     * @return the number of carts recovered
+     */
+    public int recover(Consumer<Collection<CartSnapshot>> writer) throws IOException {
+        List<Path> segments = roll();
+        Map<Long, CartSnapshot> latest = new LinkedHashMap<>();
+        for (Path segment : segments)
+            read(segment, latest);
+        if (!latest.isEmpty())
+            writer.accept(latest.values());
+        delete(segments);
+        return latest.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void read(Path segment, Map<Long, CartSnapshot> latest) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(segment)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    Entry entry = objectMapper.readValue(line, Entry.class);
+                    latest.remove(entry.cartId());
+                    if (entry.snapshot() != null)
+                        latest.put(entry.cartId(), entry.snapshot());
+                } catch (IOException e) {
+                    // Only the last entry can be cut short, by a crash in the middle of writing it
+                    logger.warn("Skipping unreadable cart journal entry in {}: {}", segment, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void open(long next) throws IOException {
+        sequence = next;
+        channel = FileChannel.open(directory.resolve("cart-journal-%010d.log".formatted(next)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+
+    /**
+     * @param snapshot the cart's new state, or {@code null} if it was forgotten
+     */
+    private record Entry(Long cartId, CartSnapshot snapshot) {
+    }
+
+    private static long sequenceOf(Path file) {
+        Matcher matcher = SEGMENT.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.project.cart;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.util.function.Supplier;
+
+/**
+ * Retries the {@link RetryOnConflict} cart methods that conflict with a concurrent change, bounded by the
+ * {@code project.cart.retry.*} properties.
+ */
+@Configuration
+@EnableConfigurationProperties(CartRetryProperties.class)
+public class CartRetryConfig {
+
+    @Bean
+    public CartConflictRetry cartConflictRetry(CartRetryProperties properties, MeterRegistry meterRegistry) {
+        return new CartConflictRetry(properties, meterRegistry);
+    }
+
+    /**
+     * Static, and resolving the retry on first use: advisors are looked up while bean post-processors are still
+     * being created, which must not pull in the meter registry and properties early.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor cartConflictRetryAdvisor(ObjectProvider<CartConflictRetry> cartConflictRetry) {
+        Supplier<CartConflictRetry> retry = SingletonSupplier.of(cartConflictRetry::getObject);
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(RetryOnConflict.class),
+                (MethodInterceptor) invocation -> retry.get().invoke(invocation));
+        // Around the transaction advice, which has the lowest precedence, so every attempt is a new transaction
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return advisor;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.project.cart;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for retrying cart changes that conflict with a concurrent change, bound from the
+ * {@code project.cart.retry.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.cart.retry")
+public class CartRetryProperties {
+
+    /**
+     * Attempts in all, including the first; the last conflict is passed on to the caller.
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Upper bound of the wait before the first retry, doubled for every retry after it.
+     */
+    private Duration initialBackoff = Duration.ofMillis(10);
+
+    /**
+     * Upper bound of any wait between attempts.
+     */
+    private Duration maxBackoff = Duration.ofMillis(200);
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.project.cart;
+
+import com.ecommerce.project.money.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable state of one cart: what the write-behind store serves, journals and writes to the database.
+ * Changes produce a new snapshot, whose total is recomputed from its items so it cannot drift.
+ */
+public record CartSnapshot(Long cartId, String username, long totalPrice, List<Item> items) {
+
+    public CartSnapshot {
+        items = List.copyOf(items);
+    }
+
+    /**
+     * @param productPrice in minor units, see {@link Money}
+     */
+    public record Item(Long productId, int quantity, double discount, long productPrice) {
+    }
+
+    public Item item(Long productId) {
+        return items.stream().filter(item -> item.productId().equals(productId)).findFirst().orElse(null);
+    }
+
+    public CartSnapshot withItem(Item item) {
+        List<Item> updated = new ArrayList<>(items);
+        int index = indexOf(item.productId());
+        if (index < 0)
+            updated.add(item);
+        else
+            updated.set(index, item);
+        return withItems(updated);
+    }
+
+    public CartSnapshot withoutItem(Long productId) {
+        List<Item> updated = new ArrayList<>(items);
+        int index = indexOf(productId);
+        if (index >= 0)
+            updated.remove(index);
+        return withItems(updated);
+    }
+
+    public CartSnapshot withItems(List<Item> items) {
+        long totalPrice = items.stream().mapToLong(item -> Money.times(item.productPrice(), item.quantity())).sum();
+        return new CartSnapshot(cartId, username, totalPrice, items);
+    }
+
+    private int indexOf(Long productId) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).productId().equals(productId))
+                return i;
+        }
+        return -1;
+    }
+}
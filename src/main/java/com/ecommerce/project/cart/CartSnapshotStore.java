@@ -0,0 +1,103 @@
+package com.ecommerce.project.cart;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads and writes whole carts over JDBC for the write-behind cart store. Every statement goes to the primary: a
+ * cart loaded from a lagging replica would overwrite newer changes when it is next written back.
+ */
+public class CartSnapshotStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+
+    public CartSnapshotStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        // Never part of the caller's transaction: once written, a cart counts as flushed even if the caller rolls back
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @return the user's cart, or {@code null} if they have none
+     */
+    public CartSnapshot load(String username) {
+        return transaction.execute(status -> {
+            List<CartSnapshot> carts = jdbcTemplate.query("SELECT c.cart_id, c.total_price FROM carts c "
+                            + "JOIN users u ON u.user_id = c.user_id WHERE u.username = ?",
+                    (rs, row) -> new CartSnapshot(rs.getLong(1), username, rs.getLong(2), List.of()),
+                    username);
+            if (carts.isEmpty())
+                return null;
+
+            CartSnapshot cart = carts.get(0);
+            List<CartSnapshot.Item> items = jdbcTemplate.query("SELECT product_id, quantity, discount, product_price "
+                            + "FROM cart_items WHERE cart_id = ? ORDER BY cart_item_id",
+                    (rs, row) -> new CartSnapshot.Item(rs.getLong(1), rs.getInt(2), rs.getDouble(3), rs.getLong(4)),
+                    cart.cartId());
+            return new CartSnapshot(cart.cartId(), username, cart.totalPrice(), items);
+        });
+    }
+
+    /**
+     * Creates an empty cart for the user.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if the user already has one
+     */
+    public CartSnapshot create(String username) {
+        KeyHolder key = new GeneratedKeyHolder();
+        transaction.executeWithoutResult(status -> jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement("INSERT INTO carts (total_price, user_id) "
+                    + "SELECT 0, user_id FROM users WHERE username = ?", new String[]{"cart_id"});
+            statement.setString(1, username);
+            return statement;
+        }, key));
+        return new CartSnapshot(key.getKeyAs(Long.class), username, 0, List.of());
+    }
+
+    /**
+     * Replaces the stored items and total of each cart with the snapshot's, in one transaction and three batched
+     * statements however many carts there are. Items of products deleted in the meantime are skipped.
+     *
+     * @return the ids of the carts that no longer exist, e.g. because they were swept as abandoned, and so were not
+     * saved
+     */
+    public List<Long> save(Collection<CartSnapshot> carts) {
+        List<Object[]> cartIds = new ArrayList<>(carts.size());
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> totals = new ArrayList<>(carts.size());
+        for (CartSnapshot cart : carts) {
+            cartIds.add(new Object[]{cart.cartId()});
+            for (CartSnapshot.Item item : cart.items())
+                items.add(new Object[]{item.quantity(), item.discount(), item.productPrice(), cart.cartId(),
+                        item.productId()});
+            totals.add(new Object[]{cart.totalPrice(), cart.cartId()});
+        }
+
+        int[] updated = transaction.execute(status -> {
+            jdbcTemplate.batchUpdate("DELETE FROM cart_items WHERE cart_id = ?", cartIds);
+            jdbcTemplate.batchUpdate("INSERT INTO cart_items (quantity, discount, product_price, cart_id, product_id) "
+                    + "SELECT ?, ?, ?, c.cart_id, p.product_id FROM carts c, products p "
+                    + "WHERE c.cart_id = ? AND p.product_id = ?", items);
+            return jdbcTemplate.batchUpdate("UPDATE carts SET total_price = ?, version = version + 1, "
+                    + "last_modified = CURRENT_TIMESTAMP WHERE cart_id = ?", totals);
+        });
+
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0)
+                missing.add((Long) cartIds.get(i)[0]);
+        }
+        return missing;
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.project.cart;
+
+import com.ecommerce.project.service.CartService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds carts whose stored total no longer equals the sum of their items' prices times quantities, and sets it to
+ * that sum. Totals are kept up incrementally as items change, so any missed or mis-priced update leaves them off
+ * for good without this.
+ *
+ * The cart id range is split into chunks that are checked and repaired in parallel, each by a single statement, so
+ * no cart rows are read into the application. A cart changed while its chunk runs is checked again next run.
+ */
+public class CartTotalReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartTotalReconciler.class);
+
+    private static final String ITEMS_TOTAL = "(SELECT COALESCE(SUM(ci.product_price * ci.quantity), 0) "
+            + "FROM cart_items ci WHERE ci.cart_id = c.cart_id)";
+
+    private static final String REPAIR = "UPDATE carts c SET total_price = " + ITEMS_TOTAL
+            + ", version = version + 1 WHERE c.cart_id BETWEEN ? AND ? AND c.total_price <> " + ITEMS_TOTAL;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CartService cartService;
+    private final CartTotalReconcilerProperties properties;
+    private final Counter repaired;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    public CartTotalReconciler(JdbcTemplate jdbcTemplate, CartService cartService,
+                               CartTotalReconcilerProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cartService = cartService;
+        this.properties = properties;
+        this.repaired = Counter.builder("cart.totals.repaired")
+                .description("Carts whose stored total did not match their items")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the number of carts repaired
+     */
+    public int reconcile() {
+        // Carts held in memory by the write-behind store are compared as they are now, not as last written
+        cartService.flushAllCarts();
+
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(cart_id) lo, MAX(cart_id) hi FROM carts");
+        if (range.get("lo") == null)
+            return 0;
+        long lo = ((Number) range.get("lo")).longValue();
+        long hi = ((Number) range.get("hi")).longValue();
+
+        ExecutorService pool = Executors.newFixedThreadPool(properties.getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "cart-reconciler-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Integer>> chunks = new ArrayList<>();
+            for (long from = lo; from <= hi; from += properties.getChunkSize()) {
+                long first = from;
+                long last = Math.min(hi, from + properties.getChunkSize() - 1);
+                chunks.add(pool.submit(() -> jdbcTemplate.update(REPAIR, first, last)));
+            }
+
+            int count = 0;
+            for (Future<Integer> chunk : chunks)
+                count += chunk.get();
+            if (count > 0) {
+                repaired.increment(count);
+                logger.warn("Repaired the total price of {} carts that did not match their items", count);
+            }
+            return count;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reconciling cart totals", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not reconcile cart totals", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
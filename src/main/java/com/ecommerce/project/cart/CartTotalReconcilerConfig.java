@@ -0,0 +1,32 @@
+package com.ecommerce.project.cart;
+
+import com.ecommerce.project.service.CartService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+
+/**
+ * Runs the {@link CartTotalReconciler} every {@code project.cart.reconcile.interval}, unless
+ * {@code project.cart.reconcile.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "project.cart.reconcile", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(CartTotalReconcilerProperties.class)
+public class CartTotalReconcilerConfig {
+
+    @Bean
+    public CartTotalReconciler cartTotalReconciler(JdbcTemplate jdbcTemplate, CartService cartService,
+                                                   CartTotalReconcilerProperties properties,
+                                                   MeterRegistry meterRegistry, TaskScheduler taskScheduler) {
+        CartTotalReconciler reconciler = new CartTotalReconciler(jdbcTemplate, cartService, properties, meterRegistry);
+        taskScheduler.scheduleWithFixedDelay(reconciler::reconcile, Instant.now().plus(properties.getInterval()),
+                properties.getInterval());
+        return reconciler;
+    }
+}
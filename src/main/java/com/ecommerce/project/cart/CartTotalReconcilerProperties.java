@@ -0,0 +1,31 @@
+package com.ecommerce.project.cart;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the job that repairs cart totals, bound from the {@code project.cart.reconcile.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.cart.reconcile")
+public class CartTotalReconcilerProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Time between runs; the first run is one interval after startup.
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    /**
+     * Range of cart ids checked and repaired by one statement.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Chunks worked on at once, each holding a database connection while it runs.
+     */
+    private int parallelism = 2;
+}
@@ -0,0 +1,63 @@
+package com.ecommerce.project.cart;
+
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Price and stock of products as guest carts and cart quotes show them, held in memory for
+ * {@code project.cart.catalog-prices.time-to-live} so they seldom read products from the database. Products
+ * missing from memory are read together in one query, as DTOs, so their cart items are never loaded. A product
+ * is evicted once a change to it commits, see {@code ProductChangeListener}.
+ *
+ * A price read just before a change commits can still be served until it expires; the cart a guest cart is
+ * merged into at sign-in, and the order placed from a cart, are priced from the database. Publishes the
+ * {@code cache.*} metrics for {@code catalog.prices}.
+ */
+public class CatalogPriceCache {
+
+    private final ProductRepository productRepository;
+    private final Cache<Long, ProductDTO> cache;
+
+    public CatalogPriceCache(ProductRepository productRepository, CatalogPriceProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "catalog.prices");
+    }
+
+    /**
+     * @return a copy of each product that exists, by product ID; the caller may change them
+     */
+    public Map<Long, ProductDTO> getAll(Collection<Long> productIds) {
+        Map<Long, ProductDTO> products = cache.getAll(productIds, missing ->
+                productRepository.findDTOsByProductIdIn(missing).stream()
+                        .collect(Collectors.toMap(ProductDTO::getProductId, Function.identity())));
+        return products.values().stream()
+                .collect(Collectors.toMap(ProductDTO::getProductId, CatalogPriceCache::copy, (a, b) -> a,
+                        LinkedHashMap::new));
+    }
+
+    public void evict(Long productId) {
+        cache.invalidate(productId);
+    }
+
+    private static ProductDTO copy(ProductDTO product) {
+        return new ProductDTO(product.getProductId(), product.getProductName(), product.getDescription(),
+                product.getImage(), product.getQuantity(), product.getPrice(), product.getDiscount(),
+                product.getSpecialPrice());
+    }
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.project.cart;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the {@link CatalogPriceCache}, bound from the {@code project.cart.catalog-prices.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.cart.catalog-prices")
+public class CatalogPriceProperties {
+
+    /**
+     * How long a product's price and stock are served from memory before being read again, unless the product
+     * changes first.
+     */
+    private Duration timeToLive = Duration.ofSeconds(30);
+
+    /**
+     * Products whose price and stock are held in memory.
+     */
+    private long maxEntries = 10_000;
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.project.cart;
+
+import java.util.List;
+
+/**
+ * The contents of a cart of a shopper who has not signed in: only products and quantities, since prices are
+ * always read from the catalog. It lives in a signed cookie, see {@link GuestCartCodec}, never in the database.
+ */
+public record GuestCart(List<Line> lines) {
+
+    public static final GuestCart EMPTY = new GuestCart(List.of());
+
+    public GuestCart {
+        lines = List.copyOf(lines);
+    }
+
+    public record Line(Long productId, int quantity) {
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+}
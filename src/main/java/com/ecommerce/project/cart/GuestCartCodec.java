@@ -0,0 +1,134 @@
+package com.ecommerce.project.cart;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.util.WebUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and writes a {@link GuestCart} as a cookie such as {@code 1~12:2.40:1~<tag>}: a format version, then
+ * {@code productId:quantity} pairs, then a truncated HMAC-SHA256 of both. The tag keeps shoppers from editing the
+ * cart by hand; a cookie that is malformed or whose tag does not match is read as an empty cart.
+ */
+public class GuestCartCodec {
+
+    private static final Logger logger = LoggerFactory.getLogger(GuestCartCodec.class);
+
+    private static final String VERSION = "1";
+    private static final String HMAC = "HmacSHA256";
+    // 128 bits of the MAC are plenty against forgery and keep the cookie short
+    private static final int TAG_BYTES = 16;
+    // A cookie can not be larger than this anyway; anything longer is not ours
+    private static final int MAX_LENGTH = 4096;
+
+    private final SecretKey key;
+    private final GuestCartProperties properties;
+
+    public GuestCartCodec(SecretKey key, GuestCartProperties properties) {
+        this.key = key;
+        this.properties = properties;
+    }
+
+    public GuestCart read(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, properties.getCookieName());
+        return cookie == null ? GuestCart.EMPTY : decode(cookie.getValue());
+    }
+
+    /**
+     * @return the cookie holding the cart, or one that removes it if the cart is empty
+     */
+    public ResponseCookie cookie(GuestCart cart) {
+        if (cart.isEmpty())
+            return cleanCookie();
+        return baseCookie(encode(cart))
+                .maxAge(properties.getMaxAge())
+                .build();
+    }
+
+    public ResponseCookie cleanCookie() {
+        return baseCookie("").maxAge(0).build();
+    }
+
+    String encode(GuestCart cart) {
+        String payload = VERSION + "~" + cart.lines().stream()
+                .map(line -> line.productId() + ":" + line.quantity())
+                .collect(Collectors.joining("."));
+        return payload + "~" + Base64.getUrlEncoder().withoutPadding().encodeToString(tag(payload));
+    }
+
+    GuestCart decode(String value) {
+        if (value == null || value.isEmpty() || value.length() > MAX_LENGTH)
+            return GuestCart.EMPTY;
+
+        int tagStart = value.lastIndexOf('~');
+        String payload = value.substring(0, Math.max(tagStart, 0));
+        if (tagStart < 0 || !payload.startsWith(VERSION + "~")) {
+            logger.debug("Ignoring guest cart cookie in an unknown format");
+            return GuestCart.EMPTY;
+        }
+        byte[] tag;
+        try {
+            tag = Base64.getUrlDecoder().decode(value.substring(tagStart + 1));
+        } catch (IllegalArgumentException e) {
+            tag = new byte[0];
+        }
+        if (!MessageDigest.isEqual(tag, tag(payload))) {
+            logger.debug("Ignoring guest cart cookie with a signature that does not match");
+            return GuestCart.EMPTY;
+        }
+
+        String items = payload.substring(VERSION.length() + 1);
+        if (items.isEmpty())
+            return GuestCart.EMPTY;
+        List<GuestCart.Line> lines = new ArrayList<>();
+        Set<Long> productIds = new HashSet<>();
+        try {
+            for (String item : items.split("\\.")) {
+                int colon = item.indexOf(':');
+                Long productId = Long.valueOf(item.substring(0, colon));
+                int quantity = Integer.parseInt(item.substring(colon + 1));
+                if (quantity < 1 || !productIds.add(productId))
+                    throw new IllegalArgumentException();
+                lines.add(new GuestCart.Line(productId, quantity));
+            }
+        } catch (RuntimeException e) {
+            // Signed by us, so only possible if the format changed without a new version
+            logger.warn("Ignoring signed guest cart cookie that can not be parsed");
+            return GuestCart.EMPTY;
+        }
+        return new GuestCart(lines);
+    }
+
+    private ResponseCookie.ResponseCookieBuilder baseCookie(String value) {
+        return ResponseCookie.from(properties.getCookieName(), value)
+                .path("/api")
+                .httpOnly(true)
+                .sameSite("Lax");
+    }
+
+    private byte[] tag(String payload) {
+        try {
+            // Mac instances are not thread-safe, and cheap to create
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)), TAG_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can not sign guest cart", e);
+        }
+    }
+}
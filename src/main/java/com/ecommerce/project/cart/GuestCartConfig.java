@@ -0,0 +1,28 @@
+package com.ecommerce.project.cart;
+
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.security.jwt.JwtUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Carts for shoppers who have not signed in, kept in a cookie signed with a key derived from the JWT secret and
+ * priced from memory, so browsing with a cart never writes to the database.
+ */
+@Configuration
+@EnableConfigurationProperties({GuestCartProperties.class, CatalogPriceProperties.class})
+public class GuestCartConfig {
+
+    @Bean
+    public GuestCartCodec guestCartCodec(JwtUtils jwtUtils, GuestCartProperties properties) {
+        return new GuestCartCodec(jwtUtils.deriveKey("guest-cart"), properties);
+    }
+
+    @Bean
+    public CatalogPriceCache catalogPriceCache(ProductRepository productRepository, CatalogPriceProperties properties,
+                                               MeterRegistry meterRegistry) {
+        return new CatalogPriceCache(productRepository, properties, meterRegistry);
+    }
+}
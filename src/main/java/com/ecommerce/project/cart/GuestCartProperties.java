@@ -0,0 +1,29 @@
+package com.ecommerce.project.cart;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for carts of shoppers who have not signed in, bound from the {@code project.cart.guest.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.cart.guest")
+public class GuestCartProperties {
+
+    /**
+     * Name of the signed cookie holding the cart.
+     */
+    private String cookieName = "guestCart";
+
+    /**
+     * How long the browser keeps the cookie after the cart last changed.
+     */
+    private Duration maxAge = Duration.ofDays(30);
+
+    /**
+     * Products one guest cart may hold, which keeps the cookie well below the 4 KB browsers accept.
+     */
+    private int maxProducts = 50;
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.project.cart;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a cart method again when it loses a race with a concurrent change to the same cart, see
+ * {@link CartConflictRetry}. The method must be transactional, so that every attempt reads the cart afresh.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
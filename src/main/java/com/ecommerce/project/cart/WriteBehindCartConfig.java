@@ -0,0 +1,74 @@
+package com.ecommerce.project.cart;
+
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.security.service.AuthUtil;
+import com.ecommerce.project.service.CartServiceImpl;
+import com.ecommerce.project.service.WriteBehindCartService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Replaces the database cart store with {@link WriteBehindCartService} when {@code project.cart.store=write-behind}.
+ * The database store stays available underneath it for the work that has to go straight to the database.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "project.cart", name = "store", havingValue = "write-behind")
+@EnableConfigurationProperties(WriteBehindCartProperties.class)
+public class WriteBehindCartConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCartConfig.class);
+
+    @Bean
+    public CartSnapshotStore cartSnapshotStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        return new CartSnapshotStore(jdbcTemplate, transactionManager);
+    }
+
+    /**
+     * Opens the journal after writing any changes an earlier run left in it to the database, before the first
+     * request can load a cart.
+     */
+    @Bean
+    @DependsOnDatabaseInitialization
+    public CartJournal cartJournal(WriteBehindCartProperties properties, CartSnapshotStore cartSnapshotStore,
+                                   ObjectMapper objectMapper) throws IOException {
+        WriteBehindCartProperties.Journal settings = properties.getJournal();
+        CartJournal journal = new CartJournal(settings.getDirectory(), settings.isFsync(), objectMapper);
+        int recovered = journal.recover(carts -> {
+            List<Long> missing = cartSnapshotStore.save(carts);
+            if (!missing.isEmpty())
+                logger.warn("Carts {} from the cart journal no longer exist; their changes were not recovered",
+                        missing);
+        });
+        if (recovered > 0)
+            logger.info("Recovered {} carts from the cart journal in {}", recovered, settings.getDirectory());
+        return journal;
+    }
+
+    @Bean
+    @Primary
+    public WriteBehindCartService writeBehindCartService(CartServiceImpl cartServiceImpl,
+                                                         CartSnapshotStore cartSnapshotStore, CartJournal cartJournal,
+                                                         ProductRepository productRepository, ModelMapper modelMapper,
+                                                         AuthUtil authUtil, TaskScheduler taskScheduler,
+                                                         WriteBehindCartProperties properties,
+                                                         CatalogPriceCache catalogPriceCache) {
+        WriteBehindCartService service = new WriteBehindCartService(cartServiceImpl, cartSnapshotStore, cartJournal,
+                productRepository, modelMapper, authUtil, taskScheduler, properties, catalogPriceCache);
+        taskScheduler.scheduleWithFixedDelay(service::flushAllCarts, properties.getFlushInterval());
+        return service;
+    }
+}
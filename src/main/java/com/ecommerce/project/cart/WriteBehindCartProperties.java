@@ -0,0 +1,53 @@
+package com.ecommerce.project.cart;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the write-behind cart store, used when {@code project.cart.store=write-behind}.
+ * Bound from the {@code project.cart.write-behind.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.cart.write-behind")
+public class WriteBehindCartProperties {
+
+    /**
+     * How often changed carts are written to the database.
+     */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /**
+     * Carts written per database transaction.
+     */
+    private int batchSize = 200;
+
+    /**
+     * Carts without changes are dropped from memory after this long without being used.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+
+    private Journal journal = new Journal();
+
+    /**
+     * Append-only log of cart changes not yet in the database, replayed on startup after a crash.
+     */
+    @Data
+    public static class Journal {
+        private Path directory = Path.of("cart-journal");
+
+        /**
+         * A flush starts early once the journal grows past this size.
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(16);
+
+        /**
+         * Force every entry to disk, so changes also survive an operating system crash rather than just the
+         * application's. Slows every cart change down to the disk's sync latency.
+         */
+        private boolean fsync = false;
+    }
+}
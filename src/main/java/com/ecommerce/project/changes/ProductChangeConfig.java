@@ -0,0 +1,20 @@
+package com.ecommerce.project.changes;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Stamps product changes with the versions the change feed is read by.
+ */
+@Configuration
+@EnableConfigurationProperties(ProductChangeProperties.class)
+public class ProductChangeConfig {
+
+    @Bean
+    public ProductChangeVersions productChangeVersions(JdbcTemplate jdbcTemplate,
+                                                       ProductChangeProperties properties) {
+        return new ProductChangeVersions(jdbcTemplate, properties.getSettleWindow());
+    }
+}
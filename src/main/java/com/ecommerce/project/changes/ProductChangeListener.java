@@ -0,0 +1,88 @@
+package com.ecommerce.project.changes;
+
+import com.ecommerce.project.cart.CatalogPriceCache;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductChangeDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Stamps a new change version on every product that is created or modified and records a tombstone for every
+ * product that is deleted, including ones removed along with their category. Once the transaction commits, the
+ * change or deletion is pushed to the product's subscribers through the {@link ProductEventHub}, and the product's
+ * price is evicted from the {@link CatalogPriceCache}; this covers every path that changes a product, from an
+ * admin edit to the stock taken by an order.
+ */
+@Component
+public class ProductChangeListener {
+
+    private final ProductChangeVersions versions;
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductEventHub productEventHub;
+    // Looked up when first needed, as the cache's repository needs the entity manager factory that creates this
+    private final ObjectProvider<CatalogPriceCache> catalogPriceCache;
+
+    public ProductChangeListener(ProductChangeVersions versions, JdbcTemplate jdbcTemplate,
+                                 ProductEventHub productEventHub, ObjectProvider<CatalogPriceCache> catalogPriceCache) {
+        this.versions = versions;
+        this.jdbcTemplate = jdbcTemplate;
+        this.productEventHub = productEventHub;
+        this.catalogPriceCache = catalogPriceCache;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void stampVersion(Product product) {
+        product.setChangeVersion(versions.nextUnlessAllocated(product.getChangeVersion()));
+    }
+
+    /**
+     * Runs during the flush, so the tombstone is written over JDBC on the transaction's connection rather than
+     * through the entity manager that is busy flushing.
+     */
+    @PostRemove
+    public void recordTombstone(Product product) {
+        long version = versions.next();
+        jdbcTemplate.update("INSERT INTO product_tombstones (product_id, change_version, deleted_at) VALUES (?, ?, ?)",
+                product.getProductId(), version, Timestamp.from(Instant.now()));
+        publishAfterCommit(new ProductChangeDTO(version, product.getProductId(), true, null));
+    }
+
+    @PostUpdate
+    public void publishUpdate(Product product) {
+        ProductDTO productDTO = new ProductDTO(product.getProductId(), product.getProductName(),
+                product.getDescription(), product.getImage(), product.getQuantity(), product.getPrice(),
+                product.getDiscount(), product.getSpecialPrice(), product.getImageVariants());
+        publishAfterCommit(new ProductChangeDTO(product.getChangeVersion(), product.getProductId(), false,
+                productDTO));
+    }
+
+    private void publishAfterCommit(ProductChangeDTO change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(change);
+            }
+        });
+    }
+
+    private void publish(ProductChangeDTO change) {
+        catalogPriceCache.ifAvailable(cache -> cache.evict(change.getProductId()));
+        productEventHub.publish(change);
+    }
+}
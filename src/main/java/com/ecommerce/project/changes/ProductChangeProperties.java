@@ -0,0 +1,22 @@
+package com.ecommerce.project.changes;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the product change feed at {@code /api/admin/products/changes}, bound from the
+ * {@code project.products.changes.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.products.changes")
+public class ProductChangeProperties {
+
+    /**
+     * How long the feed waits before returning changes with versions that other application instances handed out.
+     * It must be longer than any transaction that changes products takes, or the feed could skip a change that
+     * commits late. Changes made through this instance are returned as soon as everything before them committed.
+     */
+    private Duration settleWindow = Duration.ofSeconds(5);
+}
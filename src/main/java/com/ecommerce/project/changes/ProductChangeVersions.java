@@ -0,0 +1,163 @@
+package com.ecommerce.project.changes;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hands out the change versions stamped on products and product tombstones, and tells change feed readers how far
+ * every change has committed.
+ *
+ * Versions come from the {@code product_change_versions} sequence, so they are unique across application instances
+ * and taking one locks nothing. A version is taken when the change is flushed but only becomes visible when its
+ * transaction commits, so a later version can be visible before an earlier one. {@link #stableVersion()} is the
+ * highest version below which nothing can still commit: for this instance, the version before the oldest one its
+ * unfinished transactions hold; for other instances, whose transactions it cannot see, the last version handed out
+ * at least the settle window ago, assuming no transaction that changes products runs longer than that.
+ */
+public class ProductChangeVersions {
+
+    private static final String LAST_HANDED_OUT = "SELECT base_value - 1 FROM information_schema.sequences "
+            + "WHERE sequence_name = 'PRODUCT_CHANGE_VERSIONS'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long settleWindowNanos;
+
+    // Shared while a version is taken and marked pending, exclusive while the stable version is worked out
+    private final ReadWriteLock allocation = new ReentrantReadWriteLock();
+    private final NavigableSet<Long> pending = new ConcurrentSkipListSet<>();
+    // The last version handed out as seen at different times, oldest first
+    private final Deque<Sample> samples = new ArrayDeque<>();
+
+    private record Sample(long nanos, long version) {
+    }
+
+    public ProductChangeVersions(JdbcTemplate jdbcTemplate, Duration settleWindow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settleWindowNanos = settleWindow.toNanos();
+    }
+
+    /**
+     * Like {@link #next()}, but keeps {@code current} if the current transaction allocated it, so an entity that is
+     * flushed several times in one transaction is stamped once.
+     */
+    @SuppressWarnings("unchecked")
+    public long nextUnlessAllocated(Long current) {
+        if (current != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            Set<Long> allocated = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+            if (allocated != null && allocated.contains(current))
+                return current;
+        }
+        return next();
+    }
+
+    /**
+     * @return a new version, pending until the current transaction (if any) completes
+     */
+    @SuppressWarnings("unchecked")
+    public long next() {
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        long version;
+        allocation.readLock().lock();
+        try {
+            version = take(1).get(0);
+            if (inTransaction)
+                pending.add(version);
+        } finally {
+            allocation.readLock().unlock();
+        }
+        if (inTransaction) {
+            Set<Long> allocated = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+            if (allocated == null) {
+                Set<Long> versions = new HashSet<>();
+                allocated = versions;
+                TransactionSynchronizationManager.bindResource(this, versions);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(ProductChangeVersions.this);
+                        pending.removeAll(versions);
+                    }
+                });
+            }
+            allocated.add(version);
+        }
+        return version;
+    }
+
+    /**
+     * Takes {@code count} versions for changes written on a connection that Spring does not manage. They are
+     * pending until {@link #release(List) released}, which the caller does once that connection has committed or
+     * rolled back.
+     */
+    public List<Long> reserve(int count) {
+        allocation.readLock().lock();
+        try {
+            List<Long> versions = take(count);
+            pending.addAll(versions);
+            return versions;
+        } finally {
+            allocation.readLock().unlock();
+        }
+    }
+
+    public void release(List<Long> versions) {
+        pending.removeAll(versions);
+    }
+
+    /**
+     * @return the highest version such that every change up to and including it has committed or rolled back
+     */
+    public long stableVersion() {
+        long handedOut;
+        Long oldestPending;
+        allocation.writeLock().lock();
+        try {
+            Long last = jdbcTemplate.queryForObject(LAST_HANDED_OUT, Long.class);
+            handedOut = last == null ? 0 : last;
+            oldestPending = pending.isEmpty() ? null : pending.first();
+        } finally {
+            allocation.writeLock().unlock();
+        }
+        long settled = settled(System.nanoTime(), handedOut);
+        return oldestPending == null ? settled : Math.min(settled, oldestPending - 1);
+    }
+
+    /**
+     * @return the last version handed out at least the settle window before {@code now}, or 0 until this instance
+     * has been asked for that long
+     */
+    private synchronized long settled(long now, long handedOut) {
+        if (settleWindowNanos == 0)
+            return handedOut;
+        // A new sample every sixteenth of the window keeps few of them while moving the watermark along
+        if (samples.isEmpty() || now - samples.getLast().nanos() >= settleWindowNanos / 16)
+            samples.addLast(new Sample(now, handedOut));
+        // Only the newest sample that is old enough is needed
+        while (samples.size() > 1) {
+            Sample oldest = samples.removeFirst();
+            if (now - samples.getFirst().nanos() < settleWindowNanos) {
+                samples.addFirst(oldest);
+                break;
+            }
+        }
+        Sample oldest = samples.getFirst();
+        return now - oldest.nanos() >= settleWindowNanos ? oldest.version() : 0;
+    }
+
+    private List<Long> take(int count) {
+        return jdbcTemplate.queryForList("SELECT NEXT VALUE FOR product_change_versions FROM system_range(1, ?)",
+                Long.class, count);
+    }
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.project.changes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+
+/**
+ * Pushes product changes to subscribed clients through the {@link ProductEventHub}, which checks its subscribers
+ * for lag and idle connections every second.
+ */
+@Configuration
+@EnableConfigurationProperties(ProductEventProperties.class)
+public class ProductEventConfig {
+
+    @Bean(destroyMethod = "close")
+    public ProductEventHub productEventHub(ProductEventProperties properties, MeterRegistry meterRegistry,
+                                           TaskScheduler taskScheduler) {
+        ProductEventHub hub = new ProductEventHub(properties, meterRegistry);
+        taskScheduler.scheduleWithFixedDelay(hub::sweep, Duration.ofSeconds(1));
+        return hub;
+    }
+}
@@ -0,0 +1,260 @@
+package com.ecommerce.project.changes;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.exceptions.LaneRejectedException;
+import com.ecommerce.project.payload.ProductChangeDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes product changes to the clients subscribed to those products, as Server-Sent Events named {@code product}
+ * carrying a {@link ProductChangeDTO}, with the change version as event ID.
+ *
+ * Subscriptions are held without a thread each. Publishing only looks up a product's subscribers and queues the
+ * change with each; a few dispatch threads do the writing, so a slow connection never holds up a publisher. Each
+ * subscriber's queue keeps only the latest change per product, so it can never grow beyond the products it follows,
+ * and a subscriber that has had a change waiting longer than {@code max-lag} is disconnected.
+ *
+ * Publishes {@code product.events.subscribers}, and counts {@code product.events.published},
+ * {@code product.events.delivered}, {@code product.events.coalesced} and {@code product.events.evicted}.
+ */
+public class ProductEventHub implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductEventHub.class);
+
+    private final ProductEventProperties properties;
+    private final ExecutorService dispatcher;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, Set<Subscriber>> subscribersByProduct = new ConcurrentHashMap<>();
+
+    private final Counter published;
+    private final Counter delivered;
+    private final Counter coalesced;
+    private final Counter evicted;
+
+    public ProductEventHub(ProductEventProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        AtomicInteger threads = new AtomicInteger();
+        // One queued task per subscriber at most, so the queue is bounded by max-subscribers
+        this.dispatcher = Executors.newFixedThreadPool(properties.getDispatchThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "product-events-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("product.events.subscribers", subscribers, Set::size).register(meterRegistry);
+        this.published = meterRegistry.counter("product.events.published");
+        this.delivered = meterRegistry.counter("product.events.delivered");
+        this.coalesced = meterRegistry.counter("product.events.coalesced");
+        this.evicted = meterRegistry.counter("product.events.evicted");
+    }
+
+    /**
+     * @param productIds the products to receive changes of
+     * @return the open event stream
+     * @throws LaneRejectedException if there are already {@code max-subscribers} subscriptions
+     */
+    public SseEmitter subscribe(Collection<Long> productIds) {
+        Set<Long> products = Set.copyOf(productIds);
+        if (products.isEmpty() || products.size() > properties.getMaxProductsPerSubscriber())
+            throw new APIException("Subscribe to between 1 and " + properties.getMaxProductsPerSubscriber()
+                    + " products");
+        if (subscribers.size() >= properties.getMaxSubscribers())
+            throw new LaneRejectedException("product subscription");
+
+        Subscriber subscriber = new Subscriber(new SseEmitter(properties.getTimeout().toMillis()), products);
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+
+        subscribers.add(subscriber);
+        for (Long productId : products)
+            subscribersByProduct.compute(productId, (key, set) -> {
+                if (set == null)
+                    set = ConcurrentHashMap.newKeySet();
+                set.add(subscriber);
+                return set;
+            });
+        // Sent as soon as the response starts, so the client knows it is subscribed
+        subscriber.heartbeat();
+        return subscriber.emitter;
+    }
+
+    /**
+     * Queues a committed change for every subscriber of its product.
+     */
+    public void publish(ProductChangeDTO change) {
+        published.increment();
+        Set<Subscriber> interested = subscribersByProduct.get(change.getProductId());
+        if (interested != null)
+            interested.forEach(subscriber -> subscriber.offer(change));
+    }
+
+    /**
+     * Disconnects subscribers that fall too far behind and sends heartbeats to idle ones. Run every second.
+     */
+    public void sweep() {
+        long now = System.nanoTime();
+        long maxLag = properties.getMaxLag().toNanos();
+        long heartbeatInterval = properties.getHeartbeatInterval().toNanos();
+        for (Subscriber subscriber : subscribers) {
+            long behindSince = subscriber.behindSince();
+            if (behindSince != 0 && now - behindSince > maxLag) {
+                evicted.increment();
+                logger.debug("Disconnecting product event subscriber that is {} ms behind",
+                        (now - behindSince) / 1_000_000);
+                remove(subscriber);
+                subscriber.emitter.complete();
+            } else if (now - subscriber.lastSent > heartbeatInterval) {
+                subscriber.heartbeat();
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void close() {
+        subscribers.forEach(subscriber -> {
+            remove(subscriber);
+            subscriber.emitter.complete();
+        });
+        dispatcher.shutdownNow();
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (!subscribers.remove(subscriber))
+            return;
+        for (Long productId : subscriber.productIds)
+            subscribersByProduct.computeIfPresent(productId, (key, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final Set<Long> productIds;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean closed;
+        // Since when the changes being written, and those still pending, have been waiting; 0 if there are none
+        volatile long sendingSince;
+        volatile long waitingSince;
+        volatile long lastSent = System.nanoTime();
+
+        // Guarded by this; one entry per product, so never larger than the subscription
+        private Map<Long, ProductChangeDTO> pending = new LinkedHashMap<>();
+        private boolean heartbeatDue;
+
+        Subscriber(SseEmitter emitter, Set<Long> productIds) {
+            this.emitter = emitter;
+            this.productIds = productIds;
+        }
+
+        long behindSince() {
+            long sending = sendingSince;
+            return sending != 0 ? sending : waitingSince;
+        }
+
+        void offer(ProductChangeDTO change) {
+            synchronized (this) {
+                if (closed)
+                    return;
+                if (waitingSince == 0)
+                    waitingSince = System.nanoTime();
+                ProductChangeDTO replaced = pending.put(change.getProductId(), change);
+                // Changes can be published out of version order by concurrent commits; keep the newest
+                if (replaced != null) {
+                    coalesced.increment();
+                    if (replaced.getChangeVersion() > change.getChangeVersion())
+                        pending.put(change.getProductId(), replaced);
+                }
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                if (closed)
+                    return;
+                if (waitingSince == 0)
+                    waitingSince = System.nanoTime();
+                heartbeatDue = true;
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // Shutting down
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    Map<Long, ProductChangeDTO> batch;
+                    boolean heartbeat;
+                    synchronized (this) {
+                        if (closed || (pending.isEmpty() && !heartbeatDue))
+                            break;
+                        batch = pending;
+                        pending = new LinkedHashMap<>();
+                        heartbeat = heartbeatDue;
+                        heartbeatDue = false;
+                        sendingSince = waitingSince;
+                        waitingSince = 0;
+                    }
+                    for (ProductChangeDTO change : batch.values())
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(change.getChangeVersion()))
+                                .name("product")
+                                .data(change, MediaType.APPLICATION_JSON));
+                    if (heartbeat)
+                        emitter.send(SseEmitter.event().comment(""));
+                    delivered.increment(batch.size());
+                    lastSent = System.nanoTime();
+                    sendingSince = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away, or the emitter was completed meanwhile
+                remove(this);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            // Something offered between the last check and clearing the flag would otherwise wait for the next offer
+            synchronized (this) {
+                if (closed || (pending.isEmpty() && !heartbeatDue))
+                    return;
+            }
+            schedule();
+        }
+    }
+}
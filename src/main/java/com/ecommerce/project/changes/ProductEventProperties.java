@@ -0,0 +1,48 @@
+package com.ecommerce.project.changes;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for pushing product changes to clients over Server-Sent Events, bound from the
+ * {@code project.products.events.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.products.events")
+public class ProductEventProperties {
+
+    /**
+     * Open subscriptions at most; more are turned away with 503 until some close. Tomcat's
+     * {@code server.tomcat.max-connections} must leave room for them.
+     */
+    private int maxSubscribers = 20_000;
+
+    /**
+     * Products one subscription may follow. It is also the bound of each subscription's buffer, which holds at most
+     * the latest change of each product not yet sent.
+     */
+    private int maxProductsPerSubscriber = 100;
+
+    /**
+     * Threads writing events to subscribers. Publishing never writes to a connection itself.
+     */
+    private int dispatchThreads = 4;
+
+    /**
+     * A subscriber with a change waiting this long, because its connection takes writes too slowly, is disconnected.
+     */
+    private Duration maxLag = Duration.ofSeconds(10);
+
+    /**
+     * A comment is sent after this long without events, so proxies keep the connection open and dead clients are
+     * noticed.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * Subscriptions are closed after this long; browsers reconnect on their own.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+}
@@ -11,4 +11,12 @@ public class AppConstants {
 
     public static final String SORT_DIR = "asc";
 
+    public static final String CHANGES_SINCE = "0";
+    public static final String CHANGES_LIMIT = "100";
+    public static final int MAX_CHANGES_LIMIT = 1000;
+
+    public static final String CARTS_AFTER = "0";
+    public static final String CARTS_LIMIT = "50";
+    public static final int MAX_CARTS_LIMIT = 1000;
+
 }
@@ -0,0 +1,15 @@
+package com.ecommerce.project.config;
+
+/**
+ * Hibernate second-level cache region names, shared by the entity mappings and {@link SecondLevelCacheConfig}.
+ */
+public class CacheRegions {
+
+    public static final String CATEGORIES = "categories";
+    public static final String ROLES = "roles";
+    public static final String PRODUCTS = "products";
+
+    // Hibernate's own regions for cached query results and the table timestamps that invalidate them
+    public static final String QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.project.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs across the application.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
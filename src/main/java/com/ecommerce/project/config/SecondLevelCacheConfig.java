@@ -0,0 +1,118 @@
+package com.ecommerce.project.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Hibernate second-level and query cache, backed by Caffeine through JCache.
+ *
+ * Only entities that are read far more often than they change are cached:
+ * <ul>
+ *     <li>{@code Role} is {@code READ_WRITE}: roles are seeded once and rarely change, but the entity is mutable.</li>
+ *     <li>{@code Category} and {@code Product} are {@code READ_WRITE}, so an update takes a soft lock on the
+ *     entry until the transaction commits and no reader sees a half-written row.</li>
+ * </ul>
+ * Entity regions are bounded by {@code project.cache.max-entries} and expire {@code project.cache.time-to-live}
+ * after they were written, which also caps how long a value read from a lagging replica can be served.
+ *
+ * Publishes {@code hibernate.cache.hit.ratio} per region alongside Hibernate's own {@code hibernate.*} metrics.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final List<String> ENTITY_REGIONS =
+            List.of(CacheRegions.CATEGORIES, CacheRegions.ROLES, CacheRegions.PRODUCTS);
+
+    /**
+     * A cache manager of our own rather than the provider's JVM-wide default, so that two application contexts
+     * in one JVM (as in tests) never share cached rows from different databases.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${project.cache.max-entries:10000}") long maxEntries,
+                                              @Value("${project.cache.time-to-live:10m}") Duration timeToLive) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (String region : ENTITY_REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+            configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+            cacheManager.createCache(region, configuration);
+        }
+
+        CaffeineConfiguration<Object, Object> queryResults = new CaffeineConfiguration<>();
+        queryResults.setMaximumSize(OptionalLong.of(maxEntries));
+        queryResults.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+        cacheManager.createCache(CacheRegions.QUERY_RESULTS, queryResults);
+
+        // Must never evict: a missing timestamp would let a stale query result look current
+        cacheManager.createCache(CacheRegions.UPDATE_TIMESTAMPS, new CaffeineConfiguration<>());
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // Every region is created above; a typo in a mapping should fail fast rather than cache unbounded
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+            for (String region : ENTITY_REGIONS)
+                registerHitRatio(registry, region, statistics, s -> hitRatio(s.getDomainDataRegionStatistics(region)));
+
+            registerHitRatio(registry, CacheRegions.QUERY_RESULTS, statistics, s -> hitRatio(
+                    s.getQueryCacheHitCount(), s.getQueryCacheMissCount()));
+        };
+    }
+
+    private static void registerHitRatio(MeterRegistry registry, String region,
+                                         Statistics statistics, ToDoubleFunction<Statistics> ratio) {
+        Gauge.builder("hibernate.cache.hit.ratio", statistics, ratio)
+                .tag("region", region)
+                .description("Fraction of second-level cache lookups served from the cache")
+                .register(registry);
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        return region == null ? 0.0 : hitRatio(region.getHitCount(), region.getMissCount());
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
@@ -1,5 +1,7 @@
 package com.ecommerce.project.controller;
 
+import com.ecommerce.project.cart.GuestCart;
+import com.ecommerce.project.cart.GuestCartCodec;
 import com.ecommerce.project.exceptions.APIException;
 import com.ecommerce.project.model.AppRole;
 import com.ecommerce.project.model.Role;
@@ -12,7 +14,11 @@ import com.ecommerce.project.security.request.SignupRequest;
 import com.ecommerce.project.security.response.MessageResponse;
 import com.ecommerce.project.security.response.UserInfoResponse;
 import com.ecommerce.project.security.service.UserDetailsImpl;
+import com.ecommerce.project.service.GuestCartService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
@@ -36,20 +42,27 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/auth")
 public class AuthController {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
+
     private final JwtUtils jwtUtils;
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final GuestCartCodec guestCartCodec;
+    private final GuestCartService guestCartService;
 
     public AuthController(JwtUtils jwtUtils, AuthenticationManager authenticationManager,
                           UserRepository userRepository, RoleRepository roleRepository,
-                          PasswordEncoder passwordEncoder) {
+                          PasswordEncoder passwordEncoder, GuestCartCodec guestCartCodec,
+                          GuestCartService guestCartService) {
         this.jwtUtils = jwtUtils;
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.guestCartCodec = guestCartCodec;
+        this.guestCartService = guestCartService;
     }
 
 
@@ -57,13 +70,16 @@ public class AuthController {
      * Authenticates a user based on the provided login request.
      * If the authentication is successful, a JSON Web Token (JWT) along with user details and roles
      * is returned in the response. If authentication fails, an error response indicating bad credentials is returned.
+     * A guest cart the user filled before signing in is merged into their cart in one batch, and its cookie removed;
+     * if the merge fails it is logged and the user is signed in all the same.
      *
      * @param loginRequest an instance of {@code LoginRequest} containing the username and password provided by the user
+     * @param request the HTTP request, carrying the guest cart cookie if there is one
      * @return a {@code ResponseEntity} which contains either a {@code UserInfoResponse} object with authentication details
      *         or an error response with bad credentials
      */
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         Authentication authentication;
         try {
             authentication = authenticationManager
@@ -87,10 +103,22 @@ public class AuthController {
 
         UserInfoResponse response = new UserInfoResponse(userDetails.getId(), userDetails.getUsername(), roles);
 
-        return ResponseEntity
+        ResponseEntity.BodyBuilder ok = ResponseEntity
                 .ok()
-                .header(HttpHeaders.SET_COOKIE, jwtCookie.toString())
-                .body(response);
+                .header(HttpHeaders.SET_COOKIE, jwtCookie.toString());
+
+        GuestCart guestCart = guestCartCodec.read(request);
+        if (!guestCart.isEmpty()) {
+            try {
+                guestCartService.mergeIntoUserCart(guestCart);
+                ok.header(HttpHeaders.SET_COOKIE, guestCartCodec.cleanCookie().toString());
+            } catch (RuntimeException e) {
+                // Signing in never fails because of the guest cart; its cookie is kept for the next sign-in
+                logger.warn("Guest cart of {} could not be merged at sign-in", userDetails.getUsername(), e);
+            }
+        }
+
+        return ok.body(response);
     }
 
     /**
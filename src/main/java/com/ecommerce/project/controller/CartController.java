@@ -1,54 +1,108 @@
 package com.ecommerce.project.controller;
 
+import com.ecommerce.project.config.AppConstants;
+import com.ecommerce.project.execution.ExecutionLanes;
 import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperationsRequest;
+import com.ecommerce.project.payload.CartQuoteDTO;
+import com.ecommerce.project.payload.CartResponse;
 import com.ecommerce.project.service.CartService;
+import com.ecommerce.project.service.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
 public class CartController {
 
     private final CartService cartService;
+    private final ExecutionLanes executionLanes;
 
-    public CartController(CartService cartService) {
+    public CartController(CartService cartService, ExecutionLanes executionLanes) {
         this.cartService = cartService;
+        this.executionLanes = executionLanes;
     }
 
     @PostMapping("/carts/products/{productId}/quantity/{quantity}")
-    public ResponseEntity<CartDTO> addProductToCart(@PathVariable Long productId,
-                                                    @PathVariable Integer quantity) {
-        CartDTO cartDTO = cartService.addProductToCart(productId, quantity);
-        return new ResponseEntity<>(cartDTO, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<CartDTO>> addProductToCart(@PathVariable Long productId,
+                                                                       @PathVariable Integer quantity) {
+        return executionLanes.cart().submit(() -> {
+            CartDTO cartDTO = cartService.addProductToCart(productId, quantity);
+            return new ResponseEntity<>(cartDTO, HttpStatus.CREATED);
+        });
     }
 
     @GetMapping("/carts")
-    public ResponseEntity<List<CartDTO>> getCarts() {
-        List<CartDTO> cartDTOs = cartService.getAllCarts();
-        return new ResponseEntity<>(cartDTOs, HttpStatus.OK);
+    public ResponseEntity<CartResponse> getCarts(
+            @RequestParam(name = "after", defaultValue = AppConstants.CARTS_AFTER, required = false) Long after,
+            @RequestParam(name = "limit", defaultValue = AppConstants.CARTS_LIMIT, required = false) Integer limit
+    ) {
+        CartResponse cartResponse = cartService.getAllCarts(after, limit);
+        return new ResponseEntity<>(cartResponse, HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/admin/carts/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportCarts(HttpServletRequest request) {
+        StreamingResponseBody body = out -> {
+            // A full dump can take longer than the default async request timeout
+            request.getAsyncContext().setTimeout(0);
+            OutputStream target = new BufferedOutputStream(out, 64 * 1024);
+            cartService.exportCarts(target);
+            target.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(ProductImportService.NDJSON)
+                .body(body);
     }
 
     @GetMapping("/carts/users/cart")
-    public ResponseEntity<CartDTO> getCartForLoggedInUser() {
-        CartDTO cartDTO = cartService.getCartForLoggedInUser();
-        return new ResponseEntity<>(cartDTO, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<CartDTO>> getCartForLoggedInUser() {
+        return executionLanes.cart().submit(() -> {
+            CartDTO cartDTO = cartService.getCartForLoggedInUser();
+            return new ResponseEntity<>(cartDTO, HttpStatus.OK);
+        });
+    }
+
+    @GetMapping("/carts/users/cart/quote")
+    public CompletableFuture<ResponseEntity<CartQuoteDTO>> quoteCartForLoggedInUser() {
+        return executionLanes.cart().submit(() -> {
+            CartQuoteDTO quote = cartService.quoteCartForLoggedInUser();
+            return new ResponseEntity<>(quote, HttpStatus.OK);
+        });
+    }
+
+    @PatchMapping("/carts/users/cart")
+    public CompletableFuture<ResponseEntity<CartDTO>> updateCart(@Valid @RequestBody CartOperationsRequest request) {
+        return executionLanes.cart().submit(() -> {
+            CartDTO cartDTO = cartService.updateCart(request.getOperations());
+            return new ResponseEntity<>(cartDTO, HttpStatus.OK);
+        });
     }
 
     @PutMapping("/cart/products/{productId}/quantity/{operation}")
-    public ResponseEntity<CartDTO> updateCartProduct(@PathVariable Long productId,
-                                                     @PathVariable String operation) {
-        CartDTO cartDTO = cartService.updateProductQuantityInCart(productId,
-                operation.equalsIgnoreCase("delete") ? -1 : 1);
+    public CompletableFuture<ResponseEntity<CartDTO>> updateCartProduct(@PathVariable Long productId,
+                                                                        @PathVariable String operation) {
+        return executionLanes.cart().submit(() -> {
+            CartDTO cartDTO = cartService.updateProductQuantityInCart(productId,
+                    operation.equalsIgnoreCase("delete") ? -1 : 1);
 
-        return new ResponseEntity<>(cartDTO, HttpStatus.OK);
+            return new ResponseEntity<>(cartDTO, HttpStatus.OK);
+        });
     }
 
     @DeleteMapping("/carts/product/{productId}")
-    public ResponseEntity<String> deleteProductFromCart(@PathVariable Long productId) {
-        String status = cartService.deleteProductFromCart(productId);
-        return ResponseEntity.ok(status);
+    public CompletableFuture<ResponseEntity<String>> deleteProductFromCart(@PathVariable Long productId) {
+        return executionLanes.cart().submit(() -> {
+            String status = cartService.deleteProductFromCart(productId);
+            return ResponseEntity.ok(status);
+        });
     }
 }
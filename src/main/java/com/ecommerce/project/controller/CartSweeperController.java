@@ -0,0 +1,48 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.cart.AbandonedCartSweeper;
+import com.ecommerce.project.payload.CartSweeperDTO;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+
+/**
+ * The CartSweeperController class lets operators throttle or pause the abandoned cart sweeper while it runs.
+ * Its progress is also published as the {@code cart.sweeper.*} metrics.
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnProperty(prefix = "project.cart.sweep", name = "enabled", matchIfMissing = true)
+public class CartSweeperController {
+
+    private final AbandonedCartSweeper sweeper;
+
+    public CartSweeperController(AbandonedCartSweeper sweeper) {
+        this.sweeper = sweeper;
+    }
+
+    @GetMapping("/admin/carts/sweeper")
+    public ResponseEntity<CartSweeperDTO> getSweeper() {
+        return new ResponseEntity<>(toDTO(), HttpStatus.OK);
+    }
+
+    @PutMapping("/admin/carts/sweeper")
+    public ResponseEntity<CartSweeperDTO> updateSweeper(@Valid @RequestBody CartSweeperDTO settings) {
+        if (settings.getChunkSize() != null)
+            sweeper.setChunkSize(settings.getChunkSize());
+        if (settings.getPauseMillis() != null)
+            sweeper.setPause(Duration.ofMillis(settings.getPauseMillis()));
+        if (settings.getPaused() != null)
+            sweeper.setPaused(settings.getPaused());
+        return new ResponseEntity<>(toDTO(), HttpStatus.OK);
+    }
+
+    private CartSweeperDTO toDTO() {
+        return new CartSweeperDTO(sweeper.isPaused(), sweeper.getChunkSize(), sweeper.getPause().toMillis(),
+                sweeper.isRunning(), sweeper.getPosition());
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.cart.GuestCart;
+import com.ecommerce.project.cart.GuestCartCodec;
+import com.ecommerce.project.execution.ExecutionLanes;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperationDTO;
+import com.ecommerce.project.payload.CartOperationsRequest;
+import com.ecommerce.project.service.GuestCartService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The cart of a shopper who has not signed in. It is kept in a signed cookie that every response here updates,
+ * and is moved into the user's own cart at sign-in.
+ */
+@RestController
+@RequestMapping("/api/public")
+public class GuestCartController {
+
+    private final GuestCartService guestCartService;
+    private final GuestCartCodec guestCartCodec;
+    private final ExecutionLanes executionLanes;
+
+    public GuestCartController(GuestCartService guestCartService, GuestCartCodec guestCartCodec,
+                               ExecutionLanes executionLanes) {
+        this.guestCartService = guestCartService;
+        this.guestCartCodec = guestCartCodec;
+        this.executionLanes = executionLanes;
+    }
+
+    @GetMapping("/cart")
+    public CompletableFuture<ResponseEntity<CartDTO>> getGuestCart(HttpServletRequest request) {
+        GuestCart cart = guestCartCodec.read(request);
+        return executionLanes.cart().submit(() -> new ResponseEntity<>(guestCartService.getCart(cart), HttpStatus.OK));
+    }
+
+    @PostMapping("/cart/products/{productId}/quantity/{quantity}")
+    public CompletableFuture<ResponseEntity<CartDTO>> addProductToGuestCart(@PathVariable Long productId,
+                                                                            @PathVariable Integer quantity,
+                                                                            HttpServletRequest request) {
+        return update(request, HttpStatus.CREATED,
+                List.of(new CartOperationDTO(CartOperationDTO.Op.ADD, productId, quantity)));
+    }
+
+    @PatchMapping("/cart")
+    public CompletableFuture<ResponseEntity<CartDTO>> updateGuestCart(
+            @Valid @RequestBody CartOperationsRequest operationsRequest, HttpServletRequest request) {
+        return update(request, HttpStatus.OK, operationsRequest.getOperations());
+    }
+
+    @DeleteMapping("/cart/products/{productId}")
+    public CompletableFuture<ResponseEntity<CartDTO>> deleteProductFromGuestCart(@PathVariable Long productId,
+                                                                                 HttpServletRequest request) {
+        return update(request, HttpStatus.OK,
+                List.of(new CartOperationDTO(CartOperationDTO.Op.REMOVE, productId, null)));
+    }
+
+    private CompletableFuture<ResponseEntity<CartDTO>> update(HttpServletRequest request, HttpStatus status,
+                                                             List<CartOperationDTO> operations) {
+        GuestCart cart = guestCartCodec.read(request);
+        return executionLanes.cart().submit(() -> {
+            GuestCart updated = guestCartService.updateCart(cart, operations);
+            return ResponseEntity.status(status)
+                    .header(HttpHeaders.SET_COOKIE, guestCartCodec.cookie(updated).toString())
+                    .body(guestCartService.getCart(updated));
+        });
+    }
+}
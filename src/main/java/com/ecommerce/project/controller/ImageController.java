@@ -0,0 +1,30 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.images.ImageServer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * The ImageController class serves product images, originals and variants, by the file names found in
+ * {@code ProductDTO.image} and {@code ProductDTO.imageVariants}. It supports conditional and range requests.
+ */
+@RestController
+public class ImageController {
+
+    private final ImageServer imageServer;
+
+    public ImageController(ImageServer imageServer) {
+        this.imageServer = imageServer;
+    }
+
+    @GetMapping("/images/{fileName:.+}")
+    public void getImage(@PathVariable String fileName, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        imageServer.serve(fileName, request, response);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.monitoring.ServiceMetrics;
+import com.ecommerce.project.payload.ServiceMethodMetricsDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * The MetricsController class exposes service method latency and error counts for operators.
+ * The same data is available in Prometheus text format at {@code /actuator/prometheus}.
+ */
+@RestController
+@RequestMapping("/api")
+public class MetricsController {
+
+    private final ServiceMetrics serviceMetrics;
+
+    public MetricsController(ServiceMetrics serviceMetrics) {
+        this.serviceMetrics = serviceMetrics;
+    }
+
+    @GetMapping("/admin/metrics/services")
+    public ResponseEntity<List<ServiceMethodMetricsDTO>> getServiceMetrics() {
+        return new ResponseEntity<>(serviceMetrics.snapshot(), HttpStatus.OK);
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.project.controller;
 
+import com.ecommerce.project.execution.ExecutionLanes;
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.payload.OrderDTO;
 import com.ecommerce.project.payload.OrderRequestDTO;
@@ -12,31 +13,37 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api")
 public class OrderController {
 
     private final OrderService orderService;
     private final AuthUtil authUtil;
+    private final ExecutionLanes executionLanes;
 
-    public OrderController(OrderService orderService, AuthUtil authUtil) {
+    public OrderController(OrderService orderService, AuthUtil authUtil, ExecutionLanes executionLanes) {
         this.orderService = orderService;
         this.authUtil = authUtil;
+        this.executionLanes = executionLanes;
     }
 
     @PostMapping("/users/order")
-    public ResponseEntity<OrderDTO> orderProducts(@RequestBody OrderRequestDTO orderRequestDTO) {
-        User user = authUtil.loggedInUser();
-        OrderDTO orderDTO = orderService.placeOrder(
-                user,
-                orderRequestDTO.getAddressId(),
-                orderRequestDTO.getPaymentMethod(),
-                orderRequestDTO.getPgName(),
-                orderRequestDTO.getPgPaymentId(),
-                orderRequestDTO.getPgStatus(),
-                orderRequestDTO.getPgResponseMessage()
-        );
+    public CompletableFuture<ResponseEntity<OrderDTO>> orderProducts(@RequestBody OrderRequestDTO orderRequestDTO) {
+        return executionLanes.checkout().submit(() -> {
+            User user = authUtil.loggedInUser();
+            OrderDTO orderDTO = orderService.placeOrder(
+                    user,
+                    orderRequestDTO.getAddressId(),
+                    orderRequestDTO.getPaymentMethod(),
+                    orderRequestDTO.getPgName(),
+                    orderRequestDTO.getPgPaymentId(),
+                    orderRequestDTO.getPgStatus(),
+                    orderRequestDTO.getPgResponseMessage()
+            );
 
-        return new ResponseEntity<>(orderDTO, HttpStatus.CREATED);
+            return new ResponseEntity<>(orderDTO, HttpStatus.CREATED);
+        });
     }
 }
@@ -1,25 +1,49 @@
 package com.ecommerce.project.controller;
 
+import com.ecommerce.project.changes.ProductEventHub;
 import com.ecommerce.project.config.AppConstants;
+import com.ecommerce.project.execution.ExecutionLanes;
+import com.ecommerce.project.payload.ProductChangesResponse;
 import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductImportStatusDTO;
 import com.ecommerce.project.payload.ProductResponse;
+import com.ecommerce.project.service.ProductImportService;
 import com.ecommerce.project.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api")
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ExecutionLanes executionLanes;
+    private final ProductEventHub productEventHub;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService,
+                             ExecutionLanes executionLanes, ProductEventHub productEventHub) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.executionLanes = executionLanes;
+        this.productEventHub = productEventHub;
     }
 
     @PostMapping("/admin/categories/{categoryId}/product")
@@ -29,39 +53,111 @@ public class ProductController {
         return new ResponseEntity<>(createdProductDTO, HttpStatus.CREATED);
     }
 
+    /**
+     * Streams a CSV or NDJSON catalog into the category. Progress is visible at the returned Location (and in
+     * the import list) while the upload is still being processed.
+     */
+    @PostMapping(value = "/admin/categories/{categoryId}/products/import",
+            consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportStatusDTO> importProducts(@PathVariable Long categoryId,
+                                                                 @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                 InputStream body) {
+        ProductImportStatusDTO importStatus = productImportService.importProducts(categoryId, contentType, body);
+        HttpStatus status = "COMPLETED".equals(importStatus.getStatus()) ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status)
+                .location(URI.create("/api/admin/products/imports/" + importStatus.getImportId()))
+                .body(importStatus);
+    }
+
+    @GetMapping("/admin/products/imports")
+    public ResponseEntity<List<ProductImportStatusDTO>> getProductImports() {
+        return new ResponseEntity<>(productImportService.getImports(), HttpStatus.OK);
+    }
+
+    @GetMapping("/admin/products/imports/{importId}")
+    public ResponseEntity<ProductImportStatusDTO> getProductImport(@PathVariable String importId) {
+        return new ResponseEntity<>(productImportService.getImport(importId), HttpStatus.OK);
+    }
+
+    /**
+     * Streams the whole catalog as NDJSON in one response, gzip-compressed when the client accepts it.
+     */
+    @GetMapping(value = "/admin/products/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletRequest request) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            // A large export can take longer than the default async request timeout
+            request.getAsyncContext().setTimeout(0);
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : new BufferedOutputStream(out, 64 * 1024);
+            productService.exportProducts(target);
+            if (target instanceof GZIPOutputStream gzipStream)
+                gzipStream.finish();
+            target.flush();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(ProductImportService.NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip)
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+
+    @GetMapping("/admin/products/changes")
+    public ResponseEntity<ProductChangesResponse> getProductChanges(
+            @RequestParam(name = "since", defaultValue = AppConstants.CHANGES_SINCE, required = false) Long since,
+            @RequestParam(name = "limit", defaultValue = AppConstants.CHANGES_LIMIT, required = false) Integer limit
+    ) {
+        return new ResponseEntity<>(productService.getProductChanges(since, limit), HttpStatus.OK);
+    }
+
+    // Server-Sent Events of changes to the given products, instead of polling them; no DB work, so no lane
+    @GetMapping(value = "/public/products/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToProductEvents(@RequestParam(name = "productIds") List<Long> productIds) {
+        return productEventHub.subscribe(productIds);
+    }
+
     @GetMapping("/public/products")
-    public ResponseEntity<ProductResponse> getAllProducts(
+    public CompletableFuture<ResponseEntity<ProductResponse>> getAllProducts(
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
             @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder
     ) {
-        ProductResponse productResponse = productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder);
-        return new ResponseEntity<>(productResponse, HttpStatus.OK);
+        return executionLanes.browse().submit(() -> {
+            ProductResponse productResponse = productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder);
+            return new ResponseEntity<>(productResponse, HttpStatus.OK);
+        });
     }
 
     @GetMapping("/public/categories/{categoryId}/products")
-    public ResponseEntity<ProductResponse> getProductsByCategory(
+    public CompletableFuture<ResponseEntity<ProductResponse>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
             @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder
     ) {
-        ProductResponse productResponse = productService.searchByCategory(categoryId, pageNumber, pageSize, sortBy, sortOrder);
-        return new ResponseEntity<>(productResponse, HttpStatus.OK);
+        return executionLanes.browse().submit(() -> {
+            ProductResponse productResponse = productService.searchByCategory(categoryId, pageNumber, pageSize, sortBy, sortOrder);
+            return new ResponseEntity<>(productResponse, HttpStatus.OK);
+        });
     }
 
     @GetMapping("/public/products/keyword/{keyword}")
-    public ResponseEntity<ProductResponse> getProductsByKeyword(
+    public CompletableFuture<ResponseEntity<ProductResponse>> getProductsByKeyword(
             @PathVariable String keyword,
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
             @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
             @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder
     ) {
-        ProductResponse productResponse = productService.searchProductByKeyword(keyword, pageNumber, pageSize, sortBy, sortOrder);
-        return new ResponseEntity<>(productResponse, HttpStatus.OK);
+        return executionLanes.browse().submit(() -> {
+            ProductResponse productResponse = productService.searchProductByKeyword(keyword, pageNumber, pageSize, sortBy, sortOrder);
+            return new ResponseEntity<>(productResponse, HttpStatus.OK);
+        });
     }
 
     @PutMapping("/admin/products/{productId}")
@@ -83,4 +179,21 @@ public class ProductController {
         ProductDTO savedProductDTO = productService.updateProductImage(productId, image);
         return new ResponseEntity<>(savedProductDTO, HttpStatus.OK);
     }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip"))
+                continue;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.equals("q=0") || parameter.startsWith("q=0.") && parameter.substring(4).matches("0*"))
+                    return false;
+            }
+            return true;
+        }
+        return false;
+    }
 }
@@ -0,0 +1,403 @@
+package com.ecommerce.project.datagen;
+
+import com.ecommerce.project.changes.ProductChangeVersions;
+import com.ecommerce.project.money.Money;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the database with synthetic categories, products, users, addresses, carts and order history.
+ *
+ * Rows are written with batched JDBC inserts rather than through JPA, with ids assigned up front so related rows
+ * can be inserted without reading generated keys back; the identity columns and the product sequence are moved
+ * past the new ids afterwards. Product popularity in carts and orders follows a Zipf distribution. Generated data
+ * is added to what is already there, so run it against a database that is not taking writes at the same time.
+ */
+@Component
+public class DataGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataGenerator.class);
+
+    // Product ids come from Hibernate's pooled sequence, which hands out blocks of this size
+    private static final String PRODUCT_SEQUENCE = "products_seq";
+    private static final int PRODUCT_SEQUENCE_INCREMENT = 50;
+
+    private static final int[] DISCOUNTS = {0, 0, 0, 5, 10, 15, 20, 25, 50};
+
+    private final DataSource dataSource;
+    private final PasswordEncoder passwordEncoder;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ProductChangeVersions productChangeVersions;
+
+    public DataGenerator(DataSource dataSource, PasswordEncoder passwordEncoder,
+                         EntityManagerFactory entityManagerFactory, ProductChangeVersions productChangeVersions) {
+        this.dataSource = dataSource;
+        this.passwordEncoder = passwordEncoder;
+        this.entityManagerFactory = entityManagerFactory;
+        this.productChangeVersions = productChangeVersions;
+    }
+
+    public Result generate(DataGeneratorProperties properties) {
+        if (properties.getOrders() > 0 && (properties.getUsers() < 1 || properties.getAddressesPerUser() < 1))
+            throw new IllegalArgumentException("Orders need at least one generated user with an address");
+        if ((properties.getOrders() > 0 || properties.getCartFraction() > 0) && properties.getProducts() < 1)
+            throw new IllegalArgumentException("Carts and orders need at least one generated product");
+
+        long start = System.nanoTime();
+        Result result;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            result = new Run(connection, properties).execute();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Data generation failed", e);
+        }
+
+        // Cached entities and query results do not know about rows written behind Hibernate's back
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        result = result.withElapsed(Duration.ofNanos(System.nanoTime() - start));
+        logger.info("Generated {}", result);
+        return result;
+    }
+
+    public record Result(int categories, int products, int users, int addresses, int carts, long cartItems,
+                         int orders, long orderItems, Duration elapsed) {
+
+        Result withElapsed(Duration elapsed) {
+            return new Result(categories, products, users, addresses, carts, cartItems, orders, orderItems, elapsed);
+        }
+    }
+
+    /**
+     * State of one generation run: the id ranges handed out so far and per-product prices for carts and orders.
+     */
+    private final class Run {
+
+        private final Connection connection;
+        private final DataGeneratorProperties properties;
+        private final SplittableRandom random;
+        private final int batchSize;
+
+        private long firstProductId;
+        private int[] productByRank;
+        // Minor units, see Money
+        private long[] specialPrices;
+        private int[] discounts;
+        private ZipfSampler popularity;
+
+        private long firstUserId;
+        private long firstAddressId;
+
+        private int carts;
+        private long cartItems;
+        private long orderItems;
+        private long startNanos = System.nanoTime();
+
+        Run(Connection connection, DataGeneratorProperties properties) {
+            this.connection = connection;
+            this.properties = properties;
+            this.random = new SplittableRandom(properties.getSeed());
+            this.batchSize = Math.max(1, properties.getBatchSize());
+        }
+
+        Result execute() throws SQLException {
+            long firstCategoryId = generateCategories();
+            generateProducts(firstCategoryId);
+            generateUsers();
+            generateOrders();
+            return new Result(properties.getCategories(), properties.getProducts(), properties.getUsers(),
+                    properties.getUsers() * properties.getAddressesPerUser(), carts, cartItems,
+                    properties.getOrders(), orderItems, null);
+        }
+
+        private long generateCategories() throws SQLException {
+            long firstId = nextIdentity("categories", "category_id");
+            try (BatchInsert categories = new BatchInsert(
+                    "INSERT INTO categories (category_id, category_name) VALUES (?, ?)")) {
+                for (int i = 0; i < properties.getCategories(); i++) {
+                    long id = firstId + i;
+                    categories.add(id, "Category " + id);
+                    if (categories.pending() == batchSize)
+                        commit(categories);
+                }
+                commit(categories);
+            }
+            restartIdentity("categories", "category_id", firstId + properties.getCategories());
+            timed("categories", properties.getCategories());
+            return firstId;
+        }
+
+        private void generateProducts(long firstCategoryId) throws SQLException {
+            int count = properties.getProducts();
+            Long sellerId = queryLong("SELECT user_id FROM users WHERE username = 'seller1'");
+            firstProductId = Math.max(queryLong("SELECT COALESCE(MAX(product_id), 0) FROM products"),
+                    queryLong("SELECT NEXT VALUE FOR " + PRODUCT_SEQUENCE)) + 1;
+
+            specialPrices = new long[count];
+            discounts = new int[count];
+            try (BatchInsert products = new BatchInsert("INSERT INTO products (product_id, product_name, image, "
+                    + "description, quantity, price, discount, special_price, category_id, seller_id, change_version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                // Each batch's change versions hold back change feed readers until the batch commits
+                List<Long> versions = List.of();
+                try {
+                    for (int i = 0; i < count; i++) {
+                        if (products.pending() == 0)
+                            versions = productChangeVersions.reserve(Math.min(batchSize, count - i));
+                        long id = firstProductId + i;
+                        long price = random.nextLong(100, 50_000);
+                        int discount = DISCOUNTS[random.nextInt(DISCOUNTS.length)];
+                        long specialPrice = Money.discounted(price, discount);
+                        specialPrices[i] = specialPrice;
+                        discounts[i] = discount;
+
+                        Long categoryId = properties.getCategories() == 0
+                                ? null : firstCategoryId + random.nextInt(properties.getCategories());
+                        products.add(id, "Product " + id, "default.png", "Generated product " + id,
+                                random.nextInt(10, 1_000), price, (double) discount, specialPrice, categoryId,
+                                sellerId, versions.get(products.pending()));
+                        if (products.pending() == batchSize) {
+                            commit(products);
+                            productChangeVersions.release(versions);
+                        }
+                    }
+                    commit(products);
+                } finally {
+                    productChangeVersions.release(versions);
+                }
+            }
+            execute("ALTER SEQUENCE " + PRODUCT_SEQUENCE + " RESTART WITH "
+                    + (firstProductId + count + PRODUCT_SEQUENCE_INCREMENT));
+
+            // Popularity rank -> product, shuffled so the best sellers are spread over the catalog
+            productByRank = new int[count];
+            for (int i = 0; i < count; i++) {
+                int j = random.nextInt(i + 1);
+                productByRank[i] = productByRank[j];
+                productByRank[j] = i;
+            }
+            if (count > 0)
+                popularity = new ZipfSampler(count, properties.getProductSkew());
+            timed("products", count);
+        }
+
+        private void generateUsers() throws SQLException {
+            int count = properties.getUsers();
+            int addressesPerUser = properties.getAddressesPerUser();
+            Long userRoleId = queryLong("SELECT role_id FROM roles WHERE role_name = 'ROLE_USER'");
+            if (userRoleId == null)
+                throw new IllegalStateException("Roles have not been created yet");
+            // BCrypt is deliberately slow, so every generated user shares one hash
+            String password = passwordEncoder.encode(properties.getPassword());
+
+            firstUserId = nextIdentity("users", "user_id");
+            firstAddressId = nextIdentity("address", "address_id");
+            long cartId = nextIdentity("carts", "cart_id");
+            long firstCartItemId = nextIdentity("cart_items", "cart_item_id");
+            long cartItemId = firstCartItemId;
+
+            try (BatchInsert users = new BatchInsert(
+                         "INSERT INTO users (user_id, username, email, password) VALUES (?, ?, ?, ?)");
+                 BatchInsert userRoles = new BatchInsert("INSERT INTO user_role (user_id, role_id) VALUES (?, ?)");
+                 BatchInsert addresses = new BatchInsert("INSERT INTO address (address_id, street, building_name, "
+                         + "city, state, country, zip_code) VALUES (?, ?, ?, ?, ?, ?, ?)");
+                 BatchInsert userAddresses = new BatchInsert(
+                         "INSERT INTO user_address (user_id, address_id) VALUES (?, ?)");
+                 BatchInsert cartRows = new BatchInsert(
+                         "INSERT INTO carts (cart_id, user_id, total_price) VALUES (?, ?, ?)");
+                 BatchInsert cartItems = new BatchInsert("INSERT INTO cart_items (cart_item_id, cart_id, "
+                         + "product_id, quantity, discount, product_price) VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < count; i++) {
+                    long userId = firstUserId + i;
+                    users.add(userId, "gen-user-" + userId, "gen-user-" + userId + "@example.com", password);
+                    userRoles.add(userId, userRoleId);
+
+                    for (int a = 0; a < addressesPerUser; a++) {
+                        long addressId = firstAddressId + (long) i * addressesPerUser + a;
+                        addresses.add(addressId, (1 + random.nextInt(999)) + " Generated Street",
+                                "Building " + (1 + random.nextInt(99)), "City " + random.nextInt(500),
+                                "State " + random.nextInt(50), "Country " + random.nextInt(20),
+                                String.format("%06d", random.nextInt(1_000_000)));
+                        userAddresses.add(userId, addressId);
+                    }
+
+                    if (popularity != null && random.nextDouble() < properties.getCartFraction()) {
+                        int[] productIndexes = distinctProducts(1 + random.nextInt(properties.getMaxCartItems()));
+                        long total = 0;
+                        for (int productIndex : productIndexes) {
+                            int quantity = 1 + random.nextInt(3);
+                            total += Money.times(specialPrices[productIndex], quantity);
+                            cartItems.add(cartItemId++, cartId, firstProductId + productIndex, quantity,
+                                    (double) discounts[productIndex], specialPrices[productIndex]);
+                        }
+                        cartRows.add(cartId++, userId, total);
+                        carts++;
+                    }
+
+                    if (users.pending() == batchSize)
+                        commit(users, userRoles, addresses, userAddresses, cartRows, cartItems);
+                }
+                commit(users, userRoles, addresses, userAddresses, cartRows, cartItems);
+            }
+            restartIdentity("users", "user_id", firstUserId + count);
+            restartIdentity("address", "address_id", firstAddressId + (long) count * addressesPerUser);
+            restartIdentity("carts", "cart_id", cartId);
+            restartIdentity("cart_items", "cart_item_id", cartItemId);
+            cartItems = cartItemId - firstCartItemId;
+            timed("users with addresses and carts", count);
+        }
+
+        private void generateOrders() throws SQLException {
+            int count = properties.getOrders();
+            if (count == 0)
+                return;
+            long firstOrderId = nextIdentity("orders", "order_id");
+            long firstPaymentId = nextIdentity("payments", "payment_id");
+            long orderItemId = nextIdentity("order_items", "order_item_id");
+            long firstOrderItemId = orderItemId;
+            long now = Instant.now().toEpochMilli();
+            long historyMillis = Math.max(1, properties.getOrderHistory().toMillis());
+
+            try (BatchInsert payments = new BatchInsert("INSERT INTO payments (payment_id, payment_method, "
+                         + "pg_payment_id, pg_status, pg_response_message, pg_name) VALUES (?, ?, ?, ?, ?, ?)");
+                 BatchInsert orders = new BatchInsert("INSERT INTO orders (order_id, order_date_time, total_amount, "
+                         + "order_status, address_id, payment_id, user_id) VALUES (?, ?, ?, ?, ?, ?, ?)");
+                 BatchInsert orderItems = new BatchInsert("INSERT INTO order_items (order_item_id, product_id, "
+                         + "order_id, quantity, discount, ordered_product_price) VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < count; i++) {
+                    long orderId = firstOrderId + i;
+                    long paymentId = firstPaymentId + i;
+                    int userIndex = random.nextInt(properties.getUsers());
+                    long addressId = firstAddressId + (long) userIndex * properties.getAddressesPerUser();
+
+                    long total = 0;
+                    for (int productIndex : distinctProducts(1 + random.nextInt(properties.getMaxItemsPerOrder()))) {
+                        int quantity = 1 + random.nextInt(3);
+                        total += Money.times(specialPrices[productIndex], quantity);
+                        orderItems.add(orderItemId++, firstProductId + productIndex, orderId, quantity,
+                                (double) discounts[productIndex], specialPrices[productIndex]);
+                    }
+
+                    payments.add(paymentId, "card", "gen-" + paymentId, "succeeded", "Payment successful", "Stripe");
+                    orders.add(orderId, new Timestamp(now - random.nextLong(historyMillis)), total, "Accepted",
+                            addressId, paymentId, firstUserId + userIndex);
+
+                    if (orders.pending() == batchSize)
+                        commit(payments, orders, orderItems);
+                }
+                commit(payments, orders, orderItems);
+            }
+            restartIdentity("orders", "order_id", firstOrderId + count);
+            restartIdentity("payments", "payment_id", firstPaymentId + count);
+            restartIdentity("order_items", "order_item_id", orderItemId);
+            orderItems = orderItemId - firstOrderItemId;
+            timed("orders", count);
+        }
+
+        /**
+         * Draws up to {@code wanted} different products by popularity; a cart or order lists each product once.
+         */
+        private int[] distinctProducts(int wanted) {
+            int[] picked = new int[Math.min(wanted, productByRank.length)];
+            int size = 0;
+            for (int attempt = 0; size < picked.length && attempt < picked.length * 4; attempt++) {
+                int candidate = productByRank[popularity.sample(random) - 1];
+                boolean duplicate = false;
+                for (int p = 0; p < size && !duplicate; p++)
+                    duplicate = picked[p] == candidate;
+                if (!duplicate)
+                    picked[size++] = candidate;
+            }
+            return size == picked.length ? picked : Arrays.copyOf(picked, size);
+        }
+
+        private void timed(String what, long rows) {
+            long now = System.nanoTime();
+            double seconds = (now - startNanos) / 1e9;
+            logger.info("Inserted {} {} in {} ms ({} rows/s)", rows, what, Math.round(seconds * 1000),
+                    seconds > 0 ? Math.round(rows / seconds) : rows);
+            startNanos = now;
+        }
+
+        /**
+         * Executes the pending rows of each insert in the given (foreign key) order and commits them together.
+         */
+        private void commit(BatchInsert... inserts) throws SQLException {
+            for (BatchInsert insert : inserts)
+                insert.flush();
+            connection.commit();
+        }
+
+        private long nextIdentity(String table, String column) throws SQLException {
+            return queryLong("SELECT COALESCE(MAX(" + column + "), 0) + 1 FROM " + table);
+        }
+
+        private void restartIdentity(String table, String column, long next) throws SQLException {
+            execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " RESTART WITH " + next);
+        }
+
+        private Long queryLong(String sql) throws SQLException {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(sql)) {
+                return resultSet.next() ? resultSet.getObject(1, Long.class) : null;
+            }
+        }
+
+        private void execute(String sql) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+            connection.commit();
+        }
+
+        private final class BatchInsert implements AutoCloseable {
+
+            private final PreparedStatement statement;
+            private int pending;
+
+            BatchInsert(String sql) throws SQLException {
+                this.statement = connection.prepareStatement(sql);
+            }
+
+            void add(Object... values) throws SQLException {
+                for (int i = 0; i < values.length; i++)
+                    statement.setObject(i + 1, values[i]);
+                statement.addBatch();
+                pending++;
+            }
+
+            int pending() {
+                return pending;
+            }
+
+            void flush() throws SQLException {
+                if (pending == 0)
+                    return;
+                statement.executeBatch();
+                pending = 0;
+            }
+
+            @Override
+            public void close() throws SQLException {
+                statement.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.project.datagen;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * With the {@code datagen} profile active, fills the database once the application has started (after the
+ * default roles and users exist), sized by the {@code project.datagen.*} properties.
+ */
+@Configuration
+@Profile("datagen")
+@EnableConfigurationProperties(DataGeneratorProperties.class)
+public class DataGeneratorConfig {
+
+    @Bean
+    public ApplicationListener<ApplicationReadyEvent> generateDataOnStartup(DataGenerator dataGenerator,
+                                                                           DataGeneratorProperties properties) {
+        return event -> dataGenerator.generate(properties);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.project.datagen;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * How much data {@link DataGenerator} creates, bound from the {@code project.datagen.*} properties when the
+ * {@code datagen} profile is active. Tests can build one directly.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.datagen")
+public class DataGeneratorProperties {
+
+    private int categories = 50;
+
+    private int products = 10_000;
+
+    private int users = 1_000;
+
+    private int addressesPerUser = 2;
+
+    /**
+     * Fraction of the generated users that have an active cart.
+     */
+    private double cartFraction = 0.3;
+
+    private int maxCartItems = 5;
+
+    private int orders = 20_000;
+
+    private int maxItemsPerOrder = 5;
+
+    /**
+     * Zipf exponent for product popularity in carts and orders; around 1 matches typical retail sales.
+     */
+    private double productSkew = 1.0;
+
+    /**
+     * Orders are dated uniformly over this period before now.
+     */
+    private Duration orderHistory = Duration.ofDays(365);
+
+    /**
+     * Login password of every generated user.
+     */
+    private String password = "password";
+
+    /**
+     * Rows per JDBC batch and per commit.
+     */
+    private int batchSize = 1_000;
+
+    /**
+     * Same seed, same data.
+     */
+    private long seed = 42;
+}
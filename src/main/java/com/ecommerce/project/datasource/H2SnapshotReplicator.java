@@ -0,0 +1,112 @@
+package com.ecommerce.project.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in for database replication when running locally on embedded H2.
+ *
+ * Periodically dumps the primary with H2's {@code SCRIPT} command and loads it into one of two embedded replica
+ * databases, then switches reads over to the freshly loaded one. Alternating between two copies means readers
+ * never see a replica half way through being reloaded. Each copy reports to the {@link ReplicaLagMonitor}, so
+ * stopping or slowing the copy exercises the lag fallback just like a lagging real replica would.
+ */
+public class H2SnapshotReplicator implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(H2SnapshotReplicator.class);
+
+    private final DataSource primary;
+    private final HikariDataSource[] copies;
+    private final DelegatingDataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Clock clock;
+
+    private int active = -1;
+
+    public H2SnapshotReplicator(DataSource primary, ReplicaProperties properties, ReplicaLagMonitor lagMonitor,
+                                Clock clock) {
+        this.primary = primary;
+        this.lagMonitor = lagMonitor;
+        this.clock = clock;
+        this.copies = new HikariDataSource[] {
+                replicaPool("replica_a", properties),
+                replicaPool("replica_b", properties)
+        };
+        this.replica = new DelegatingDataSource(copies[0]);
+    }
+
+    /**
+     * @return the data source readers should use; always points at the most recently completed copy
+     */
+    public DataSource replica() {
+        return replica;
+    }
+
+    /**
+     * Copies the current state of the primary into the idle replica and makes it the active one.
+     */
+    public synchronized void replicate() {
+        Instant snapshotAt = clock.instant();
+        try {
+            List<String> script = dumpPrimary();
+            int target = active == 0 ? 1 : 0;
+            load(copies[target], script);
+
+            replica.setTargetDataSource(copies[target]);
+            active = target;
+            lagMonitor.caughtUpTo(snapshotAt);
+        } catch (SQLException e) {
+            logger.warn("Replica refresh failed, reads will fall back to the primary once lag exceeds the limit: {}",
+                    e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (HikariDataSource copy : copies)
+            copy.close();
+    }
+
+    private List<String> dumpPrimary() throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SCRIPT")) {
+            while (resultSet.next())
+                script.add(resultSet.getString(1));
+        }
+        return script;
+    }
+
+    private void load(DataSource target, List<String> script) throws SQLException {
+        try (Connection connection = target.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script)
+                statement.execute(sql);
+        }
+    }
+
+    private static HikariDataSource replicaPool(String name, ReplicaProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica-" + name);
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+        return dataSource;
+    }
+}
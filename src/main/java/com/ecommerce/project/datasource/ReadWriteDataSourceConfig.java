@@ -0,0 +1,123 @@
+package com.ecommerce.project.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Splits database traffic between the primary and a read replica when
+ * {@code project.datasource.replica.enabled=true}.
+ *
+ * {@code @Transactional(readOnly = true)} service methods are served by the replica while it is within
+ * {@code project.datasource.replica.max-lag} of the primary; all other work, and reads that follow a write in the
+ * same transaction, stay on the primary. With the default embedded H2 setup the replica is a second in-memory
+ * database kept up to date by {@link H2SnapshotReplicator}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "project.datasource.replica", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReadWriteDataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteDataSourceConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaProperties properties, MeterRegistry meterRegistry) {
+        boolean hasLagSource = properties.getStandIn().isEnabled() || properties.getLagQuery() != null;
+        if (!hasLagSource)
+            logger.warn("No replica lag query configured; the replica will serve reads however far behind it is");
+        return new ReplicaLagMonitor(hasLagSource ? properties.getMaxLag() : null, Clock.systemUTC(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "project.datasource.replica.stand-in", name = "enabled", matchIfMissing = true)
+    public H2SnapshotReplicator h2SnapshotReplicator(HikariDataSource primaryDataSource, ReplicaProperties properties,
+                                                     ReplicaLagMonitor lagMonitor, TaskScheduler taskScheduler) {
+        H2SnapshotReplicator replicator =
+                new H2SnapshotReplicator(primaryDataSource, properties, lagMonitor, Clock.systemUTC());
+        taskScheduler.scheduleWithFixedDelay(replicator::replicate, properties.getStandIn().getInterval());
+        return replicator;
+    }
+
+    @Bean
+    public DataSource replicaDataSource(ObjectProvider<H2SnapshotReplicator> standIn, ReplicaProperties properties,
+                                        ReplicaLagMonitor lagMonitor, TaskScheduler taskScheduler) {
+        H2SnapshotReplicator replicator = standIn.getIfAvailable();
+        if (replicator != null)
+            return replicator.replica();
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(properties.getUrl());
+        replica.setUsername(properties.getUsername());
+        replica.setPassword(properties.getPassword());
+        replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+        replica.setReadOnly(true);
+
+        if (properties.getLagQuery() != null)
+            taskScheduler.scheduleWithFixedDelay(() -> probeLag(replica, properties.getLagQuery(), lagMonitor),
+                    Duration.ofSeconds(1));
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, DataSource replicaDataSource,
+                                 ReplicaLagMonitor lagMonitor) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, lagMonitor));
+    }
+
+    @Bean
+    public ReplicaReadAspect replicaReadAspect() {
+        return new ReplicaReadAspect();
+    }
+
+    /**
+     * Hibernate normally keeps the first connection a session obtains until the session closes, which would let
+     * a replica connection from one read-only transaction leak into a later write in the same request. Releasing
+     * after each transaction makes every transaction route on its own.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static void probeLag(DataSource replica, String lagQuery, ReplicaLagMonitor lagMonitor) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (resultSet.next())
+                lagMonitor.reportLag(Duration.ofMillis((long) (resultSet.getDouble(1) * 1000)));
+        } catch (Exception e) {
+            logger.warn("Could not read replica lag: {}", e.getMessage());
+        }
+    }
+}
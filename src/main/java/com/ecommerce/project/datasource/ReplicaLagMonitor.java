@@ -0,0 +1,74 @@
+package com.ecommerce.project.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Tracks how far the read replica is behind the primary and decides whether it may serve reads.
+ *
+ * The lag is fed either by the H2 stand-in after each copy, or by polling the configured lag query
+ * against a real replica. Until the first report arrives the replica is considered stale. A monitor
+ * without a max lag has no lag source and always lets the replica serve reads.
+ */
+public class ReplicaLagMonitor {
+
+    private final Duration maxLag;
+    private final Clock clock;
+    private final Counter replicaReads;
+    private final Counter primaryFallbacks;
+
+    private volatile Instant caughtUpTo = Instant.EPOCH;
+
+    public ReplicaLagMonitor(Duration maxLag, Clock clock, MeterRegistry meterRegistry) {
+        this.maxLag = maxLag;
+        this.clock = clock;
+
+        Gauge.builder("datasource.replica.lag", this, m -> m.currentLag().toMillis() / 1000.0)
+                .baseUnit("seconds")
+                .description("How far the read replica is behind the primary")
+                .register(meterRegistry);
+        this.replicaReads = Counter.builder("datasource.routing")
+                .tag("target", "replica")
+                .description("Read-only connections served by the replica")
+                .register(meterRegistry);
+        this.primaryFallbacks = Counter.builder("datasource.routing")
+                .tag("target", "primary-fallback")
+                .description("Read-only connections sent to the primary because the replica was lagging")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records that the replica now contains every change committed on the primary up to the given instant.
+     */
+    public void caughtUpTo(Instant instant) {
+        this.caughtUpTo = instant;
+    }
+
+    /**
+     * Records the replica's lag as reported by the replica itself.
+     */
+    public void reportLag(Duration lag) {
+        this.caughtUpTo = clock.instant().minus(lag);
+    }
+
+    public Duration currentLag() {
+        return Duration.between(caughtUpTo, clock.instant());
+    }
+
+    /**
+     * @return true if a read-only connection may be taken from the replica right now
+     */
+    public boolean acquireForRead() {
+        if (maxLag == null || currentLag().compareTo(maxLag) <= 0) {
+            replicaReads.increment();
+            return true;
+        }
+        primaryFallbacks.increment();
+        return false;
+    }
+}
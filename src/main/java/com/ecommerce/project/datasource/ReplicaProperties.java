@@ -0,0 +1,54 @@
+package com.ecommerce.project.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the read replica that serves {@code @Transactional(readOnly = true)} service methods.
+ * Bound from the {@code project.datasource.replica.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.datasource.replica")
+public class ReplicaProperties {
+
+    /**
+     * Whether read-only transactions are routed to the replica at all.
+     */
+    private boolean enabled = false;
+
+    /**
+     * JDBC URL of the replica. Ignored when the stand-in replication is enabled.
+     */
+    private String url;
+
+    private String username = "sa";
+
+    private String password = "";
+
+    private int maximumPoolSize = 10;
+
+    /**
+     * Reads go back to the primary while the replica is further behind than this.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * Query run against the replica that returns its replication lag in seconds, e.g. for PostgreSQL
+     * {@code SELECT EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())}. Ignored by the stand-in.
+     */
+    private String lagQuery;
+
+    private StandIn standIn = new StandIn();
+
+    /**
+     * Local replication stand-in that copies the embedded primary into a second embedded H2 database.
+     */
+    @Data
+    public static class StandIn {
+        private boolean enabled = true;
+
+        private Duration interval = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.project.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Marks the calling thread as allowed to read from the replica while one of our own
+ * {@code @Transactional(readOnly = true)} methods runs.
+ *
+ * Spring Data repositories declare every finder read-only too, so the transaction's read-only flag alone would
+ * also send lookups made by non-transactional write paths (e.g. loading a category right after creating it) to a
+ * replica that may not have that row yet.
+ */
+@Aspect
+public class ReplicaReadAspect {
+
+    private static final ThreadLocal<Integer> depth = ThreadLocal.withInitial(() -> 0);
+
+    @Around("execution(* com.ecommerce.project..*(..)) && @annotation(transactional)")
+    public Object allowReplica(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (!transactional.readOnly())
+            return joinPoint.proceed();
+
+        depth.set(depth.get() + 1);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            int remaining = depth.get() - 1;
+            if (remaining == 0)
+                depth.remove();
+            else
+                depth.set(remaining);
+        }
+    }
+
+    static boolean replicaAllowed() {
+        return depth.get() > 0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.project.exceptions;
+
+import com.ecommerce.project.payload.CartOperationErrorDTO;
+
+import java.util.List;
+
+/**
+ * Thrown when any operation of a batch cart update is invalid; none of them is applied.
+ */
+public class CartOperationsException extends APIException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<CartOperationErrorDTO> errors;
+
+    public CartOperationsException(List<CartOperationErrorDTO> errors) {
+        super(errors.size() + " of the cart operations failed, the cart was not changed");
+        this.errors = List.copyOf(errors);
+    }
+
+    public List<CartOperationErrorDTO> getErrors() {
+        return errors;
+    }
+}
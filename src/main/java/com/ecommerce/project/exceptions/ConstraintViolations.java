@@ -0,0 +1,29 @@
+package com.ecommerce.project.exceptions;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Tells which database constraint a failed write ran into, so services can turn the loser of a concurrent insert
+ * race into the same error the up-front check would have given.
+ */
+public final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    public static boolean isViolationOf(DataIntegrityViolationException e, String constraintName) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                // H2 reports e.g. PUBLIC.UK_PRODUCTS_NAME_CATEGORY_INDEX_F: schema-qualified, upper-cased, and with
+                // the backing index appended
+                String violated = violation.getConstraintName();
+                if (violated == null)
+                    return false;
+                violated = violated.substring(violated.lastIndexOf('.') + 1);
+                return violated.toLowerCase().startsWith(constraintName.toLowerCase());
+            }
+        }
+        return false;
+    }
+}
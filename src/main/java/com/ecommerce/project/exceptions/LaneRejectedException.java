@@ -0,0 +1,9 @@
+package com.ecommerce.project.exceptions;
+
+public class LaneRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public LaneRejectedException(String laneName) {
+        super(String.format("Too many %s requests in progress, please retry shortly", laneName));
+    }
+}
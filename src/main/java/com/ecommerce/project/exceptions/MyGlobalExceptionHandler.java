@@ -1,7 +1,10 @@
 package com.ecommerce.project.exceptions;
 
 import com.ecommerce.project.payload.APIResponse;
+import com.ecommerce.project.payload.CartOperationsErrorResponse;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.TransactionSystemException;
@@ -57,6 +60,27 @@ public class MyGlobalExceptionHandler {
         return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(CartOperationsException.class)
+    public ResponseEntity<CartOperationsErrorResponse> myCartOperationsException(CartOperationsException e) {
+        CartOperationsErrorResponse response = new CartOperationsErrorResponse(e.getMessage(), false, e.getErrors());
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(LaneRejectedException.class)
+    public ResponseEntity<APIResponse> myLaneRejectedException(LaneRejectedException e) {
+        String message = e.getMessage();
+        APIResponse apiResponse = new APIResponse(message, false);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(apiResponse);
+    }
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<APIResponse> myConcurrencyFailureException(ConcurrencyFailureException e) {
+        APIResponse apiResponse = new APIResponse("Changed concurrently by another request, please try again", false);
+        return new ResponseEntity<>(apiResponse, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(NoHandlerFoundException.class)
     public ResponseEntity<APIResponse> myNoHandlerFoundException(NoHandlerFoundException e) {
         String message = e.getMessage();
@@ -0,0 +1,155 @@
+package com.ecommerce.project.execution;
+
+import com.ecommerce.project.exceptions.LaneRejectedException;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of workers dedicated to one class of traffic (browse, cart or checkout).
+ *
+ * Work is handed to the lane by controllers returning the {@link CompletableFuture} from {@link #submit(Supplier)}.
+ * When all workers are busy and the queue is full the lane rejects the request immediately instead of
+ * borrowing capacity from the other lanes.
+ *
+ * By default workers are platform threads from a fixed-size pool. In virtual thread mode every task gets its
+ * own virtual thread and the same limits are enforced with semaphores, so the lane still never holds more
+ * DB connections than it has threads configured.
+ */
+public class ExecutionLane {
+
+    private final String name;
+    private final int threads;
+    private final int queueCapacity;
+    private final LongAdder rejected = new LongAdder();
+
+    // Platform thread mode
+    private final ThreadPoolTaskExecutor pool;
+
+    // Virtual thread mode
+    private final SimpleAsyncTaskExecutor virtualExecutor;
+    private final Semaphore admitted;
+    private final Semaphore running;
+
+    public ExecutionLane(String name, ExecutionLaneProperties.Lane settings, TaskDecorator taskDecorator,
+                         boolean virtualThreads) {
+        this.name = name;
+        this.threads = settings.getThreads();
+        this.queueCapacity = settings.getQueueCapacity();
+
+        if (virtualThreads) {
+            this.pool = null;
+            this.virtualExecutor = new SimpleAsyncTaskExecutor("lane-" + name + "-");
+            this.virtualExecutor.setVirtualThreads(true);
+            this.virtualExecutor.setTaskDecorator(taskDecorator);
+            this.admitted = new Semaphore(threads + queueCapacity);
+            this.running = new Semaphore(threads);
+        } else {
+            this.virtualExecutor = null;
+            this.admitted = null;
+            this.running = null;
+            this.pool = new ThreadPoolTaskExecutor();
+            pool.setThreadNamePrefix("lane-" + name + "-");
+            pool.setCorePoolSize(threads);
+            pool.setMaxPoolSize(threads);
+            pool.setQueueCapacity(queueCapacity);
+            pool.setTaskDecorator(taskDecorator);
+            pool.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+            pool.setWaitForTasksToCompleteOnShutdown(true);
+            pool.setAwaitTerminationSeconds(30);
+            pool.initialize();
+        }
+    }
+
+    /**
+     * Runs the given work on this lane.
+     *
+     * @param work the work to run, typically a single service call
+     * @return a future completed with the result of the work, or exceptionally with whatever it threw
+     * @throws LaneRejectedException if the lane has no free worker and its queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        if (pool != null) {
+            try {
+                return CompletableFuture.supplyAsync(work, pool);
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                throw new LaneRejectedException(name);
+            }
+        }
+
+        if (!admitted.tryAcquire()) {
+            rejected.increment();
+            throw new LaneRejectedException(name);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                running.acquireUninterruptibly();
+                try {
+                    return work.get();
+                } finally {
+                    running.release();
+                    admitted.release();
+                }
+            }, virtualExecutor);
+        } catch (RuntimeException e) {
+            admitted.release();
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isVirtualThreads() {
+        return pool == null;
+    }
+
+    public int getActiveCount() {
+        if (pool != null)
+            return pool.getActiveCount();
+        return threads - running.availablePermits();
+    }
+
+    public int getQueuedCount() {
+        if (pool != null)
+            return pool.getQueueSize();
+        int inFlight = threads + queueCapacity - admitted.availablePermits();
+        return Math.max(0, inFlight - getActiveCount());
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the underlying thread pool, or empty when the lane runs on virtual threads
+     */
+    public Optional<ThreadPoolExecutor> getThreadPoolExecutor() {
+        return pool == null ? Optional.empty() : Optional.of(pool.getThreadPoolExecutor());
+    }
+
+    void shutdown() {
+        if (pool != null)
+            pool.shutdown();
+        else
+            virtualExecutor.close();
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.project.execution;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Sizing for the execution lanes that isolate browse, cart and checkout traffic from each other.
+ * Bound from the {@code project.lanes.*} properties.
+ *
+ * Each lane's thread count is also its database connection budget: lane tasks hold at most one
+ * connection at a time, so the sum of all lane thread counts must fit inside the connection pool.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.lanes")
+public class ExecutionLaneProperties {
+
+    private Lane browse = new Lane(8, 200);
+    private Lane cart = new Lane(6, 100);
+    private Lane checkout = new Lane(4, 50);
+
+    @Data
+    public static class Lane {
+        /**
+         * Number of worker threads, which is also the number of DB connections the lane may hold.
+         */
+        private int threads;
+
+        /**
+         * Number of requests allowed to wait for a worker before new requests are rejected.
+         */
+        private int queueCapacity;
+
+        public Lane() {
+        }
+
+        public Lane(int threads, int queueCapacity) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.ecommerce.project.execution;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Holds the browse, cart and checkout execution lanes and publishes their saturation metrics.
+ *
+ * Metrics are tagged with {@code lane=<name>}: {@code lane.active}, {@code lane.queued},
+ * {@code lane.saturation} (queued / queue capacity) and {@code lane.rejected}, alongside the standard
+ * {@code executor.*} metrics for each lane's thread pool when running on platform threads.
+ */
+@Component
+@EnableConfigurationProperties(ExecutionLaneProperties.class)
+public class ExecutionLanes {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionLanes.class);
+
+    private final ExecutionLane browse;
+    private final ExecutionLane cart;
+    private final ExecutionLane checkout;
+
+    public ExecutionLanes(ExecutionLaneProperties properties, EntityManagerFactory entityManagerFactory,
+                          MeterRegistry meterRegistry, Environment environment,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        // An over-subscribed lane could take connections the others count on, so such a setup is refused
+        int connectionBudget = properties.getBrowse().getThreads() + properties.getCart().getThreads()
+                + properties.getCheckout().getThreads();
+        if (connectionBudget > connectionPoolSize)
+            throw new IllegalStateException(String.format("Execution lanes may hold %d DB connections but the " +
+                    "pool only has %d; lower project.lanes.*.threads or raise " +
+                    "spring.datasource.hikari.maximum-pool-size", connectionBudget, connectionPoolSize));
+
+        LaneTaskDecorator taskDecorator = new LaneTaskDecorator(entityManagerFactory);
+
+        // Follows spring.threads.virtual.enabled, which only takes effect on Java 21+
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        if (!virtualThreads && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false))
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; " +
+                    "using platform threads", Runtime.version().feature());
+
+        this.browse = new ExecutionLane("browse", properties.getBrowse(), taskDecorator, virtualThreads);
+        this.cart = new ExecutionLane("cart", properties.getCart(), taskDecorator, virtualThreads);
+        this.checkout = new ExecutionLane("checkout", properties.getCheckout(), taskDecorator, virtualThreads);
+
+
+        all().forEach(lane -> registerMetrics(lane, meterRegistry));
+    }
+
+    public ExecutionLane browse() {
+        return browse;
+    }
+
+    public ExecutionLane cart() {
+        return cart;
+    }
+
+    public ExecutionLane checkout() {
+        return checkout;
+    }
+
+    public List<ExecutionLane> all() {
+        return List.of(browse, cart, checkout);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        all().forEach(ExecutionLane::shutdown);
+    }
+
+    private void registerMetrics(ExecutionLane lane, MeterRegistry meterRegistry) {
+        Tags tags = Tags.of("lane", lane.getName());
+
+        lane.getThreadPoolExecutor().ifPresent(pool ->
+                new ExecutorServiceMetrics(pool, "lane-" + lane.getName(), tags).bindTo(meterRegistry));
+
+        Gauge.builder("lane.active", lane, ExecutionLane::getActiveCount)
+                .tags(tags)
+                .description("Requests currently running on the lane")
+                .register(meterRegistry);
+        Gauge.builder("lane.queued", lane, ExecutionLane::getQueuedCount)
+                .tags(tags)
+                .description("Requests waiting for a lane worker")
+                .register(meterRegistry);
+        Gauge.builder("lane.saturation", lane, l -> l.getQueueCapacity() == 0
+                        ? 0.0 : (double) l.getQueuedCount() / l.getQueueCapacity())
+                .tags(tags)
+                .description("Fraction of the lane queue in use")
+                .register(meterRegistry);
+        FunctionCounter.builder("lane.rejected", lane, ExecutionLane::getRejectedCount)
+                .tags(tags)
+                .description("Requests rejected because the lane was full")
+                .register(meterRegistry);
+    }
+}
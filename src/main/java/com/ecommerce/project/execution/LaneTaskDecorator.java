@@ -0,0 +1,63 @@
+package com.ecommerce.project.execution;
+
+import com.ecommerce.project.monitoring.SqlStatistics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Carries the caller's request context over to a lane worker thread.
+ *
+ * The security context is copied so {@code AuthUtil} still sees the logged-in user, and an
+ * {@link EntityManager} is bound for the duration of the task. This mirrors what open-session-in-view
+ * does on the request thread, so service methods that rely on lazy loading outside a transaction keep
+ * working, and it means a task holds at most one DB connection for its whole run. The request's
+ * {@link SqlStatistics} follow the task so its statements are counted against the request.
+ */
+public class LaneTaskDecorator implements TaskDecorator {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public LaneTaskDecorator(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        SqlStatistics sqlStatistics = SqlStatistics.current();
+
+        return () -> {
+            SecurityContextHolder.setContext(securityContext);
+            SqlStatistics previousSqlStatistics = SqlStatistics.bind(sqlStatistics);
+            boolean bound = bindEntityManager();
+            try {
+                runnable.run();
+            } finally {
+                if (bound)
+                    unbindEntityManager();
+                SqlStatistics.restore(previousSqlStatistics);
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+
+    private boolean bindEntityManager() {
+        if (TransactionSynchronizationManager.hasResource(entityManagerFactory))
+            return false;
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        return true;
+    }
+
+    private void unbindEntityManager() {
+        EntityManagerHolder holder =
+                (EntityManagerHolder) TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        holder.getEntityManager().close();
+    }
+}
@@ -0,0 +1,138 @@
+package com.ecommerce.project.images;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An open image file with its size and a strong ETag computed from its content.
+ *
+ * It is shared by concurrent requests, which read it with positional transfers, and is reference counted: the
+ * {@link ImageFileCache} holds one reference and each request retains another, so the file is only closed once it
+ * is out of the cache and no request is still sending it.
+ */
+public final class ImageFile {
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long size;
+    private final String etag;
+    // Identifies the file on its file system, e.g. device and inode
+    private final Object fileKey;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private ImageFile(Path path, FileChannel channel, long size, String etag, Object fileKey) {
+        this.path = path;
+        this.channel = channel;
+        this.size = size;
+        this.etag = etag;
+        this.fileKey = fileKey;
+    }
+
+    static ImageFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, LinkOption.NOFOLLOW_LINKS);
+        try {
+            long size = channel.size();
+            Object fileKey = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).fileKey();
+            return new ImageFile(path, channel, size, etag(channel, size), fileKey);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static String etag(FileChannel channel, long size) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        for (long position = 0; position < size; ) {
+            int read = channel.read(buffer.clear(), position);
+            if (read < 0)
+                break;
+            digest.update(buffer.flip());
+            position += read;
+        }
+        // 128 bits tell images apart as well as all 256 do
+        return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), 16)) + '"';
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Writes {@code count} bytes from {@code position} with {@link FileChannel#transferTo}, which the kernel does
+     * without copying through the heap when the target is a socket or file.
+     */
+    public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        long end = position + count;
+        while (position < end) {
+            long transferred = channel.transferTo(position, end - position, target);
+            if (transferred <= 0)
+                throw new IOException("File " + path + " shrank while being sent");
+            position += transferred;
+        }
+    }
+
+    /**
+     * @return whether opening the path now, as Tomcat does to send the file with sendfile, would open this same file
+     * without following a link on the way; false where that cannot be told
+     */
+    boolean isStillAtPath() {
+        if (fileKey == null)
+            return false;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class,
+                    LinkOption.NOFOLLOW_LINKS);
+            return attributes.isRegularFile() && Objects.equals(attributes.fileKey(), fileKey)
+                    && path.toRealPath(LinkOption.NOFOLLOW_LINKS).equals(path);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return false if the file has been closed already, in which case it must not be used
+     */
+    boolean retain() {
+        for (int count = references.get(); count > 0; count = references.get())
+            if (references.compareAndSet(count, count + 1))
+                return true;
+        return false;
+    }
+
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
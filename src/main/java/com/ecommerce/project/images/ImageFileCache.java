@@ -0,0 +1,84 @@
+package com.ecommerce.project.images;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Keeps recently served image files open, so hot images are sent without opening, measuring and hashing the file
+ * on every request. Published as cache {@code image.files}.
+ */
+public class ImageFileCache implements Closeable {
+
+    private final Path directory;
+    private final Cache<String, ImageFile> files;
+
+    public ImageFileCache(Path directory, ImageServingProperties properties, MeterRegistry meterRegistry) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.files = Caffeine.newBuilder()
+                .maximumSize(properties.getOpenFiles())
+                .expireAfterAccess(properties.getIdleTimeout())
+                // Drops the cache's reference on the evicting thread, so closed files never pile up
+                .executor(Runnable::run)
+                .<String, ImageFile>removalListener((fileName, file, cause) -> file.release())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, files, "image.files");
+    }
+
+    /**
+     * @param fileName a file name in the image directory, e.g. {@code 1234-thumbnail.jpg}
+     * @return the open image, which the caller must {@link ImageFile#release() release}, or {@code null} if there is
+     * no such image
+     */
+    public ImageFile open(String fileName) throws IOException {
+        Path path = resolve(fileName);
+        // A link could lead anywhere; uploads and variants are only ever written as plain files
+        if (path == null || !Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS))
+            return null;
+        while (true) {
+            ImageFile file;
+            try {
+                file = files.get(fileName, name -> {
+                    try {
+                        return ImageFile.open(path);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                if (e.getCause() instanceof NoSuchFileException)
+                    return null;
+                throw e.getCause();
+            }
+            // Otherwise it was evicted and closed after the lookup; the next lookup opens it again
+            if (file.retain())
+                return file;
+        }
+    }
+
+    /**
+     * @return the file's path, or {@code null} for names that are not plain file names, or are hidden like the
+     * partly written variants
+     */
+    private Path resolve(String fileName) {
+        if (fileName.isEmpty() || fileName.startsWith(".") || fileName.contains("/") || fileName.contains("\\"))
+            return null;
+        Path path = directory.resolve(fileName).normalize();
+        return directory.equals(path.getParent()) ? path : null;
+    }
+
+    @Override
+    public void close() {
+        files.invalidateAll();
+    }
+}
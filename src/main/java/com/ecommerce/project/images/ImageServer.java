@@ -0,0 +1,154 @@
+package com.ecommerce.project.images;
+
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+/**
+ * Serves the product images in the image directory, original and variants alike.
+ *
+ * Responses carry a strong ETag computed from the file's content and may be cached for {@code max-age}, as uploads
+ * never rewrite a file. A request whose {@code If-None-Match} matches is answered with 304, and a single byte range
+ * is answered with 206. Large bodies are sent by Tomcat with sendfile, straight from the page cache to the socket,
+ * as long as the file's name still leads to the file without passing a link; smaller ones, or all of them where
+ * sendfile is unavailable, are copied with {@code transferTo} from the file kept open in the {@link ImageFileCache}.
+ */
+public class ImageServer {
+
+    // Tomcat's sendfile request attributes, see org.apache.coyote.Constants
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * A byte range of a file, {@code end} exclusive.
+     */
+    record Range(long start, long end) {
+        static final Range UNSATISFIABLE = new Range(-1, -1);
+    }
+
+    private final ImageFileCache files;
+    private final String cacheControl;
+    private final long sendfileThreshold;
+
+    public ImageServer(ImageFileCache files, ImageServingProperties properties) {
+        this.files = files;
+        this.cacheControl = CacheControl.maxAge(properties.getMaxAge()).cachePublic().immutable().getHeaderValue();
+        this.sendfileThreshold = properties.getSendfileThreshold().toBytes();
+    }
+
+    /**
+     * @throws ResourceNotFoundException if there is no such image
+     */
+    public void serve(String fileName, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageFile file = files.open(fileName);
+        if (file == null)
+            throw new ResourceNotFoundException("Image", "fileName", fileName);
+        try {
+            serve(file, request, response);
+        } finally {
+            file.release();
+        }
+    }
+
+    private void serve(ImageFile file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = file.getEtag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long size = file.getSize();
+        // A range is only served of the representation the client already has part of
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        Range range = ifRange == null || ifRange.equals(etag)
+                ? range(request.getHeader(HttpHeaders.RANGE), size) : null;
+        if (range == Range.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            return;
+        }
+        if (range == null) {
+            range = new Range(0, size);
+        } else {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + range.start() + "-" + (range.end() - 1) + "/" + size);
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(file.getPath().getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        long length = range.end() - range.start();
+        response.setContentLengthLong(length);
+        if (request.getMethod().equals("HEAD"))
+            return;
+
+        // Tomcat opens the file again by name, so only if the name still leads to this file; else it is copied
+        if (length >= sendfileThreshold && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))
+                && file.isStillAtPath()) {
+            request.setAttribute(SENDFILE_FILENAME, file.getPath().toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end());
+            return;
+        }
+        file.transferTo(range.start(), length, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * @return whether an {@code If-None-Match} header names the ETag; the comparison is weak, as the RFC requires
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null)
+            return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/"))
+                candidate = candidate.substring(2);
+            if (candidate.equals("*") || candidate.equals(etag))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param header a {@code Range} header, e.g. {@code bytes=0-1023} or {@code bytes=-500}
+     * @return the single range requested, {@link Range#UNSATISFIABLE} if it lies outside the file, or {@code null} to
+     * send the whole file, for no header, one that cannot be parsed, or one asking for several ranges
+     */
+    static Range range(String header, long size) {
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0)
+            return null;
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0)
+            return null;
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix < 0)
+                    return null;
+                return suffix == 0 || size == 0 ? Range.UNSATISFIABLE : new Range(Math.max(0, size - suffix), size);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size : Long.parseLong(last) + 1;
+            if (start < 0 || end <= start)
+                return null;
+            return start >= size ? Range.UNSATISFIABLE : new Range(start, Math.min(end, size));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
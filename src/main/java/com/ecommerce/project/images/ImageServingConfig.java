@@ -0,0 +1,28 @@
+package com.ecommerce.project.images;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Serves the images in the {@code project.image} directory through the {@link ImageServer}.
+ */
+@Configuration
+@EnableConfigurationProperties(ImageServingProperties.class)
+public class ImageServingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ImageFileCache imageFileCache(ImageServingProperties properties, @Value("${project.image}") String path,
+                                         MeterRegistry meterRegistry) {
+        return new ImageFileCache(Path.of(path), properties, meterRegistry);
+    }
+
+    @Bean
+    public ImageServer imageServer(ImageFileCache imageFileCache, ImageServingProperties properties) {
+        return new ImageServer(imageFileCache, properties);
+    }
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.project.images;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings for serving product images at {@code /images/*}, bound from the {@code project.image-serving.*}
+ * properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.image-serving")
+public class ImageServingProperties {
+
+    /**
+     * Image files kept open, with their size and ETag, so a hot image is served without opening or hashing it
+     * again.
+     */
+    private int openFiles = 1_000;
+
+    /**
+     * An open image not requested for this long is closed.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(5);
+
+    /**
+     * How long clients and proxies may cache an image. Uploads are stored under new names and never rewritten,
+     * so images never change under a URL.
+     */
+    private Duration maxAge = Duration.ofDays(365);
+
+    /**
+     * Responses at least this large are handed to Tomcat to send with sendfile; smaller ones are copied from the
+     * open file, which saves Tomcat opening it for each request.
+     */
+    private DataSize sendfileThreshold = DataSize.ofKilobytes(48);
+}
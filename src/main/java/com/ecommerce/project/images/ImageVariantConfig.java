@@ -0,0 +1,30 @@
+package com.ecommerce.project.images;
+
+import com.ecommerce.project.repositories.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+
+/**
+ * Resizes uploaded product images in the background through the {@link ImageVariantPipeline}, writing the variants
+ * into the {@code project.image} directory next to the originals.
+ */
+@Configuration
+@EnableConfigurationProperties(ImageVariantProperties.class)
+public class ImageVariantConfig {
+
+    @Bean(destroyMethod = "close")
+    public ImageVariantPipeline imageVariantPipeline(ImageVariantProperties properties,
+                                                     @Value("${project.image}") String path,
+                                                     ProductRepository productRepository,
+                                                     PlatformTransactionManager transactionManager,
+                                                     MeterRegistry meterRegistry) {
+        return new ImageVariantPipeline(properties, Path.of(path), productRepository, transactionManager,
+                meterRegistry);
+    }
+}
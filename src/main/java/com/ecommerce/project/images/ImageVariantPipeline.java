@@ -0,0 +1,208 @@
+package com.ecommerce.project.images;
+
+import com.ecommerce.project.repositories.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes resized copies of uploaded product images next to the originals, on a few worker threads, so an upload
+ * returns as soon as the original is stored. Once a product's variants are written they are recorded on the
+ * product, which makes them part of its {@code ProductDTO} and of its change events; until then clients use the
+ * original.
+ *
+ * Uploads wait in a bounded queue. When it is full the upload is not resized and keeps only its original. Publishes
+ * {@code image.variants.queued}, times each job from upload to completion as {@code image.variants.jobs}, tagged
+ * with its outcome, and counts {@code image.variants.rejected}.
+ */
+public class ImageVariantPipeline implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantPipeline.class);
+
+    private final ImageVariantProperties properties;
+    private final Path directory;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transaction;
+    private final ThreadPoolExecutor workers;
+
+    private final Timer completed;
+    private final Timer skipped;
+    private final Timer failed;
+    private final Counter rejected;
+
+    public ImageVariantPipeline(ImageVariantProperties properties, Path directory,
+                                ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.directory = directory;
+        this.productRepository = productRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(), 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), runnable -> {
+            Thread thread = new Thread(runnable, "image-variants-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("image.variants.queued", workers.getQueue(), BlockingQueue::size).register(meterRegistry);
+        this.completed = jobTimer(meterRegistry, "completed");
+        this.skipped = jobTimer(meterRegistry, "skipped");
+        this.failed = jobTimer(meterRegistry, "failed");
+        this.rejected = meterRegistry.counter("image.variants.rejected");
+    }
+
+    private static Timer jobTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("image.variants.jobs")
+                .description("Time from upload until the image's variants are written")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the product's newly uploaded image for resizing, once the current transaction, if any, has committed.
+     */
+    public void enqueue(Long productId, String image) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(productId, image);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(productId, image);
+            }
+        });
+    }
+
+    private void submit(Long productId, String image) {
+        long enqueued = System.nanoTime();
+        try {
+            workers.execute(() -> resize(productId, image, enqueued));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Not resizing image {} of product {}: {} images are waiting already", image, productId,
+                    workers.getQueue().size());
+        }
+    }
+
+    private void resize(Long productId, String image, long enqueued) {
+        Timer outcome = failed;
+        try {
+            outcome = writeVariants(productId, image) ? completed : skipped;
+        } catch (Exception e) {
+            logger.warn("Could not resize image {} of product {}", image, productId, e);
+        } finally {
+            outcome.record(System.nanoTime() - enqueued, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return whether the variants were recorded, rather than the product having been deleted or given another
+     * image meanwhile
+     */
+    private boolean writeVariants(Long productId, String image) throws IOException {
+        BufferedImage original = ImageIO.read(directory.resolve(image).toFile());
+        if (original == null)
+            throw new IOException("No image reader for " + image);
+
+        String format = formatOf(image);
+        List<String> written = new ArrayList<>();
+        for (Map.Entry<String, Integer> size : properties.getSizes().entrySet()) {
+            BufferedImage variant = scaleDown(original, size.getValue(), hasAlpha(format));
+            Path target = directory.resolve(ImageVariants.fileName(image, size.getKey()));
+            // Written aside and moved into place, so the file is never served half written
+            Path partial = Files.createTempFile(directory, ".variant-", ".tmp");
+            try {
+                if (!ImageIO.write(variant, format, partial.toFile()))
+                    throw new IOException("No image writer for " + image);
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(partial);
+            }
+            written.add(size.getKey());
+        }
+
+        Boolean recorded = transaction.execute(status -> productRepository.findById(productId)
+                .filter(product -> image.equals(product.getImage()))
+                .map(product -> {
+                    product.setImageVariantNames(ImageVariants.join(written));
+                    return true;
+                })
+                .orElse(false));
+        return Boolean.TRUE.equals(recorded);
+    }
+
+    private static String formatOf(String image) {
+        return image.substring(image.lastIndexOf('.') + 1).toLowerCase();
+    }
+
+    private static boolean hasAlpha(String format) {
+        return !format.equals("jpg") && !format.equals("jpeg") && !format.equals("bmp");
+    }
+
+    /**
+     * Halves the image until it is within twice the target size before the last step, as a single bilinear step
+     * over a large factor skips most source pixels and aliases badly.
+     */
+    static BufferedImage scaleDown(BufferedImage image, int maxEdge, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            if (width < targetWidth * 2 || height < targetHeight * 2) {
+                width = targetWidth;
+                height = targetHeight;
+            }
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.project.images;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for resizing uploaded product images, bound from the {@code project.image-variants.*} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "project.image-variants")
+public class ImageVariantProperties {
+
+    /**
+     * Longest edge in pixels of each variant, by variant name. Images are only ever scaled down; a variant of an
+     * image already smaller than its size is a copy at the original size.
+     */
+    private Map<String, Integer> sizes = new LinkedHashMap<>();
+
+    {
+        sizes.put("thumbnail", 160);
+        sizes.put("list", 480);
+        sizes.put("detail", 1024);
+    }
+
+    /**
+     * Threads resizing images.
+     */
+    private int workers = 2;
+
+    /**
+     * Uploads waiting to be resized at most; beyond that an upload keeps only its original until the image is
+     * uploaded again.
+     */
+    private int queueCapacity = 100;
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.project.images;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Naming of the resized copies of a product image: variant {@code thumbnail} of {@code 1234.jpg} is stored next to
+ * it as {@code 1234-thumbnail.jpg}.
+ */
+public final class ImageVariants {
+
+    private ImageVariants() {
+    }
+
+    public static String fileName(String image, String variant) {
+        int dot = image.lastIndexOf('.');
+        return dot < 0 ? image + "-" + variant : image.substring(0, dot) + "-" + variant + image.substring(dot);
+    }
+
+    /**
+     * @param variantNames comma separated, as stored with the product; may be {@code null}
+     * @return the file name of each variant by variant name, empty if there are none
+     */
+    public static Map<String, String> fileNames(String image, String variantNames) {
+        if (image == null || variantNames == null || variantNames.isBlank())
+            return Map.of();
+        Map<String, String> fileNames = new LinkedHashMap<>();
+        for (String variant : variantNames.split(","))
+            fileNames.put(variant, fileName(image, variant));
+        return fileNames;
+    }
+
+    public static String join(List<String> variantNames) {
+        return String.join(",", variantNames);
+    }
+}
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,7 +25,16 @@ public class Cart {
     @JoinColumn(name = "user_id")
     private User user;
 
-    private Double totalPrice = 0.0;
+    // Minor units, see Money
+    private long totalPrice;
+
+    // Concurrent changes to the same cart fail instead of overwriting each other's total, see RetryOnConflict
+    @Version
+    private long version;
+
+    // Carts left unchanged for long are deleted, see AbandonedCartSweeper
+    @UpdateTimestamp
+    private LocalDateTime lastModified;
 
     @OneToMany(mappedBy = "cart", cascade = {CascadeType.ALL}, orphanRemoval = true)
     private List<CartItem> cartItems = new ArrayList<>();
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 @Entity
 @Data
@@ -19,7 +21,9 @@ public class CartItem {
     @JoinColumn(name = "cart_id")
     private Cart cart;
 
+    // Loaded by id rather than joined into the cart's items query, so a cached product is not read again
     @ManyToOne
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "product_id")
     private Product product;
 
@@ -27,5 +31,9 @@ public class CartItem {
 
     private Double discount;
 
-    private Double productPrice;
+    // Minor units, see Money
+    private long productPrice;
+
+    @Version
+    private long version;
 }
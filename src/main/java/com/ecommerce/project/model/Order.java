@@ -27,7 +27,8 @@ public class Order {
     @CreationTimestamp
     private LocalDateTime orderDateTime;
 
-    private Double totalAmount;
+    // Minor units, see Money
+    private long totalAmount;
 
     private String orderStatus;
 
@@ -28,5 +28,6 @@ public class OrderItem {
 
     private double discount;
 
-    private double OrderedProductPrice;
+    // Minor units, see Money
+    private long OrderedProductPrice;
 }
@@ -1,20 +1,37 @@
 package com.ecommerce.project.model;
 
+import com.ecommerce.project.changes.ProductChangeListener;
+import com.ecommerce.project.config.CacheRegions;
+import com.ecommerce.project.images.ImageVariants;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "products")
+@Table(name = "products",
+        // Name first so the import's name IN (...) lookup can use the constraint's index
+        uniqueConstraints = @UniqueConstraint(name = Product.UNIQUE_NAME_PER_CATEGORY,
+                columnNames = {"product_name", "category_id"}),
+        indexes = @Index(name = "ix_products_change_version", columnList = "change_version"))
+@EntityListeners(ProductChangeListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PRODUCTS)
+// Products missing from the cache are loaded together when a cart's items are
+@BatchSize(size = 100)
 public class Product {
 
+    public static final String UNIQUE_NAME_PER_CATEGORY = "uk_products_name_category";
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long productId;
@@ -23,15 +40,24 @@ public class Product {
 
     private String image;
 
+    // Resized copies of the image that are ready, see ImageVariantPipeline
+    @Column(name = "image_variants")
+    private String imageVariantNames;
+
     private String description;
 
     private Integer quantity;
 
-    private double price;
+    // Minor units, see Money
+    private long price;
 
     private double discount;
 
-    private double specialPrice;
+    // Minor units, see Money.discounted
+    private long specialPrice;
+
+    // Bumped on every change, see ProductChangeListener
+    private Long changeVersion;
 
     @ManyToOne
     @JoinColumn(name = "category_id")
@@ -41,6 +67,15 @@ public class Product {
     @JoinColumn(name = "seller_id")
     private User user;
 
+    // Batched so loading many products at once, as a batch cart update does, costs one query for all their items
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "product", cascade = CascadeType.PERSIST, fetch = FetchType.EAGER)
     private List<CartItem> products = new ArrayList<>();
+
+    /**
+     * @return the file name of each resized copy of the image by variant name, e.g. {@code thumbnail}
+     */
+    public Map<String, String> getImageVariants() {
+        return ImageVariants.fileNames(image, imageVariantNames);
+    }
 }
@@ -0,0 +1,28 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Marks a deleted product in the product change feed.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "product_tombstones", indexes = @Index(name = "ix_product_tombstones_change_version",
+        columnList = "change_version"))
+public class ProductTombstone {
+
+    // Product ids are never reused, so the deleted product's id identifies its tombstone
+    @Id
+    private Long productId;
+
+    private long changeVersion;
+
+    private Instant deletedAt;
+}
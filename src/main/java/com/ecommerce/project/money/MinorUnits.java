@@ -0,0 +1,58 @@
+package com.ecommerce.project.money;
+
+import com.fasterxml.jackson.annotation.JacksonAnnotationsInside;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.math.BigDecimal;
+
+/**
+ * Marks a {@code long} DTO field holding minor units of {@link Money}: it is written to and read from JSON (and
+ * CSV) in major units, e.g. {@code 19.99}, as the API has always shown prices.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@JacksonAnnotationsInside
+@JsonSerialize(using = MinorUnits.Serializer.class)
+@JsonDeserialize(using = MinorUnits.Deserializer.class)
+public @interface MinorUnits {
+
+    class Serializer extends JsonSerializer<Long> {
+        @Override
+        public void serialize(Long minorUnits, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            // Shortest form of the amount, e.g. 180.0 or 19.99, as when prices were doubles
+            generator.writeNumber(Money.toMajor(minorUnits).doubleValue());
+        }
+    }
+
+    class Deserializer extends JsonDeserializer<Long> {
+        @Override
+        public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT)
+                return Money.ofMajor(parser.getDecimalValue());
+            String text = parser.getValueAsString();
+            if (token == JsonToken.VALUE_STRING && text != null && !text.isBlank()) {
+                try {
+                    return Money.ofMajor(new BigDecimal(text.trim()));
+                } catch (NumberFormatException e) {
+                    // Reported below
+                }
+            }
+            return (Long) context.handleUnexpectedToken(Long.class, parser);
+        }
+    }
+}
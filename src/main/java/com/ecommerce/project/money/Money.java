@@ -0,0 +1,66 @@
+package com.ecommerce.project.money;
+
+import com.ecommerce.project.exceptions.APIException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Amounts of money are primitive {@code long}s counting minor units (cents) of the store's {@link #CURRENCY}, in
+ * the entities, the DTOs and all pricing math. Sums and products of them are exact; the only rounding is where a
+ * percentage is applied, in {@link #discounted}. The API still shows major units, see {@link MinorUnits}.
+ *
+ * Amounts that do not fit in a {@code long} come from client input, such as an absurd price or quantity, so they
+ * are rejected with an {@link APIException} rather than failing the request with a server error.
+ */
+public final class Money {
+
+    public static final Currency CURRENCY = Currency.getInstance("USD");
+
+    private static final int SCALE = CURRENCY.getDefaultFractionDigits();
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private Money() {
+    }
+
+    /**
+     * @param amount in major units, e.g. {@code 19.99}; digits beyond the currency's are rounded half-even
+     */
+    public static long ofMajor(BigDecimal amount) {
+        try {
+            return amount.setScale(SCALE, RoundingMode.HALF_EVEN).movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new APIException("Amount " + amount + " is out of range");
+        }
+    }
+
+    /**
+     * @param amount in major units, read as its shortest decimal representation, so {@code 19.99} is 1999
+     */
+    public static long ofMajor(double amount) {
+        return ofMajor(BigDecimal.valueOf(amount));
+    }
+
+    public static BigDecimal toMajor(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static long times(long minorUnits, int quantity) {
+        try {
+            return Math.multiplyExact(minorUnits, quantity);
+        } catch (ArithmeticException e) {
+            throw new APIException("Amount " + toMajor(minorUnits) + " times " + quantity + " is out of range");
+        }
+    }
+
+    /**
+     * @param discountPercent e.g. {@code 12.5} for 12.5% off
+     * @return the price less the discount, with the discount rounded half-even to a minor unit
+     */
+    public static long discounted(long price, double discountPercent) {
+        BigDecimal discount = BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(discountPercent))
+                .divide(HUNDRED, 0, RoundingMode.HALF_EVEN);
+        return price - discount.longValueExact();
+    }
+}
@@ -0,0 +1,117 @@
+package com.ecommerce.project.monitoring;
+
+import com.ecommerce.project.payload.ServiceMethodMetricsDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records latency, call and error counts for every public method of the service interfaces.
+ *
+ * Latency goes to a Micrometer {@link Timer} per method ({@code service.calls}, tagged {@code service} and
+ * {@code method}) that keeps p50, p99 and p999 in an HdrHistogram over a rolling window; failures count towards
+ * {@code service.errors}. Meters are created on a method's first call and looked up by {@link Method} after
+ * that, so recording a call allocates nothing beyond what the timer itself does.
+ */
+public class ServiceMetrics implements MethodInterceptor {
+
+    static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public ServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        MethodMeters methodMeters = meters.get(method);
+        if (methodMeters == null)
+            methodMeters = meters.computeIfAbsent(method, this::register);
+
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            methodMeters.errors.increment();
+            throw e;
+        } finally {
+            methodMeters.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return the methods called so far, slowest p99 first
+     */
+    public List<ServiceMethodMetricsDTO> snapshot() {
+        return meters.values().stream()
+                .map(MethodMeters::snapshot)
+                .sorted(Comparator.comparingDouble(ServiceMethodMetricsDTO::getP99Millis).reversed())
+                .toList();
+    }
+
+    private MethodMeters register(Method method) {
+        String service = serviceName(method);
+        Timer timer = Timer.builder("service.calls")
+                .description("Service method latency")
+                .tag("service", service)
+                .tag("method", method.getName())
+                .publishPercentiles(PERCENTILES)
+                .percentilePrecision(2)
+                .register(meterRegistry);
+        Counter errors = Counter.builder("service.errors")
+                .description("Service method calls that threw")
+                .tag("service", service)
+                .tag("method", method.getName())
+                .register(meterRegistry);
+        return new MethodMeters(service + "." + method.getName(), timer, errors);
+    }
+
+    /**
+     * Names a method after the service interface that declares it rather than the implementation class.
+     */
+    private static String serviceName(Method method) {
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(method.getDeclaringClass())) {
+            if (ClassUtils.hasMethod(type, method.getName(), method.getParameterTypes()))
+                return type.getSimpleName();
+        }
+        return method.getDeclaringClass().getSimpleName();
+    }
+
+    private record MethodMeters(String name, Timer timer, Counter errors) {
+
+        ServiceMethodMetricsDTO snapshot() {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            ServiceMethodMetricsDTO dto = new ServiceMethodMetricsDTO();
+            dto.setMethod(name);
+            dto.setCalls(snapshot.count());
+            dto.setErrors((long) errors.count());
+            dto.setMeanMillis(snapshot.mean(TimeUnit.MILLISECONDS));
+            dto.setMaxMillis(snapshot.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                double millis = value.value(TimeUnit.MILLISECONDS);
+                if (value.percentile() == 0.5)
+                    dto.setP50Millis(millis);
+                else if (value.percentile() == 0.99)
+                    dto.setP99Millis(millis);
+                else if (value.percentile() == 0.999)
+                    dto.setP999Millis(millis);
+            }
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.project.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.util.function.Supplier;
+
+/**
+ * Times every public method of the service interfaces ({@code ProductService}, {@code CartService},
+ * {@code OrderService}, {@code CategoryService}, {@code AddressService} and {@code FileService}).
+ *
+ * A plain {@code MethodInterceptor} rather than an {@code @Aspect}, which would build a join point object on
+ * every call.
+ */
+@Configuration
+public class ServiceMetricsConfig {
+
+    @Bean
+    public ServiceMetrics serviceMetrics(MeterRegistry meterRegistry) {
+        return new ServiceMetrics(meterRegistry);
+    }
+
+    /**
+     * Static, and resolving the metrics on first use, so looking advisors up while bean post-processors are being
+     * created does not create the meter registry early.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor serviceMetricsAdvisor(ObjectProvider<ServiceMetrics> serviceMetrics) {
+        Supplier<ServiceMetrics> metrics = SingletonSupplier.of(serviceMetrics::getObject);
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression("execution(public * com.ecommerce.project.service.*Service.*(..))");
+        return new DefaultPointcutAdvisor(pointcut, (MethodInterceptor) invocation -> metrics.get().invoke(invocation));
+    }
+}
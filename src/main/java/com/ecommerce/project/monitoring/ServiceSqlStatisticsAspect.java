@@ -0,0 +1,46 @@
+package com.ecommerce.project.monitoring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+/**
+ * Attributes SQL statements to the service method that issued them. Calls made outside an HTTP request are
+ * measured on their own, so background work is checked for N+1 patterns too.
+ */
+@Aspect
+public class ServiceSqlStatisticsAspect {
+
+    private final SqlStatisticsReporter reporter;
+
+    public ServiceSqlStatisticsAspect(SqlStatisticsReporter reporter) {
+        this.reporter = reporter;
+    }
+
+    @Around("within(com.ecommerce.project.service..*)")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        SqlStatistics statistics = SqlStatistics.current();
+        boolean ownsStatistics = statistics == null;
+        SqlStatistics previous = null;
+        if (ownsStatistics) {
+            statistics = new SqlStatistics();
+            previous = SqlStatistics.bind(statistics);
+        }
+
+        long statementsBefore = statistics.getStatements();
+        long rowsBefore = statistics.getRows();
+        long millisBefore = statistics.getElapsedMillis();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            reporter.reportMethod(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                    statistics.getStatements() - statementsBefore, statistics.getRows() - rowsBefore,
+                    statistics.getElapsedMillis() - millisBefore);
+            if (ownsStatistics) {
+                SqlStatistics.restore(previous);
+                reporter.reportBackground(joinPoint.getSignature().toShortString(), statistics);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ecommerce.project.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Counts SQL statements, rows and JDBC time per HTTP request and per service method, and flags statements
+ * repeated within one request as N+1 candidates. See {@link SqlStatisticsReporter} for the metrics published.
+ */
+@Configuration
+public class SqlMonitoringConfig {
+
+    /**
+     * Wraps only the application's main {@code dataSource} bean, so with read/write routing enabled each
+     * statement is counted once rather than again on the primary or replica pool underneath.
+     */
+    @Bean
+    public static BeanPostProcessor sqlStatisticsDataSourceProxy() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource))
+                    return bean;
+
+                SqlStatisticsListener listener = new SqlStatisticsListener();
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(listener)
+                        .methodListener(listener)
+                        .proxyResultSet()
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public SqlStatisticsReporter sqlStatisticsReporter(MeterRegistry meterRegistry,
+            @Value("${project.sql-monitoring.n-plus-one-threshold:3}") int nPlusOneThreshold) {
+        return new SqlStatisticsReporter(meterRegistry, nPlusOneThreshold);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatisticsFilter> sqlStatisticsFilter(SqlStatisticsReporter reporter) {
+        FilterRegistrationBean<SqlStatisticsFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatisticsFilter(reporter));
+        // Ahead of Spring Security, whose JWT filter loads the user on every request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registration;
+    }
+
+    @Bean
+    public ServiceSqlStatisticsAspect serviceSqlStatisticsAspect(SqlStatisticsReporter reporter) {
+        return new ServiceSqlStatisticsAspect(reporter);
+    }
+}
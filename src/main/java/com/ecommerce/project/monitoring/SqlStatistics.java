@@ -0,0 +1,99 @@
+package com.ecommerce.project.monitoring;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * SQL statements, rows and time spent in JDBC for one unit of work, normally one HTTP request.
+ *
+ * The statistics being collected are bound to the current thread; {@link SqlStatisticsListener} adds to whatever
+ * is bound when a statement runs. A request's statistics may be bound on several threads in turn (the request
+ * thread, an execution lane worker, the async dispatch), so all counters are thread-safe.
+ */
+public class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> current = new ThreadLocal<>();
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder elapsedMillis = new LongAdder();
+    private final Map<String, LongAdder> executionsBySql = new ConcurrentHashMap<>();
+
+    /**
+     * @return the statistics bound to this thread, or {@code null} when nothing is being measured
+     */
+    public static SqlStatistics current() {
+        return current.get();
+    }
+
+    /**
+     * Binds the given statistics to this thread.
+     *
+     * @return whatever was bound before, to hand back to {@link #restore(SqlStatistics)}
+     */
+    public static SqlStatistics bind(SqlStatistics statistics) {
+        SqlStatistics previous = current.get();
+        current.set(statistics);
+        return previous;
+    }
+
+    public static void restore(SqlStatistics previous) {
+        if (previous == null)
+            current.remove();
+        else
+            current.set(previous);
+    }
+
+    /**
+     * @param sql the statement, or {@code null} for a JDBC batch, which is one round trip however many rows it
+     *            writes and never an N+1 candidate
+     */
+    void recordStatement(String sql, long elapsedMillis) {
+        statements.increment();
+        this.elapsedMillis.add(elapsedMillis);
+        if (sql != null)
+            executionsBySql.computeIfAbsent(sql, s -> new LongAdder()).increment();
+    }
+
+    void recordRow() {
+        rows.increment();
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis.sum();
+    }
+
+    /**
+     * Statements executed at least {@code threshold} times with identical SQL, most repeated first. The same
+     * parameterised statement run over and over is the signature of lazy loading one row at a time (N+1).
+     */
+    public Map<String, Long> getRepeatedStatements(int threshold) {
+        return executionsBySql.entrySet().stream()
+                .filter(e -> e.getValue().sum() >= threshold)
+                .sorted(Map.Entry.<String, LongAdder>comparingByValue(Comparator.comparingLong(LongAdder::sum))
+                        .reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum(), (a, b) -> a,
+                        LinkedHashMap::new));
+    }
+
+    /**
+     * @return every distinct statement with how often it ran, one per line
+     */
+    public String describe() {
+        return getRepeatedStatements(1).entrySet().stream()
+                .map(e -> e.getValue() + "x " + e.getKey())
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.project.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Measures the SQL issued while serving each HTTP request.
+ *
+ * Requests handed to an execution lane finish on an async dispatch, so the statistics travel with the request
+ * and are only reported once the response is complete.
+ */
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private static final String STATISTICS_ATTRIBUTE = SqlStatisticsFilter.class.getName() + ".statistics";
+
+    private final SqlStatisticsReporter reporter;
+
+    public SqlStatisticsFilter(SqlStatisticsReporter reporter) {
+        this.reporter = reporter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatistics statistics = (SqlStatistics) request.getAttribute(STATISTICS_ATTRIBUTE);
+        if (statistics == null) {
+            statistics = new SqlStatistics();
+            request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+        }
+
+        SqlStatistics previous = SqlStatistics.bind(statistics);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatistics.restore(previous);
+            if (!isAsyncStarted(request))
+                reporter.reportRequest(request.getMethod(), uri(request), response.getStatus(), statistics);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
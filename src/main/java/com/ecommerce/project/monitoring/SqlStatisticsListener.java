@@ -0,0 +1,49 @@
+package com.ecommerce.project.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Feeds statements executed through the proxied {@code DataSource} into the thread's {@link SqlStatistics}.
+ * Rows are counted as {@link ResultSet#next()} returns them, so only rows the application actually read count.
+ */
+public class SqlStatisticsListener implements QueryExecutionListener, MethodExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics == null)
+            return;
+
+        if (execInfo.isBatch() || queryInfoList.size() != 1)
+            statistics.recordStatement(null, execInfo.getElapsedTime());
+        else
+            statistics.recordStatement(queryInfoList.get(0).getQuery(), execInfo.getElapsedTime());
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (!(executionContext.getTarget() instanceof ResultSet)
+                || !"next".equals(executionContext.getMethod().getName())
+                || !Boolean.TRUE.equals(executionContext.getResult()))
+            return;
+
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null)
+            statistics.recordRow();
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.project.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns {@link SqlStatistics} into a log line and metrics.
+ *
+ * Per endpoint ({@code method}, {@code uri} tags): {@code sql.request.statements} and {@code sql.request.rows}
+ * histograms, a {@code sql.request.time} timer and a {@code sql.request.nplusone} counter of requests that repeated
+ * a statement at least {@code project.sql-monitoring.n-plus-one-threshold} times. Per service method
+ * ({@code method} tag): {@code sql.method.statements} and {@code sql.method.rows} histograms and a
+ * {@code sql.method.time} timer.
+ */
+public class SqlStatisticsReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatisticsReporter.class);
+    private static final int MAX_SQL_LENGTH = 200;
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+    private final Map<Method, MethodMeters> methodMeters = new ConcurrentHashMap<>();
+
+    private record MethodMeters(DistributionSummary statements, DistributionSummary rows, Timer time) {
+    }
+
+    public SqlStatisticsReporter(MeterRegistry meterRegistry, int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    public void reportRequest(String httpMethod, String uri, int status, SqlStatistics statistics) {
+        Tags tags = Tags.of("method", httpMethod, "uri", uri);
+        statementHistogram("sql.request.statements", "SQL statements executed per request", tags)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("sql.request.rows")
+                .description("Rows read per request")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.getRows());
+        Timer.builder("sql.request.time")
+                .description("Time spent executing SQL per request")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofMillis(statistics.getElapsedMillis()));
+
+        logger.debug("{} {} -> {}: {} statements, {} rows, {} ms in SQL", httpMethod, uri, status,
+                statistics.getStatements(), statistics.getRows(), statistics.getElapsedMillis());
+
+        if (warnRepeatedStatements(httpMethod + " " + uri, statistics))
+            Counter.builder("sql.request.nplusone")
+                    .description("Requests that repeated an identical statement (N+1 candidates)")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .increment();
+    }
+
+    public void reportMethod(Method method, long statements, long rows, long elapsedMillis) {
+        MethodMeters meters = methodMeters.computeIfAbsent(method, m -> {
+            Tags tags = Tags.of("method", m.getDeclaringClass().getSimpleName() + "." + m.getName());
+            return new MethodMeters(
+                    statementHistogram("sql.method.statements", "SQL statements executed per service method call",
+                            tags),
+                    DistributionSummary.builder("sql.method.rows")
+                            .description("Rows read per service method call")
+                            .tags(tags)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry),
+                    Timer.builder("sql.method.time")
+                            .description("Time spent executing SQL per service method call")
+                            .tags(tags)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry));
+        });
+        meters.statements().record(statements);
+        meters.rows().record(rows);
+        meters.time().record(Duration.ofMillis(elapsedMillis));
+    }
+
+    /**
+     * For work outside an HTTP request, e.g. a scheduled job calling a service.
+     */
+    public void reportBackground(String name, SqlStatistics statistics) {
+        warnRepeatedStatements(name, statistics);
+    }
+
+    private boolean warnRepeatedStatements(String source, SqlStatistics statistics) {
+        Map<String, Long> repeated = statistics.getRepeatedStatements(nPlusOneThreshold);
+        repeated.forEach((sql, count) -> logger.warn("Possible N+1 in {}: {}x {}", source, count, abbreviate(sql)));
+        return !repeated.isEmpty();
+    }
+
+    private DistributionSummary statementHistogram(String name, String description, Tags tags) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1000.0)
+                .register(meterRegistry);
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() <= MAX_SQL_LENGTH ? sql : sql.substring(0, MAX_SQL_LENGTH) + "...";
+    }
+}
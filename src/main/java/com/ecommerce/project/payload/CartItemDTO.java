@@ -1,5 +1,6 @@
 package com.ecommerce.project.payload;
 
+import com.ecommerce.project.money.MinorUnits;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,5 +14,6 @@ public class CartItemDTO {
     private ProductDTO product;
     private Integer quantity;
     private Double discount;
-    private Double productPrice;
+    @MinorUnits
+    private long productPrice;
 }
@@ -0,0 +1,29 @@
+package com.ecommerce.project.payload;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperationDTO {
+
+    public enum Op {
+        @JsonProperty("add") ADD,
+        @JsonProperty("set-quantity") SET_QUANTITY,
+        @JsonProperty("increment") INCREMENT,
+        @JsonProperty("remove") REMOVE
+    }
+
+    @NotNull
+    private Op op;
+
+    @NotNull
+    private Long productId;
+
+    // Required for add and increment (at least 1) and set-quantity (0 removes the product)
+    private Integer quantity;
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.project.payload;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperationsRequest {
+    @NotEmpty
+    @Size(max = 100, message = "At most 100 operations per request")
+    private List<@Valid @NotNull CartOperationDTO> operations;
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.project.payload;
+
+import com.ecommerce.project.money.MinorUnits;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartQuoteDTO {
+    private Long cartId;
+    private List<CartQuoteLineDTO> lines = new ArrayList<>();
+
+    // Of the available lines at current prices: before discounts, the discounts, and what is left to pay
+    @MinorUnits
+    private long subtotal;
+    @MinorUnits
+    private long discountTotal;
+    @MinorUnits
+    private long totalPrice;
+
+    // True if any line is stale or unavailable, i.e. the cart no longer matches the catalog
+    private boolean stale;
+}
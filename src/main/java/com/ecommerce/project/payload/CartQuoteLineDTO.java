@@ -0,0 +1,32 @@
+package com.ecommerce.project.payload;
+
+import com.ecommerce.project.money.MinorUnits;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartQuoteLineDTO {
+    private Long productId;
+    private String productName;
+    private int quantity;
+
+    // Current catalog prices
+    @MinorUnits
+    private long price;
+    private double discount;
+    @MinorUnits
+    private long specialPrice;
+    @MinorUnits
+    private long lineTotal;
+
+    // The unit price the cart holds for the product, and whether it differs from the current special price
+    @MinorUnits
+    private long cartPrice;
+    private boolean stale;
+
+    // False if the product is no longer sold or not in stock in this quantity; such lines are not in the totals
+    private boolean available;
+}
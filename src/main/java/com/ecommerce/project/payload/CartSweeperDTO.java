@@ -0,0 +1,25 @@
+package com.ecommerce.project.payload;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSweeperDTO {
+    // Settings; on an update, the ones left out stay as they are
+    private Boolean paused;
+    @Min(1)
+    private Integer chunkSize;
+    @Min(0)
+    private Long pauseMillis;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean running;
+    // Last cart id the current or last run got to
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long position;
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.project.payload;
 
+import com.ecommerce.project.money.MinorUnits;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,7 +17,8 @@ public class OrderDTO {
     private List<OrderItemDTO> orderItems;
     private LocalDateTime orderDateTime;
     private PaymentDTO payment;
-    private Double totalAmount;
+    @MinorUnits
+    private long totalAmount;
     private String orderStatus;
     private AddressDTO address;
 }
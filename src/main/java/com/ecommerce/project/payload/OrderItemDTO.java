@@ -1,5 +1,6 @@
 package com.ecommerce.project.payload;
 
+import com.ecommerce.project.money.MinorUnits;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,5 +13,6 @@ public class OrderItemDTO {
     private ProductDTO product;
     private Integer quantity;
     private double discount;
-    private double orderedProductPrice;
+    @MinorUnits
+    private long orderedProductPrice;
 }
@@ -0,0 +1,24 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeDTO {
+    private long changeVersion;
+    private Long productId;
+    private boolean deleted;
+    // Current state of the product, null when it was deleted
+    private ProductDTO product;
+
+    // Used by the change feed query
+    public ProductChangeDTO(long changeVersion, Long productId, String productName, String description, String image,
+                            Integer quantity, long price, double discount, long specialPrice,
+                            String imageVariantNames) {
+        this(changeVersion, productId, false, new ProductDTO(productId, productName, description, image, quantity,
+                price, discount, specialPrice, imageVariantNames));
+    }
+}
@@ -1,11 +1,16 @@
 package com.ecommerce.project.payload;
 
+import com.ecommerce.project.images.ImageVariants;
+import com.ecommerce.project.money.MinorUnits;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,9 +28,27 @@ public class ProductDTO {
     private Integer quantity;
 
     @NotNull
-    private double price;
+    @MinorUnits
+    private long price;
 
     private double discount;
 
-    private double specialPrice;
+    @MinorUnits
+    private long specialPrice;
+
+    // Resized copies of the image by variant name, e.g. thumbnail, once they are ready; the image is the original
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<String, String> imageVariants = Map.of();
+
+    public ProductDTO(Long productId, String productName, String description, String image, Integer quantity,
+                      long price, double discount, long specialPrice) {
+        this(productId, productName, description, image, quantity, price, discount, specialPrice, Map.of());
+    }
+
+    // Used by queries, with the names of the variants as stored with the product
+    public ProductDTO(Long productId, String productName, String description, String image, Integer quantity,
+                      long price, double discount, long specialPrice, String imageVariantNames) {
+        this(productId, productName, description, image, quantity, price, discount, specialPrice,
+                ImageVariants.fileNames(image, imageVariantNames));
+    }
 }
@@ -0,0 +1,29 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportStatusDTO {
+    private String importId;
+    private Long categoryId;
+    private String format;
+    // RUNNING, COMPLETED or FAILED
+    private String status;
+    private long rowsRead;
+    private long imported;
+    private long duplicates;
+    private long rejected;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String failureMessage;
+    private List<ProductImportErrorDTO> errors;
+    // More rows failed than are listed in errors
+    private boolean errorsTruncated;
+}
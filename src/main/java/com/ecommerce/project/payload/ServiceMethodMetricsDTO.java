@@ -0,0 +1,19 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceMethodMetricsDTO {
+    private String method;
+    private long calls;
+    private long errors;
+    private double meanMillis;
+    private double maxMillis;
+    private double p50Millis;
+    private double p99Millis;
+    private double p999Millis;
+}
@@ -5,8 +5,17 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Query("SELECT ci FROM CartItem ci WHERE ci.cart.id = ?1 AND ci.product.id = ?2")
     CartItem findCartItemByProductIdAndCartId(Long cartId, Long productId);
+
+    // Unmanaged rows straight from the users, carts and cart_items indexes: no cart, item or product is loaded. The
+    // query starts from the user, as H2 keeps the tables left of a LEFT JOIN first and would otherwise scan carts
+    @Query("SELECT new com.ecommerce.project.repositories.CartItemRow(c.cartId, ci.product.productId, ci.quantity, "
+            + "ci.discount, ci.productPrice) FROM User u JOIN u.cart c LEFT JOIN c.cartItems ci "
+            + "WHERE u.username = ?1 ORDER BY ci.cartItemId")
+    List<CartItemRow> findCartItemRowsByUsername(String username);
 }
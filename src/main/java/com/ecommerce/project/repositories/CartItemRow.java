@@ -0,0 +1,7 @@
+package com.ecommerce.project.repositories;
+
+/**
+ * One item of a cart as stored, without its product, or the only row of an empty cart with no product.
+ */
+public record CartItemRow(Long cartId, Long productId, Integer quantity, Double discount, Long productPrice) {
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.payload.ProductDTO;
+
+/**
+ * One row of a cart listing: a cart with one of its products, or with no product if the cart is empty. Rows of the
+ * same cart come one after another.
+ */
+public record CartProductRow(Long cartId, long totalPrice, Long productId, String productName, String description,
+                             String image, Integer quantity, Long price, Double discount, Long specialPrice) {
+
+    /**
+     * @return the product, or {@code null} for the row of an empty cart
+     */
+    public ProductDTO toProductDTO() {
+        if (productId == null)
+            return null;
+        return new ProductDTO(productId, productName, description, image, quantity, price, discount, specialPrice);
+    }
+}
@@ -1,11 +1,17 @@
 package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.Cart;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
@@ -14,4 +20,26 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p WHERE p.id = ?1")
     List<Cart> findCartsByProductId(Long productId);
+
+    // Keyset page on the primary key
+    @Query("SELECT c.cartId FROM Cart c WHERE c.cartId > ?1 ORDER BY c.cartId")
+    List<Long> findCartIdsAfter(long after, Limit limit);
+
+    // One result set of unmanaged rows for the whole page: no cart or product entities are loaded, so neither is
+    // the products' EAGER cart item association
+    @Query("SELECT new com.ecommerce.project.repositories.CartProductRow(c.cartId, c.totalPrice, p.productId, "
+            + "p.productName, p.description, p.image, p.quantity, p.price, p.discount, p.specialPrice) "
+            + "FROM Cart c LEFT JOIN c.cartItems ci LEFT JOIN ci.product p WHERE c.cartId IN ?1 "
+            + "ORDER BY c.cartId, ci.cartItemId")
+    List<CartProductRow> findCartProductRows(Collection<Long> cartIds);
+
+    // Forward-only cursor over every cart, like the page above. Must be consumed inside a transaction.
+    @Query("SELECT new com.ecommerce.project.repositories.CartProductRow(c.cartId, c.totalPrice, p.productId, "
+            + "p.productName, p.description, p.image, p.quantity, p.price, p.discount, p.specialPrice) "
+            + "FROM Cart c LEFT JOIN c.cartItems ci LEFT JOIN ci.product p ORDER BY c.cartId, ci.cartItemId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<CartProductRow> streamAllForExport();
 }
@@ -2,15 +2,59 @@ package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductChangeDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Page<Product> findByCategoryOrderByPriceAsc(Category category, Pageable pageable);
 
     Page<Product> findByProductNameLikeIgnoreCase(String keyword, Pageable pageable);
+
+    // Existence probe on the unique (product_name, category_id) index
+    boolean existsByCategoryCategoryIdAndProductName(Long categoryId, String productName);
+
+    // Served by the (product_name, category_id) index; H2 only uses an IN list on the leading index column
+    @Query("select p.productName from Product p where p.category.categoryId = :categoryId and p.productName in :names")
+    Set<String> findExistingProductNames(@Param("categoryId") Long categoryId, @Param("names") Collection<String> names);
+
+    // Forward-only cursor of unmanaged DTOs: nothing accumulates in the persistence context and the EAGER cart
+    // item association is never loaded. Must be consumed inside a transaction.
+    @Query("select new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.description, p.image, "
+            + "p.quantity, p.price, p.discount, p.specialPrice, p.imageVariantNames) from Product p "
+            + "order by p.productId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<ProductDTO> streamAllForExport();
+
+    // Unmanaged DTOs, so the EAGER cart item association is never loaded
+    @Query("select new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.description, p.image, "
+            + "p.quantity, p.price, p.discount, p.specialPrice, p.imageVariantNames) from Product p "
+            + "where p.productId in :productIds")
+    List<ProductDTO> findDTOsByProductIdIn(@Param("productIds") Collection<? extends Long> productIds);
+
+    // Range scan on the change_version index
+    @Query("select new com.ecommerce.project.payload.ProductChangeDTO(p.changeVersion, p.productId, p.productName, "
+            + "p.description, p.image, p.quantity, p.price, p.discount, p.specialPrice, p.imageVariantNames) "
+            + "from Product p "
+            + "where p.changeVersion > :since and p.changeVersion <= :until order by p.changeVersion")
+    List<ProductChangeDTO> findChanges(@Param("since") long since, @Param("until") long until, Limit limit);
 }
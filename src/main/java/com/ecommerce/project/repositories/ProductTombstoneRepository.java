@@ -0,0 +1,15 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.ProductTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    List<ProductTombstone> findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersion(
+            long since, long until, Limit limit);
+}
@@ -14,7 +14,11 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.WebUtils;
 
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.util.Date;
 
@@ -126,6 +130,24 @@ public class JwtUtils {
         return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
     }
 
+    /**
+     * Derives a key for another use of the configured `jwtSecret`, such as signing guest cart cookies.
+     * The key is the HMAC-SHA256 of the purpose under the JWT key, so each purpose gets a key of its own
+     * and a value signed for one can never pass as another, or as a JWT.
+     *
+     * @param purpose a fixed label naming the use, e.g. "guest-cart"
+     * @return a {@link SecretKey} for HmacSHA256
+     */
+    public SecretKey deriveKey(String purpose) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key().getEncoded(), "HmacSHA256"));
+            return new SecretKeySpec(mac.doFinal(purpose.getBytes(StandardCharsets.UTF_8)), "HmacSHA256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can not derive a key for " + purpose, e);
+        }
+    }
+
     /**
      * Validates the given JSON Web Token (JWT). This method checks the token's
      * integrity, expiration, structure, and compliance with the configured secret key.
@@ -138,7 +160,7 @@ public class JwtUtils {
      */
     public boolean validateJwtToken(String authToken) {
         try {
-            System.out.println("Validate");
+            logger.debug("Validating JWT token");
             Jwts.parser().verifyWith((SecretKey) key()).build().parseSignedClaims(authToken);
             return true;
         } catch (MalformedJwtException e) {
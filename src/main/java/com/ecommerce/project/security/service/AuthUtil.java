@@ -27,6 +27,13 @@ public class AuthUtil {
         this.userRepository = userRepository;
     }
 
+    /**
+     * Unlike the other methods, answered from the security context without loading the user.
+     */
+    public String loggedInUsername() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
     public String loggedInEmail() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         User user = userRepository.findByUsername(authentication.getName())
@@ -0,0 +1,136 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.CartOperationsException;
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.money.Money;
+import com.ecommerce.project.payload.CartOperationDTO;
+import com.ecommerce.project.payload.CartOperationErrorDTO;
+import com.ecommerce.project.repositories.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a batch of cart operations to the lines of a cart, shared by both cart stores. Operations are applied in
+ * order, each seeing the result of the ones before it, with the same checks and messages as the single-item
+ * endpoints. Every failing operation is reported, and if any fails the batch is rejected as a whole, or with
+ * {@link #applyPossible} only the failing operations are left out.
+ */
+final class CartOperations {
+
+    record Line(Long productId, int quantity, double discount, long productPrice) {
+    }
+
+    private CartOperations() {
+    }
+
+    /**
+     * Loads every product the operations refer to in one query.
+     */
+    static Map<Long, Product> productsById(ProductRepository productRepository, List<CartOperationDTO> operations) {
+        List<Long> productIds = operations.stream().map(CartOperationDTO::getProductId).distinct().toList();
+        return productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+    }
+
+    /**
+     * @return the cart's lines after all operations, in their original order with added products last
+     * @throws CartOperationsException listing every operation that failed
+     */
+    static List<Line> apply(List<Line> lines, Map<Long, Product> products, List<CartOperationDTO> operations) {
+        List<CartOperationErrorDTO> errors = new ArrayList<>();
+        List<Line> result = applyPossible(lines, products, operations, errors);
+        if (!errors.isEmpty())
+            throw new CartOperationsException(errors);
+        return result;
+    }
+
+    /**
+     * Like {@link #apply(List, Map, List)}, but leaves out the operations that fail instead of rejecting the batch.
+     *
+     * @param skipped receives an error for every operation left out
+     */
+    static List<Line> applyPossible(List<Line> lines, Map<Long, Product> products,
+                                    List<CartOperationDTO> operations, List<CartOperationErrorDTO> skipped) {
+        Map<Long, Line> cart = new LinkedHashMap<>();
+        lines.forEach(line -> cart.put(line.productId(), line));
+
+        for (int i = 0; i < operations.size(); i++) {
+            CartOperationDTO operation = operations.get(i);
+            String error = apply(cart, products.get(operation.getProductId()), operation);
+            if (error != null)
+                skipped.add(new CartOperationErrorDTO(i + 1, operation.getProductId(), error));
+        }
+        return List.copyOf(cart.values());
+    }
+
+    static long totalPrice(List<Line> lines) {
+        return lines.stream().mapToLong(line -> Money.times(line.productPrice(), line.quantity())).sum();
+    }
+
+    /**
+     * @return why the operation failed, leaving the cart as it was, or {@code null}
+     */
+    private static String apply(Map<Long, Line> cart, Product product, CartOperationDTO operation) {
+        Long productId = operation.getProductId();
+        if (product == null)
+            return new ResourceNotFoundException("Product", "product_id", productId).getMessage();
+
+        Integer quantity = operation.getQuantity();
+        CartOperationDTO.Op op = operation.getOp();
+        if (op == CartOperationDTO.Op.INCREMENT) {
+            if (quantity == null || quantity < 1)
+                return "Quantity to add must be at least 1";
+            // Adds to the quantity already in the cart, or adds the product
+            Line line = cart.get(productId);
+            if (line != null) {
+                op = CartOperationDTO.Op.SET_QUANTITY;
+                quantity = line.quantity() + quantity;
+            } else {
+                op = CartOperationDTO.Op.ADD;
+            }
+        }
+        switch (op) {
+            case ADD -> {
+                if (quantity == null || quantity < 1)
+                    return "Quantity to add must be at least 1";
+                if (cart.containsKey(productId))
+                    return "Product " + product.getProductName() + " already exits in the cart";
+                if (product.getQuantity() == 0)
+                    return "Product" + product.getProductName() + " is not available";
+                if (product.getQuantity() < quantity)
+                    return "Only " + product.getQuantity() + " of " + product.getProductName() + " available";
+
+                cart.put(productId, new Line(productId, quantity, product.getDiscount(), product.getSpecialPrice()));
+            }
+            case SET_QUANTITY -> {
+                if (quantity == null || quantity < 0)
+                    return "Quantity must not be negative";
+                if (!cart.containsKey(productId))
+                    return "Product" + product.getProductName() + " does not exist in the cart";
+                if (quantity == 0) {
+                    cart.remove(productId);
+                    return null;
+                }
+                if (product.getQuantity() == 0)
+                    return "Product" + product.getProductName() + " is not available";
+                if (product.getQuantity() < quantity)
+                    return "Only " + product.getQuantity() + " of " + product.getProductName() + " available";
+
+                // Refreshes the price, like a quantity change through the single-item endpoint
+                cart.put(productId, new Line(productId, quantity, product.getDiscount() * quantity,
+                        product.getSpecialPrice()));
+            }
+            case REMOVE -> {
+                if (cart.remove(productId) == null)
+                    return "Product does not exists in cart";
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.money.Money;
+import com.ecommerce.project.payload.CartQuoteDTO;
+import com.ecommerce.project.payload.CartQuoteLineDTO;
+import com.ecommerce.project.payload.ProductDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prices the lines of a cart at current catalog prices, shared by both cart stores. Nothing is written: the cart
+ * keeps the prices it holds until it is changed or the product's price update reaches it.
+ */
+final class CartQuotes {
+
+    private CartQuotes() {
+    }
+
+    /**
+     * @param catalog the current products by ID; lines of products missing from it are quoted as unavailable
+     */
+    static CartQuoteDTO quote(Long cartId, List<CartOperations.Line> lines, Map<Long, ProductDTO> catalog) {
+        List<CartQuoteLineDTO> quoted = new ArrayList<>(lines.size());
+        long subtotal = 0;
+        long totalPrice = 0;
+        boolean stale = false;
+        for (CartOperations.Line line : lines) {
+            ProductDTO product = catalog.get(line.productId());
+            if (product == null) {
+                quoted.add(new CartQuoteLineDTO(line.productId(), null, line.quantity(), 0, 0, 0, 0,
+                        line.productPrice(), true, false));
+                stale = true;
+                continue;
+            }
+
+            boolean available = product.getQuantity() != null && product.getQuantity() >= line.quantity();
+            boolean lineStale = line.productPrice() != product.getSpecialPrice();
+            long lineTotal = Money.times(product.getSpecialPrice(), line.quantity());
+            quoted.add(new CartQuoteLineDTO(product.getProductId(), product.getProductName(), line.quantity(),
+                    product.getPrice(), product.getDiscount(), product.getSpecialPrice(), lineTotal,
+                    line.productPrice(), lineStale, available));
+            stale |= lineStale || !available;
+            if (available) {
+                subtotal += Money.times(product.getPrice(), line.quantity());
+                totalPrice += lineTotal;
+            }
+        }
+        return new CartQuoteDTO(cartId, quoted, subtotal, subtotal - totalPrice, totalPrice, stale);
+    }
+}
@@ -1,7 +1,13 @@
 package com.ecommerce.project.service;
 
 import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperationDTO;
+import com.ecommerce.project.payload.CartQuoteDTO;
+import com.ecommerce.project.payload.CartResponse;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,11 +26,23 @@ public interface CartService {
     CartDTO addProductToCart(Long productId, Integer quantity);
 
     /**
-     * Retrieves a list of all shopping carts.
+     * Retrieves one page of all shopping carts, in cart ID order. Pages are keyed by the last cart ID of the page
+     * before, so reading a page costs the same however deep into the listing it is.
      *
-     * @return a list of CartDTO objects representing all the shopping carts
+     * @param after the nextAfter of the previous page, or 0 for the first page
+     * @param limit the maximum number of carts on the page
+     * @return the carts with an ID above {@code after}, and where the next page starts
      */
-    List<CartDTO> getAllCarts();
+    CartResponse getAllCarts(Long after, Integer limit);
+
+    /**
+     * Writes every shopping cart as newline-delimited JSON, one CartDTO per line in cart ID order, reading them
+     * from a single database cursor without holding them all in memory.
+     *
+     * @param out the stream to write to; it is flushed but not closed
+     * @return the number of carts written
+     */
+    long exportCarts(OutputStream out) throws IOException;
 
     /**
      * Retrieves the shopping cart for the currently logged-in user.
@@ -34,6 +52,16 @@ public interface CartService {
      */
     CartDTO getCartForLoggedInUser();
 
+    /**
+     * Prices the logged-in user's cart at current catalog prices, for showing totals e.g. during checkout. The
+     * cart's items are read without loading the cart or its products, prices come from the in-memory catalog, and
+     * nothing is written. Lines whose price in the cart differs from the product's current special price are
+     * flagged as stale.
+     *
+     * @return the quote, with a line per cart item and the totals of the available lines
+     */
+    CartQuoteDTO quoteCartForLoggedInUser();
+
     /**
      * Updates the quantity of a specific product in the shopping cart.
      * This method adjusts the product quantity based on the specified change and recalculates the cart's total price.
@@ -54,6 +82,27 @@ public interface CartService {
      */
     String deleteProductFromCart(Long productId);
 
+    /**
+     * Applies a batch of add, set-quantity, increment and remove operations to the logged-in user's cart, in order
+     * and all or nothing, creating the cart if needed. The products are loaded once for the whole batch and the
+     * total price is recomputed once from the resulting items.
+     *
+     * @param operations the operations, each seeing the result of the ones before it
+     * @return the updated CartDTO
+     * @throws com.ecommerce.project.exceptions.CartOperationsException listing every failed operation, in which
+     *         case the cart is left unchanged
+     */
+    CartDTO updateCart(List<CartOperationDTO> operations);
+
+    /**
+     * Like {@link #updateCart}, in one transaction, but leaves out the operations that fail, e.g. for a product
+     * that is no longer available in that quantity, instead of rejecting the batch.
+     *
+     * @param operations the operations, each seeing the result of the ones before it
+     * @return the updated CartDTO
+     */
+    CartDTO updateCartWherePossible(List<CartOperationDTO> operations);
+
     /**
      * Updates the association between a product and a cart based on the given cart ID and product ID.
      * This method is used to modify the contents of one or more shopping carts with a specific product.
@@ -72,4 +121,27 @@ public interface CartService {
      * @param productId the unique identifier of the product to be removed from all carts
      */
     void deleteProductFromAllCarts(Long cartId, Long productId);
+
+    /**
+     * Makes sure all changes to the user's cart are in the database, for work such as checkout that reads the
+     * cart from there. Only does anything when carts are written to the database behind the changes.
+     *
+     * @param username the username of the cart's owner
+     */
+    void flushCart(String username);
+
+    /**
+     * Makes sure all changes to every cart are in the database, for work that queries carts across users.
+     * Only does anything when carts are written to the database behind the changes.
+     */
+    void flushAllCarts();
+
+    /**
+     * Drops the given carts from memory, writing any changes to them first, before work such as the abandoned cart
+     * sweeper deletes them from the database directly. Only does anything when carts are written to the database
+     * behind the changes.
+     *
+     * @param cartIds the unique identifiers of the carts
+     */
+    void evictCarts(Collection<Long> cartIds);
 }
@@ -1,22 +1,46 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.cart.CatalogPriceCache;
+import com.ecommerce.project.cart.RetryOnConflict;
+import com.ecommerce.project.config.AppConstants;
 import com.ecommerce.project.exceptions.APIException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
 import com.ecommerce.project.model.Cart;
 import com.ecommerce.project.model.CartItem;
 import com.ecommerce.project.model.Product;
+import com.ecommerce.project.money.Money;
 import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperationDTO;
+import com.ecommerce.project.payload.CartQuoteDTO;
+import com.ecommerce.project.payload.CartResponse;
 import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.repositories.CartItemRepository;
+import com.ecommerce.project.repositories.CartItemRow;
+import com.ecommerce.project.repositories.CartProductRow;
 import com.ecommerce.project.repositories.CartRepository;
 import com.ecommerce.project.repositories.ProductRepository;
 import com.ecommerce.project.security.service.AuthUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.transaction.Transactional;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CartServiceImpl implements CartService {
@@ -26,18 +50,25 @@ public class CartServiceImpl implements CartService {
     private final CartItemRepository cartItemRepository;
     private final ModelMapper modelMapper;
     private final AuthUtil authUtil;
+    private final ObjectMapper objectMapper;
+    private final CatalogPriceCache catalogPriceCache;
 
     public CartServiceImpl(CartRepository cartRepository, ProductRepository productRepository,
-                           CartItemRepository cartItemRepository, ModelMapper modelMapper, AuthUtil authUtil) {
+                           CartItemRepository cartItemRepository, ModelMapper modelMapper, AuthUtil authUtil,
+                           ObjectMapper objectMapper, CatalogPriceCache catalogPriceCache) {
         this.cartRepository = cartRepository;
         this.productRepository = productRepository;
         this.cartItemRepository = cartItemRepository;
         this.modelMapper = modelMapper;
         this.authUtil = authUtil;
+        this.objectMapper = objectMapper;
+        this.catalogPriceCache = catalogPriceCache;
     }
 
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public CartDTO addProductToCart(Long productId, Integer quantity) {
         // Find existing cart, or create a new one
         Cart cart = findOrCreateCart();
@@ -82,7 +113,7 @@ public class CartServiceImpl implements CartService {
          */
 
         // Update cart total price and save to DB
-        cart.setTotalPrice(cart.getTotalPrice() + product.getSpecialPrice() * quantity);
+        cart.setTotalPrice(cart.getTotalPrice() + Money.times(product.getSpecialPrice(), quantity));
 
         cart = cartRepository.save(cart);
 
@@ -93,8 +124,9 @@ public class CartServiceImpl implements CartService {
         List<CartItem> cartItems = cart.getCartItems();
 
         // Need to add most recent cart item to list as well as others that already exists
-        // It does not fetch the newest cart item despite it being persisted in DB
-        cartItems.add(newCartItem);
+        // The list only holds it if it was first loaded after the item was saved
+        if (!cartItems.contains(newCartItem))
+            cartItems.add(newCartItem);
 
         // Prepare list of products to be added to the CartDTO
         // Mapping cart items to products and changing product quantity to cart item quantity
@@ -112,24 +144,76 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
-    public List<CartDTO> getAllCarts() {
-        List<Cart> carts = cartRepository.findAll();
-
-        if (carts.isEmpty())
+    public CartResponse getAllCarts(Long after, Integer limit) {
+        if (after < 0)
+            throw new APIException("after must not be negative");
+        if (limit < 1 || limit > AppConstants.MAX_CARTS_LIMIT)
+            throw new APIException("limit must be between 1 and " + AppConstants.MAX_CARTS_LIMIT);
+
+        // Fetch one more than asked for to know whether this is the last page
+        List<Long> cartIds = cartRepository.findCartIdsAfter(after, Limit.of(limit + 1));
+        if (cartIds.isEmpty() && after == 0)
             throw new APIException("No carts exist");
 
-        List<CartDTO> cartDTOS = carts.stream().map(cart -> {
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-            List<ProductDTO> products = cart.getCartItems().stream()
-                    .map(cartItem -> modelMapper.map(cartItem.getProduct(), ProductDTO.class)).toList();
-            cartDTO.setProducts(products);
-            return cartDTO;
-        }).toList();
+        boolean lastPage = cartIds.size() <= limit;
+        List<Long> page = lastPage ? cartIds : cartIds.subList(0, limit);
+        List<CartDTO> cartDTOS = new ArrayList<>(page.size());
+        if (!page.isEmpty()) {
+            CartDTO cartDTO = null;
+            for (CartProductRow row : cartRepository.findCartProductRows(page)) {
+                if (cartDTO == null || !cartDTO.getCartId().equals(row.cartId())) {
+                    cartDTO = new CartDTO(row.cartId(), row.totalPrice(), new ArrayList<>());
+                    cartDTOS.add(cartDTO);
+                }
+                ProductDTO productDTO = row.toProductDTO();
+                if (productDTO != null)
+                    cartDTO.getProducts().add(productDTO);
+            }
+        }
 
-        return cartDTOS;
+        long nextAfter = page.isEmpty() ? after : page.get(page.size() - 1);
+        return new CartResponse(cartDTOS, nextAfter, lastPage);
     }
 
     @Override
+    @Transactional
+    public long exportCarts(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(CartDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (Stream<CartProductRow> rows = cartRepository.streamAllForExport();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            // Rows of one cart are adjacent, so a cart is complete once the next one starts
+            CartDTO cartDTO = null;
+            Iterator<CartProductRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                CartProductRow row = iterator.next();
+                if (cartDTO == null || !cartDTO.getCartId().equals(row.cartId())) {
+                    if (cartDTO != null) {
+                        writer.writeValue(generator, cartDTO);
+                        count++;
+                    }
+                    cartDTO = new CartDTO(row.cartId(), row.totalPrice(), new ArrayList<>());
+                }
+                ProductDTO productDTO = row.toProductDTO();
+                if (productDTO != null)
+                    cartDTO.getProducts().add(productDTO);
+            }
+            if (cartDTO != null) {
+                writer.writeValue(generator, cartDTO);
+                count++;
+                generator.writeRaw('\n');
+            }
+        }
+        out.flush();
+        return count;
+    }
+
+    @Override
+    @Transactional
     public CartDTO getCartForLoggedInUser() {
         Cart cart = cartRepository.findCartByEmail(authUtil.loggedInEmail());
 
@@ -151,8 +235,24 @@ public class CartServiceImpl implements CartService {
         return cartDTO;
     }
 
+    @Override
+    public CartQuoteDTO quoteCartForLoggedInUser() {
+        List<CartItemRow> rows = cartItemRepository.findCartItemRowsByUsername(authUtil.loggedInUsername());
+        if (rows.isEmpty())
+            throw new APIException("No cart found for logged in user");
+
+        List<CartOperations.Line> lines = rows.stream()
+                .filter(row -> row.productId() != null)
+                .map(row -> new CartOperations.Line(row.productId(), row.quantity(), row.discount(),
+                        row.productPrice()))
+                .toList();
+        return CartQuotes.quote(rows.get(0).cartId(), lines,
+                catalogPriceCache.getAll(lines.stream().map(CartOperations.Line::productId).toList()));
+    }
+
     @Override
     @Transactional
+    @RetryOnConflict
     public CartDTO updateProductQuantityInCart(Long productId, int change) {
         // Validations
         Cart cart = cartRepository.findCartByEmail(authUtil.loggedInEmail());
@@ -181,7 +281,7 @@ public class CartServiceImpl implements CartService {
         cartItem.setDiscount(product.getDiscount() * cartItem.getQuantity());
 
         // Update total price of the cart
-        cart.setTotalPrice(cart.getTotalPrice() + (cartItem.getProductPrice() * change));
+        cart.setTotalPrice(cart.getTotalPrice() + Money.times(cartItem.getProductPrice(), change));
 
         // If item updated has quantity one in the cart, and it is now 0, just delete the item
         // Otherwise, save the updated cart item
@@ -212,6 +312,7 @@ public class CartServiceImpl implements CartService {
     }
 
     @Transactional
+    @RetryOnConflict
     @Override
     public String deleteProductFromCart(Long productId) {
         Cart cart = cartRepository.findCartByEmail(authUtil.loggedInEmail());
@@ -223,7 +324,7 @@ public class CartServiceImpl implements CartService {
             throw new APIException("Product does not exists in cart");
 
         // Update cart total price
-        cart.setTotalPrice(cart.getTotalPrice() - cartItem.getProductPrice() * cartItem.getQuantity());
+        cart.setTotalPrice(cart.getTotalPrice() - Money.times(cartItem.getProductPrice(), cartItem.getQuantity()));
 
         // Delete cart item entry from in-memory collection and DB
         cart.getCartItems().remove(cartItem);
@@ -233,7 +334,72 @@ public class CartServiceImpl implements CartService {
         return "Product deleted from cart successfully";
     }
 
+    @Transactional
+    @RetryOnConflict
+    @Override
+    public CartDTO updateCart(List<CartOperationDTO> operations) {
+        return updateCart(operations, false);
+    }
+
+    @Transactional
+    @RetryOnConflict
+    @Override
+    public CartDTO updateCartWherePossible(List<CartOperationDTO> operations) {
+        return updateCart(operations, true);
+    }
+
+    private CartDTO updateCart(List<CartOperationDTO> operations, boolean wherePossible) {
+        Cart cart = findOrCreateCart();
+        Map<Long, Product> products = CartOperations.productsById(productRepository, operations);
+
+        Map<Long, CartItem> cartItems = cart.getCartItems().stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getProductId(), Function.identity()));
+        List<CartOperations.Line> current = cart.getCartItems().stream()
+                .map(item -> new CartOperations.Line(item.getProduct().getProductId(), item.getQuantity(),
+                        item.getDiscount(), item.getProductPrice()))
+                .toList();
+        List<CartOperations.Line> lines = wherePossible
+                ? CartOperations.applyPossible(current, products, operations, new ArrayList<>())
+                : CartOperations.apply(current, products, operations);
+
+        // Write the resulting lines back: drop removed items, update kept ones and append added ones
+        Map<Long, CartOperations.Line> linesByProduct = lines.stream()
+                .collect(Collectors.toMap(CartOperations.Line::productId, Function.identity()));
+        cart.getCartItems().removeIf(item -> {
+            if (linesByProduct.containsKey(item.getProduct().getProductId()))
+                return false;
+            item.setCart(null);
+            return true;
+        });
+        for (CartOperations.Line line : lines) {
+            CartItem cartItem = cartItems.get(line.productId());
+            if (cartItem == null) {
+                cartItem = new CartItem();
+                cartItem.setProduct(products.get(line.productId()));
+                cartItem.setCart(cart);
+                cart.getCartItems().add(cartItem);
+            }
+            cartItem.setQuantity(line.quantity());
+            cartItem.setDiscount(line.discount());
+            cartItem.setProductPrice(line.productPrice());
+        }
+        cart.setTotalPrice(CartOperations.totalPrice(lines));
+        cart = cartRepository.save(cart);
+
+        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+        cartDTO.setProducts(cart.getCartItems().stream()
+                .map(item -> {
+                    ProductDTO productDTO = modelMapper.map(item.getProduct(), ProductDTO.class);
+                    productDTO.setQuantity(item.getQuantity());
+                    return productDTO;
+                })
+                .toList());
+        return cartDTO;
+    }
+
     @Override
+    @Transactional
+    @RetryOnConflict
     public void updateProductInCarts(Long cartId, Long productId) {
         // Validation
         Cart cart = cartRepository.findById(cartId)
@@ -248,21 +414,23 @@ public class CartServiceImpl implements CartService {
             throw new APIException("Product " + product.getProductName() + " not found in the cart");
 
         // Get price of product in cart, and remove old product price from cart total
-        double cartPrice = cart.getTotalPrice() -
-                (cartItem.getProductPrice() * cartItem.getQuantity());
+        long cartPrice = cart.getTotalPrice() -
+                Money.times(cartItem.getProductPrice(), cartItem.getQuantity());
 
         // Apply new product price to cart item
         cartItem.setProductPrice(product.getSpecialPrice());
 
         // Re-add the price back to the cart's total price after applying new product price
         cart.setTotalPrice(cartPrice
-                + cartItem.getProductPrice() * cartItem.getQuantity());
+                + Money.times(cartItem.getProductPrice(), cartItem.getQuantity()));
 
         cartItem = cartItemRepository.save(cartItem);
         cart = cartRepository.save(cart);
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public void deleteProductFromAllCarts(Long cartId, Long productId) {
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(() -> new APIException("No cart found with ID: " + cartId));
@@ -272,7 +440,7 @@ public class CartServiceImpl implements CartService {
             throw new APIException("Product does not exists in cart with ID: " + cartId);
 
         // Update cart total price
-        cart.setTotalPrice(cart.getTotalPrice() - cartItem.getProductPrice() * cartItem.getQuantity());
+        cart.setTotalPrice(cart.getTotalPrice() - Money.times(cartItem.getProductPrice(), cartItem.getQuantity()));
 
         // Delete cart item entry from in-memory collection and DB
         cart.getCartItems().remove(cartItem);
@@ -280,6 +448,21 @@ public class CartServiceImpl implements CartService {
         cartRepository.save(cart);
     }
 
+    @Override
+    public void flushCart(String username) {
+        // Every change is already written to the database
+    }
+
+    @Override
+    public void flushAllCarts() {
+        // Every change is already written to the database
+    }
+
+    @Override
+    public void evictCarts(Collection<Long> cartIds) {
+        // Carts are not held in memory
+    }
+
     private Cart findOrCreateCart() {
         Cart cart = cartRepository.findCartByEmail(authUtil.loggedInEmail());
         if (cart != null) {
@@ -287,7 +470,7 @@ public class CartServiceImpl implements CartService {
         }
 
         Cart newCart = new Cart();
-        newCart.setTotalPrice(0.00);
+        newCart.setTotalPrice(0);
         newCart.setUser(authUtil.loggedInUser());
 
         return cartRepository.save(newCart);
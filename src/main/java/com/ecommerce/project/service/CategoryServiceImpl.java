@@ -1,17 +1,20 @@
 package com.ecommerce.project.service;
 
 import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.exceptions.ConstraintViolations;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.payload.CategoryDTO;
 import com.ecommerce.project.payload.CategoryResponse;
 import com.ecommerce.project.repositories.CategoryRepository;
 import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -32,6 +35,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
         // Find all categories in DB, else throw exception
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
@@ -66,11 +70,18 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = modelMapper.map(categoryDTO, Category.class);
 
         // Check if category already exists in DB, if so, throw error
-        Category existingCategory = categoryRepository.findByCategoryName(category.getCategoryName());
-        if (existingCategory != null)
-            throw new APIException("Category with name " + category.getCategoryName() + " already exists");
-
-        Category savedCategory = categoryRepository.save(category);
+        if (categoryRepository.existsByCategoryName(category.getCategoryName()))
+            throw duplicateCategory(category.getCategoryName());
+
+        // The unique constraint catches a concurrent insert of the same name that slipped past the check above
+        Category savedCategory;
+        try {
+            savedCategory = categoryRepository.saveAndFlush(category);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, Category.UNIQUE_NAME))
+                throw duplicateCategory(category.getCategoryName());
+            throw e;
+        }
 
         // Return newly saved category after DTO conversion
         return modelMapper.map(savedCategory, CategoryDTO.class);
@@ -107,9 +118,20 @@ public class CategoryServiceImpl implements CategoryService {
         categoryToUpdate.setCategoryName(category.getCategoryName());
 
         // Save updates in DB
-        Category savedCategory = categoryRepository.save(categoryToUpdate);
+        Category savedCategory;
+        try {
+            savedCategory = categoryRepository.saveAndFlush(categoryToUpdate);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, Category.UNIQUE_NAME))
+                throw duplicateCategory(category.getCategoryName());
+            throw e;
+        }
 
         // Map updated category to a DTO and return
         return modelMapper.map(savedCategory, CategoryDTO.class);
     }
+
+    private static APIException duplicateCategory(String categoryName) {
+        return new APIException("Category with name " + categoryName + " already exists");
+    }
 }
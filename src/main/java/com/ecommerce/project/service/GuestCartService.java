@@ -0,0 +1,43 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.cart.GuestCart;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperationDTO;
+
+import java.util.List;
+
+/**
+ * Service interface for the carts of shoppers who have not signed in. A guest cart is held by the caller, in a
+ * cookie, and only products and quantities are kept; this service never writes to the database for it.
+ */
+public interface GuestCartService {
+    /**
+     * Prices a guest cart from the catalog as it is now. Products that are no longer sold are left out.
+     *
+     * @param cart the guest cart
+     * @return a CartDTO without a cart ID, with the current price of each product and the total
+     */
+    CartDTO getCart(GuestCart cart);
+
+    /**
+     * Applies a batch of add, set-quantity, increment and remove operations to a guest cart, in order and all or
+     * nothing, with the same checks as for a signed-in user's cart.
+     *
+     * @param cart the guest cart
+     * @param operations the operations, each seeing the result of the ones before it
+     * @return the changed guest cart
+     * @throws com.ecommerce.project.exceptions.CartOperationsException listing every failed operation
+     * @throws com.ecommerce.project.exceptions.APIException if the cart would hold more products than allowed
+     */
+    GuestCart updateCart(GuestCart cart, List<CartOperationDTO> operations);
+
+    /**
+     * Moves a guest cart into the logged-in user's cart in one transaction: products already in the user's cart
+     * get the guest quantity added, the others are added. Products that can not be had in that quantity are
+     * skipped.
+     *
+     * @param cart the guest cart
+     * @return the user's updated cart, or {@code null} if the guest cart is empty
+     */
+    CartDTO mergeIntoUserCart(GuestCart cart);
+}
@@ -0,0 +1,98 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.cart.CatalogPriceCache;
+import com.ecommerce.project.cart.GuestCart;
+import com.ecommerce.project.cart.GuestCartProperties;
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.money.Money;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperationDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import org.modelmapper.ModelMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class GuestCartServiceImpl implements GuestCartService {
+
+    private final CatalogPriceCache catalogPriceCache;
+    private final CartService cartService;
+    private final ModelMapper modelMapper;
+    private final GuestCartProperties properties;
+
+    public GuestCartServiceImpl(CatalogPriceCache catalogPriceCache, CartService cartService,
+                                ModelMapper modelMapper, GuestCartProperties properties) {
+        this.catalogPriceCache = catalogPriceCache;
+        this.cartService = cartService;
+        this.modelMapper = modelMapper;
+        this.properties = properties;
+    }
+
+    @Override
+    public CartDTO getCart(GuestCart cart) {
+        Map<Long, ProductDTO> catalog = catalogPriceCache.getAll(productIds(cart, List.of()));
+
+        List<ProductDTO> products = new ArrayList<>();
+        long totalPrice = 0;
+        for (GuestCart.Line line : cart.lines()) {
+            ProductDTO product = catalog.get(line.productId());
+            if (product == null)
+                continue;
+            product.setQuantity(line.quantity());
+            products.add(product);
+            totalPrice += Money.times(product.getSpecialPrice(), line.quantity());
+        }
+        return new CartDTO(null, totalPrice, products);
+    }
+
+    @Override
+    public GuestCart updateCart(GuestCart cart, List<CartOperationDTO> operations) {
+        Map<Long, ProductDTO> catalog = catalogPriceCache.getAll(productIds(cart, operations));
+        Map<Long, Product> products = catalog.values().stream()
+                .collect(Collectors.toMap(ProductDTO::getProductId, product -> modelMapper.map(product, Product.class)));
+
+        List<CartOperations.Line> lines = cart.lines().stream()
+                .filter(line -> catalog.containsKey(line.productId()))
+                .map(line -> {
+                    ProductDTO product = catalog.get(line.productId());
+                    return new CartOperations.Line(line.productId(), line.quantity(), product.getDiscount(),
+                            product.getSpecialPrice());
+                })
+                .toList();
+        lines = CartOperations.apply(lines, products, operations);
+
+        if (lines.size() > properties.getMaxProducts())
+            throw new APIException("A guest cart can hold at most " + properties.getMaxProducts()
+                    + " products, sign in to add more");
+
+        return new GuestCart(lines.stream()
+                .map(line -> new GuestCart.Line(line.productId(), line.quantity()))
+                .toList());
+    }
+
+    @Override
+    public CartDTO mergeIntoUserCart(GuestCart cart) {
+        if (cart.isEmpty())
+            return null;
+
+        // Added to whatever the user's cart holds when the batch runs, so a concurrent change is not overwritten
+        List<CartOperationDTO> operations = cart.lines().stream()
+                .map(line -> new CartOperationDTO(CartOperationDTO.Op.INCREMENT, line.productId(), line.quantity()))
+                .toList();
+        return cartService.updateCartWherePossible(operations);
+    }
+
+    private static Set<Long> productIds(GuestCart cart, List<CartOperationDTO> operations) {
+        Set<Long> productIds = new LinkedHashSet<>();
+        cart.lines().forEach(line -> productIds.add(line.productId()));
+        operations.forEach(operation -> productIds.add(operation.getProductId()));
+        return productIds;
+    }
+}
@@ -45,6 +45,7 @@ public class OrderServiceImpl implements OrderService {
                                String pgStatus, String pgResponseMessage) {
 
         // 1) Get user cart and address
+        cartService.flushCart(user.getUsername());
         String userEmail = user.getEmail();
         Cart cart = cartRepository.findCartByEmail(userEmail);
 
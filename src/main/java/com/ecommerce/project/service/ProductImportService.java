@@ -0,0 +1,47 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.ProductImportStatusDTO;
+import org.springframework.http.MediaType;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Service interface for importing products in bulk.
+ * Uploads are parsed and saved in batches as they are read, and the progress of every recent import can be
+ * looked up while it runs and after it has finished.
+ */
+public interface ProductImportService {
+
+    MediaType CSV = MediaType.parseMediaType("text/csv");
+    MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    /**
+     * Imports products into a category from a CSV (with a header row) or newline-delimited JSON upload.
+     * Each record has the fields of a product: productName, description, quantity, price and discount.
+     * Records that are invalid, or whose name already exists in the category, are reported and skipped;
+     * the others are saved.
+     *
+     * @param categoryId the unique identifier of the category the products are added to
+     * @param contentType {@link #CSV} or {@link #NDJSON}
+     * @param body the upload, read incrementally
+     * @return the final status of the import, including the rejected rows
+     */
+    ProductImportStatusDTO importProducts(Long categoryId, MediaType contentType, InputStream body);
+
+    /**
+     * Retrieves the recent imports, newest first, including ones that are still running.
+     *
+     * @return the status of each import
+     */
+    List<ProductImportStatusDTO> getImports();
+
+    /**
+     * Retrieves the status of one import.
+     * If no import with the specified ID is known, an exception is thrown.
+     *
+     * @param importId the identifier returned when the import was started
+     * @return the current status of the import
+     */
+    ProductImportStatusDTO getImport(String importId);
+}
@@ -0,0 +1,340 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.money.Money;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductImportErrorDTO;
+import com.ecommerce.project.payload.ProductImportStatusDTO;
+import com.ecommerce.project.repositories.CategoryRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+
+    // Rows per duplicate lookup, JDBC insert batch and transaction
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int RETAINED_IMPORTS = 50;
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ModelMapper modelMapper;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    // Most recent imports by id, oldest evicted first
+    private final Map<String, ProductImport> imports = Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ProductImport> eldest) {
+                    return size() > RETAINED_IMPORTS;
+                }
+            });
+
+    public ProductImportServiceImpl(CategoryRepository categoryRepository, ProductRepository productRepository,
+                                    EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                    Validator validator, ModelMapper modelMapper, ObjectMapper objectMapper) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.modelMapper = modelMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ProductImportStatusDTO importProducts(Long categoryId, MediaType contentType, InputStream body) {
+        if (!categoryRepository.existsById(categoryId))
+            throw new ResourceNotFoundException("Category", "categoryId", categoryId);
+
+        String format;
+        if (CSV.isCompatibleWith(contentType))
+            format = "csv";
+        else if (NDJSON.isCompatibleWith(contentType))
+            format = "ndjson";
+        else
+            throw new APIException("Products can only be imported from " + CSV + " or " + NDJSON);
+
+        ProductImport productImport = new ProductImport(UUID.randomUUID().toString(), categoryId, format);
+        imports.put(productImport.id, productImport);
+
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        try (RowSource rows = format.equals("csv") ? new CsvRowSource(reader) : new NdjsonRowSource(reader)) {
+            List<Row> batch = new ArrayList<>(BATCH_SIZE);
+            for (Row row = rows.next(); row != null; row = rows.next()) {
+                productImport.rowsRead.incrementAndGet();
+                String error = row.error() != null ? row.error() : validate(row.product());
+                if (error != null) {
+                    productImport.reject(row, error);
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == BATCH_SIZE) {
+                    saveBatch(categoryId, batch, productImport);
+                    batch.clear();
+                }
+            }
+            saveBatch(categoryId, batch, productImport);
+            productImport.finish("COMPLETED", null);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Product import {} failed after {} rows", productImport.id, productImport.rowsRead, e);
+            productImport.finish("FAILED", e.getMessage());
+        }
+        return productImport.toDTO();
+    }
+
+    @Override
+    public List<ProductImportStatusDTO> getImports() {
+        List<ProductImport> recent;
+        synchronized (imports) {
+            recent = new ArrayList<>(imports.values());
+        }
+        Collections.reverse(recent);
+        return recent.stream().map(ProductImport::toDTO).toList();
+    }
+
+    @Override
+    public ProductImportStatusDTO getImport(String importId) {
+        ProductImport productImport = imports.get(importId);
+        if (productImport == null)
+            throw new ResourceNotFoundException("Product import", "importId", importId);
+        return productImport.toDTO();
+    }
+
+    /**
+     * Saves one batch in its own transaction: a single indexed lookup finds names that already exist in the
+     * category, and the new products are flushed as JDBC batch inserts.
+     *
+     * The session may be the request's open-in-view session, so its batch size and cache mode are put back
+     * afterwards, and only the products saved here are detached from it.
+     */
+    private void saveBatch(Long categoryId, List<Row> batch, ProductImport productImport) {
+        if (batch.isEmpty())
+            return;
+
+        Set<String> names = batch.stream().map(row -> row.product().getProductName()).collect(Collectors.toSet());
+        List<Row> duplicates = new ArrayList<>();
+        int saved = transactionTemplate.execute(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            Integer jdbcBatchSize = session.getJdbcBatchSize();
+            CacheMode cacheMode = session.getCacheMode();
+            session.setJdbcBatchSize(BATCH_SIZE);
+            // Freshly imported products are not worth evicting hot ones from the second-level cache
+            session.setCacheMode(CacheMode.IGNORE);
+            try {
+                Set<String> taken = new HashSet<>(productRepository.findExistingProductNames(categoryId, names));
+                Category category = entityManager.getReference(Category.class, categoryId);
+                List<Product> products = new ArrayList<>(batch.size());
+                for (Row row : batch) {
+                    ProductDTO productDTO = row.product();
+                    if (!taken.add(productDTO.getProductName())) {
+                        duplicates.add(row);
+                        continue;
+                    }
+                    Product product = modelMapper.map(productDTO, Product.class);
+                    product.setProductId(null);
+                    product.setImage("default.png");
+                    product.setCategory(category);
+                    product.setSpecialPrice(Money.discounted(product.getPrice(), product.getDiscount()));
+                    entityManager.persist(product);
+                    products.add(product);
+                }
+                entityManager.flush();
+                products.forEach(entityManager::detach);
+                return products.size();
+            } finally {
+                session.setJdbcBatchSize(jdbcBatchSize);
+                session.setCacheMode(cacheMode);
+            }
+        });
+
+        productImport.imported.addAndGet(saved);
+        for (Row row : duplicates) {
+            productImport.duplicates.incrementAndGet();
+            productImport.reject(row, "Product with name: " + row.product().getProductName() + " already exists");
+        }
+    }
+
+    private String validate(ProductDTO productDTO) {
+        Set<ConstraintViolation<ProductDTO>> violations = validator.validate(productDTO);
+        if (violations.isEmpty())
+            return null;
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private record Row(long number, ProductDTO product, String error) {
+    }
+
+    private interface RowSource extends Closeable {
+
+        /**
+         * @return the next record, with either a product or the reason it could not be read; null at the end
+         */
+        Row next() throws IOException;
+    }
+
+    private class NdjsonRowSource implements RowSource {
+
+        private final BufferedReader reader;
+        private long number;
+
+        NdjsonRowSource(Reader reader) {
+            this.reader = new BufferedReader(reader);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null)
+                    return null;
+            } while (line.isBlank());
+
+            number++;
+            try {
+                return new Row(number, objectMapper.readValue(line, ProductDTO.class), null);
+            } catch (JsonProcessingException e) {
+                return new Row(number, null, e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private class CsvRowSource implements RowSource {
+
+        private final MappingIterator<ProductDTO> records;
+        private long number;
+
+        CsvRowSource(Reader reader) throws IOException {
+            this.records = csvMapper.readerFor(ProductDTO.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValues(reader);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            JsonLocation before = records.getCurrentLocation();
+            try {
+                if (!records.hasNextValue())
+                    return null;
+                number++;
+                return new Row(number, records.nextValue(), null);
+            } catch (JsonProcessingException e) {
+                // A bad value only spoils its own record, unless the parser cannot move past it
+                if (records.getCurrentLocation().getCharOffset() == before.getCharOffset())
+                    throw e;
+                return new Row(number, null, e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            records.close();
+        }
+    }
+
+    /**
+     * Progress of one import, updated by the request thread and read by status requests.
+     */
+    private static class ProductImport {
+
+        private final String id;
+        private final Long categoryId;
+        private final String format;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<ProductImportErrorDTO> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile String status = "RUNNING";
+        private volatile Instant finishedAt;
+        private volatile String failureMessage;
+
+        ProductImport(String id, Long categoryId, String format) {
+            this.id = id;
+            this.categoryId = categoryId;
+            this.format = format;
+        }
+
+        void reject(Row row, String message) {
+            rejected.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                String productName = row.product() == null ? null : row.product().getProductName();
+                errors.add(new ProductImportErrorDTO(row.number(), productName, message));
+            }
+        }
+
+        void finish(String status, String failureMessage) {
+            this.failureMessage = failureMessage;
+            this.finishedAt = Instant.now();
+            this.status = status;
+        }
+
+        ProductImportStatusDTO toDTO() {
+            List<ProductImportErrorDTO> reportedErrors;
+            synchronized (errors) {
+                reportedErrors = List.copyOf(errors);
+            }
+            return new ProductImportStatusDTO(id, categoryId, format, status, rowsRead.get(), imported.get(),
+                    duplicates.get(), rejected.get(), startedAt, finishedAt, failureMessage, reportedErrors,
+                    rejected.get() > reportedErrors.size());
+        }
+    }
+}
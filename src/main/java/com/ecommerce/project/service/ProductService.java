@@ -1,10 +1,12 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.payload.ProductChangesResponse;
 import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.payload.ProductResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * Service interface for managing products.
@@ -91,4 +93,25 @@ public interface ProductService {
      * @throws IOException if an error occurs during the image upload process
      */
     ProductDTO updateProductImage(Long productId, MultipartFile image) throws IOException;
+
+    /**
+     * Writes every product to the output stream as newline-delimited JSON, ordered by product ID.
+     * Products are read through a database cursor and written one at a time, so memory use does not
+     * depend on the size of the catalog. The stream is flushed but not closed.
+     *
+     * @param out the stream to write the products to
+     * @return the number of products written
+     * @throws IOException if writing to the stream fails
+     */
+    long exportProducts(OutputStream out) throws IOException;
+
+    /**
+     * Retrieves the products created, modified or deleted after a change version, oldest change first.
+     * Each product appears once, with its current state; deleted products are returned as tombstones.
+     *
+     * @param since the change version to start after, 0 for everything, or nextSince from the previous call
+     * @param limit the maximum number of changes to return
+     * @return a ProductChangesResponse with the changes and the version to continue from
+     */
+    ProductChangesResponse getProductChanges(Long since, Integer limit);
 }
@@ -1,28 +1,49 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.changes.ProductChangeVersions;
+import com.ecommerce.project.config.AppConstants;
 import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.exceptions.ConstraintViolations;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.images.ImageVariantPipeline;
 import com.ecommerce.project.model.Cart;
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
+import com.ecommerce.project.money.Money;
 import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.ProductChangeDTO;
+import com.ecommerce.project.payload.ProductChangesResponse;
 import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.payload.ProductResponse;
 import com.ecommerce.project.repositories.CartRepository;
 import com.ecommerce.project.repositories.CategoryRepository;
 import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.repositories.ProductTombstoneRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.beans.factory.annotation.Value;
 
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class ProductServiceImpl implements ProductService {
@@ -33,18 +54,28 @@ public class ProductServiceImpl implements ProductService {
     private final FileService fileService;
     private final CartRepository cartRepository;
     private final CartService cartService;
+    private final ObjectMapper objectMapper;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ProductChangeVersions productChangeVersions;
+    private final ImageVariantPipeline imageVariantPipeline;
 
     @Value("${project.image}")
     private String path;
 
     public ProductServiceImpl(ProductRepository productRepository, CategoryRepository categoryRepository,
-                              ModelMapper modelMapper, FileService fileService, CartRepository cartRepository, CartService cartService) {
+                              ModelMapper modelMapper, FileService fileService, CartRepository cartRepository, CartService cartService,
+                              ObjectMapper objectMapper, ProductTombstoneRepository productTombstoneRepository,
+                              ProductChangeVersions productChangeVersions, ImageVariantPipeline imageVariantPipeline) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.modelMapper = modelMapper;
         this.fileService = fileService;
         this.cartRepository = cartRepository;
         this.cartService = cartService;
+        this.objectMapper = objectMapper;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.productChangeVersions = productChangeVersions;
+        this.imageVariantPipeline = imageVariantPipeline;
     }
 
     @Override
@@ -55,31 +86,34 @@ public class ProductServiceImpl implements ProductService {
                         new ResourceNotFoundException("Category", "categoryId", categoryId));
 
         // Check if product is already present, if so, throw exception
-        boolean isProductPresent = false;
-        List<Product> products = category.getProducts();
-        for (Product product : products) {
-            if (product.getProductName().equals(productDTO.getProductName())) {
-                isProductPresent = true;
-                break;
-            }
-        }
-
-        if (isProductPresent)
-            throw new APIException("Product with name: " + productDTO.getProductName() + " already exists");
+        if (productRepository.existsByCategoryCategoryIdAndProductName(categoryId, productDTO.getProductName()))
+            throw duplicateProduct(productDTO.getProductName());
 
         Product product = modelMapper.map(productDTO, Product.class);
 
         product.setImage("default.png");
         product.setCategory(category);
-        double specialPrice = product.getPrice() - ((product.getDiscount() * 0.01) * product.getPrice());
-        product.setSpecialPrice(specialPrice);
-
-        Product savedProduct = productRepository.save(product);
+        product.setSpecialPrice(Money.discounted(product.getPrice(), product.getDiscount()));
+
+        // The unique constraint catches a concurrent insert of the same name that slipped past the check above
+        Product savedProduct;
+        try {
+            savedProduct = productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, Product.UNIQUE_NAME_PER_CATEGORY))
+                throw duplicateProduct(productDTO.getProductName());
+            throw e;
+        }
 
         return modelMapper.map(savedProduct, ProductDTO.class);
     }
 
+    private static APIException duplicateProduct(String productName) {
+        return new APIException("Product with name: " + productName + " already exists");
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
 
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
@@ -107,6 +141,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() ->
@@ -137,6 +172,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
 
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
@@ -179,14 +215,21 @@ public class ProductServiceImpl implements ProductService {
         productFromDb.setDiscount(product.getDiscount());
         productFromDb.setPrice(product.getPrice());
 
-        double specialPrice = product.getPrice() - ((product.getDiscount() * 0.01) * product.getPrice());
-        productFromDb.setSpecialPrice(specialPrice);
+        productFromDb.setSpecialPrice(Money.discounted(product.getPrice(), product.getDiscount()));
 
-        Product savedProduct = productRepository.save(productFromDb);
+        Product savedProduct;
+        try {
+            savedProduct = productRepository.saveAndFlush(productFromDb);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isViolationOf(e, Product.UNIQUE_NAME_PER_CATEGORY))
+                throw duplicateProduct(product.getProductName());
+            throw e;
+        }
 
         // Make sure updates are propagated to user carts
 
         // Find all carts currently making use of the product
+        cartService.flushAllCarts();
         List<Cart> carts = cartRepository.findCartsByProductId(productId);
 
         // Convert to DTOs, extract cart items to get products and assign to cartDTO
@@ -212,6 +255,7 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
+        cartService.flushAllCarts();
         List<Cart> carts = cartRepository.findCartsByProductId(productId);
         carts.forEach(cart -> cartService.deleteProductFromAllCarts(cart.getCartId(), productId));
 
@@ -232,12 +276,70 @@ public class ProductServiceImpl implements ProductService {
          */
         String fileName = fileService.uploadImage(path, image);
 
-        // Updating the product's image String to the new file name and save to DB
+        // Updating the product's image String to the new file name and save to DB; the old image's variants no
+        // longer apply, the new ones are recorded when they have been written
         productFromDb.setImage(fileName);
+        productFromDb.setImageVariantNames(null);
         Product updatedProduct = productRepository.save(productFromDb);
+        imageVariantPipeline.enqueue(productId, fileName);
 
         // Return DTO with updated product details
         return modelMapper.map(updatedProduct, ProductDTO.class);
     }
 
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportProducts(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ProductDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (Stream<ProductDTO> products = productRepository.streamAllForExport();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            Iterator<ProductDTO> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                count++;
+            }
+            if (count > 0)
+                generator.writeRaw('\n');
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Not read-only on purpose: a lagging replica could be missing changes below the stable version, and the
+     * reader would then skip them for good.
+     */
+    @Override
+    @Transactional
+    public ProductChangesResponse getProductChanges(Long since, Integer limit) {
+        if (since < 0)
+            throw new APIException("since must not be negative");
+        if (limit < 1 || limit > AppConstants.MAX_CHANGES_LIMIT)
+            throw new APIException("limit must be between 1 and " + AppConstants.MAX_CHANGES_LIMIT);
+
+        // Changes above this version may still be uncommitted and could later appear below a version we returned
+        long until = productChangeVersions.stableVersion();
+        if (until <= since)
+            return new ProductChangesResponse(List.of(), since, false);
+
+        // Fetch one more than asked for from each source to know whether anything is left
+        Limit fetch = Limit.of(limit + 1);
+        List<ProductChangeDTO> changes = new ArrayList<>(productRepository.findChanges(since, until, fetch));
+        productTombstoneRepository
+                .findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersion(since, until, fetch)
+                .forEach(tombstone -> changes.add(
+                        new ProductChangeDTO(tombstone.getChangeVersion(), tombstone.getProductId(), true, null)));
+        changes.sort(Comparator.comparingLong(ProductChangeDTO::getChangeVersion));
+
+        boolean hasMore = changes.size() > limit;
+        List<ProductChangeDTO> page = hasMore ? List.copyOf(changes.subList(0, limit)) : changes;
+        long nextSince = hasMore ? page.get(page.size() - 1).getChangeVersion() : until;
+        return new ProductChangesResponse(page, nextSince, hasMore);
+    }
 }
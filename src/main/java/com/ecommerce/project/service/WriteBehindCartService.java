@@ -0,0 +1,504 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.cart.CartJournal;
+import com.ecommerce.project.cart.CartSnapshot;
+import com.ecommerce.project.cart.CartSnapshotStore;
+import com.ecommerce.project.cart.CatalogPriceCache;
+import com.ecommerce.project.cart.WriteBehindCartProperties;
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperationDTO;
+import com.ecommerce.project.payload.CartQuoteDTO;
+import com.ecommerce.project.payload.CartResponse;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.security.service.AuthUtil;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cart store that keeps each active user's cart in memory, serves reads from there and writes changes to the
+ * database in the background, used when {@code project.cart.store=write-behind}.
+ *
+ * A change is applied to the in-memory cart and appended to the {@link CartJournal} before it returns; a
+ * scheduled flush then writes every cart changed since its last flush, in batches, however many changes it saw.
+ * Work that reads carts from the database calls {@link #flushCart} or {@link #flushAllCarts} first.
+ *
+ * Calls made inside a caller's transaction, such as checkout emptying the cart, and the admin operations on
+ * other users' carts are passed to the database store instead, so they commit or roll back with the caller; the
+ * user's in-memory cart is flushed and dropped around them and reloaded on next use.
+ */
+public class WriteBehindCartService implements CartService, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCartService.class);
+
+    private final CartService database;
+    private final CartSnapshotStore store;
+    private final CartJournal journal;
+    private final ProductRepository productRepository;
+    private final ModelMapper modelMapper;
+    private final AuthUtil authUtil;
+    private final TaskScheduler taskScheduler;
+    private final WriteBehindCartProperties properties;
+    private final CatalogPriceCache catalogPriceCache;
+
+    private final ConcurrentHashMap<String, CachedCart> carts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> usernamesByCartId = new ConcurrentHashMap<>();
+    // Serializes database writes, so an older snapshot of a cart can never overwrite a newer one
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean earlyFlushScheduled = new AtomicBoolean();
+
+    public WriteBehindCartService(CartService database, CartSnapshotStore store, CartJournal journal,
+                                  ProductRepository productRepository, ModelMapper modelMapper, AuthUtil authUtil,
+                                  TaskScheduler taskScheduler, WriteBehindCartProperties properties,
+                                  CatalogPriceCache catalogPriceCache) {
+        this.database = database;
+        this.store = store;
+        this.journal = journal;
+        this.productRepository = productRepository;
+        this.modelMapper = modelMapper;
+        this.authUtil = authUtil;
+        this.taskScheduler = taskScheduler;
+        this.properties = properties;
+        this.catalogPriceCache = catalogPriceCache;
+    }
+
+    @Override
+    public CartDTO addProductToCart(Long productId, Integer quantity) {
+        String username = authUtil.loggedInUsername();
+        if (inCallerTransaction())
+            return writeThrough(username, () -> database.addProductToCart(productId, quantity));
+
+        CartSnapshot cart = change(username, true, null, current -> {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "product_id", productId));
+
+            if (current.item(productId) != null)
+                throw new APIException("Product " + product.getProductName() + " already exits in the cart");
+
+            if (product.getQuantity() == 0)
+                throw new APIException("Product" + product.getProductName() + " is not available");
+
+            if (product.getQuantity() < quantity)
+                throw new APIException("Only " + product.getQuantity() + " of " + product.getProductName() + " available");
+
+            CartSnapshot.Item item = new CartSnapshot.Item(productId, quantity, product.getDiscount(),
+                    product.getSpecialPrice());
+            return current.withItem(item);
+        });
+        return toDTO(cart);
+    }
+
+    @Override
+    public CartResponse getAllCarts(Long after, Integer limit) {
+        flushAllCarts();
+        return database.getAllCarts(after, limit);
+    }
+
+    @Override
+    public long exportCarts(OutputStream out) throws IOException {
+        flushAllCarts();
+        return database.exportCarts(out);
+    }
+
+    @Override
+    public CartDTO getCartForLoggedInUser() {
+        CachedCart cart = cached(authUtil.loggedInUsername(), false);
+        if (cart == null)
+            throw new APIException("No cart found for logged in user");
+
+        cart.lastUsed = System.nanoTime();
+        return toDTO(cart.current.snapshot());
+    }
+
+    @Override
+    public CartQuoteDTO quoteCartForLoggedInUser() {
+        CachedCart cart = cached(authUtil.loggedInUsername(), false);
+        if (cart == null)
+            throw new APIException("No cart found for logged in user");
+
+        cart.lastUsed = System.nanoTime();
+        CartSnapshot snapshot = cart.current.snapshot();
+        List<CartOperations.Line> lines = snapshot.items().stream()
+                .map(item -> new CartOperations.Line(item.productId(), item.quantity(), item.discount(),
+                        item.productPrice()))
+                .toList();
+        return CartQuotes.quote(snapshot.cartId(), lines,
+                catalogPriceCache.getAll(lines.stream().map(CartOperations.Line::productId).toList()));
+    }
+
+    @Override
+    public CartDTO updateProductQuantityInCart(Long productId, int change) {
+        String username = authUtil.loggedInUsername();
+        if (inCallerTransaction())
+            return writeThrough(username, () -> database.updateProductQuantityInCart(productId, change));
+
+        CartSnapshot cart = change(username, false, "No cart exists for logged in user", current -> {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "product_id", productId));
+
+            if (product.getQuantity() == 0)
+                throw new APIException("Product" + product.getProductName() + " is not available");
+
+            CartSnapshot.Item item = current.item(productId);
+            if (item == null)
+                throw new APIException("Product" + product.getProductName() + " does not exist in the cart");
+            if (item.quantity() == 0 && change == -1)
+                throw new APIException("Quantity of product " + product.getProductName() + " already 0");
+
+            // Refresh the price in case it changed, like the database store
+            int quantity = item.quantity() + change;
+            if (quantity == 0)
+                return current.withoutItem(productId);
+            return current.withItem(new CartSnapshot.Item(productId, quantity, product.getDiscount() * quantity,
+                    product.getSpecialPrice()));
+        });
+        return toDTO(cart);
+    }
+
+    @Override
+    public String deleteProductFromCart(Long productId) {
+        String username = authUtil.loggedInUsername();
+        if (inCallerTransaction())
+            return writeThrough(username, () -> database.deleteProductFromCart(productId));
+
+        change(username, false, "No cart found for logged in user", current -> {
+            CartSnapshot.Item item = current.item(productId);
+            if (item == null)
+                throw new APIException("Product does not exists in cart");
+
+            return current.withoutItem(productId);
+        });
+        return "Product deleted from cart successfully";
+    }
+
+    @Override
+    public CartDTO updateCart(List<CartOperationDTO> operations) {
+        return updateCart(operations, false);
+    }
+
+    @Override
+    public CartDTO updateCartWherePossible(List<CartOperationDTO> operations) {
+        return updateCart(operations, true);
+    }
+
+    private CartDTO updateCart(List<CartOperationDTO> operations, boolean wherePossible) {
+        String username = authUtil.loggedInUsername();
+        if (inCallerTransaction())
+            return writeThrough(username, () -> wherePossible
+                    ? database.updateCartWherePossible(operations) : database.updateCart(operations));
+
+        Map<Long, Product> products = CartOperations.productsById(productRepository, operations);
+        CartSnapshot cart = change(username, true, null, current -> {
+            List<CartOperations.Line> items = current.items().stream()
+                    .map(item -> new CartOperations.Line(item.productId(), item.quantity(), item.discount(),
+                            item.productPrice()))
+                    .toList();
+            List<CartOperations.Line> lines = wherePossible
+                    ? CartOperations.applyPossible(items, products, operations, new ArrayList<>())
+                    : CartOperations.apply(items, products, operations);
+            return current.withItems(lines.stream()
+                    .map(line -> new CartSnapshot.Item(line.productId(), line.quantity(), line.discount(),
+                            line.productPrice()))
+                    .toList());
+        });
+        return toDTO(cart);
+    }
+
+    @Override
+    public void updateProductInCarts(Long cartId, Long productId) {
+        writeThrough(usernamesByCartId.get(cartId), () -> {
+            database.updateProductInCarts(cartId, productId);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteProductFromAllCarts(Long cartId, Long productId) {
+        writeThrough(usernamesByCartId.get(cartId), () -> {
+            database.deleteProductFromAllCarts(cartId, productId);
+            return null;
+        });
+    }
+
+    @Override
+    public void flushCart(String username) {
+        CachedCart cart = carts.get(username);
+        if (cart != null && cart.isDirty())
+            write(List.of(cart));
+    }
+
+    /**
+     * Writes every changed cart to the database, drops carts idle for longer than the idle timeout, and trims the
+     * journal. Runs on the flush interval.
+     */
+    @Override
+    public void flushAllCarts() {
+        flushLock.lock();
+        try {
+            List<Path> flushedSegments = journal.roll();
+            List<CachedCart> changed = carts.values().stream().filter(CachedCart::isDirty).toList();
+
+            boolean complete = true;
+            for (int from = 0; from < changed.size(); from += properties.getBatchSize()) {
+                List<CachedCart> batch = changed.subList(from, Math.min(changed.size(), from + properties.getBatchSize()));
+                try {
+                    write(batch);
+                } catch (RuntimeException e) {
+                    // Still in memory and in the journal; the next flush tries again
+                    complete = false;
+                    logger.error("Could not write {} carts to the database", batch.size(), e);
+                }
+            }
+            if (complete)
+                journal.delete(flushedSegments);
+
+            dropIdleCarts();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll the cart journal", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void evictCarts(Collection<Long> cartIds) {
+        for (Long cartId : cartIds) {
+            String username = usernamesByCartId.get(cartId);
+            if (username != null)
+                evict(username);
+        }
+    }
+
+    /**
+     * Writes all pending changes, for shutdown.
+     */
+    @Override
+    public void close() {
+        flushAllCarts();
+    }
+
+    private CartSnapshot change(String username, boolean create, String noCartMessage,
+                                UnaryOperator<CartSnapshot> change) {
+        try {
+            while (true) {
+                CachedCart cart = cached(username, create);
+                if (cart == null)
+                    throw new APIException(noCartMessage);
+
+                cart.lock.lock();
+                try {
+                    // Dropped from memory while we waited; start again from the database
+                    if (cart.evicted)
+                        continue;
+
+                    Version current = cart.current;
+                    CartSnapshot updated = change.apply(current.snapshot());
+                    cart.current = new Version(updated, current.number() + 1);
+                    try {
+                        journal.append(updated);
+                    } catch (UncheckedIOException e) {
+                        cart.current = current;
+                        throw e;
+                    }
+                    cart.lastUsed = System.nanoTime();
+                    return updated;
+                } finally {
+                    cart.lock.unlock();
+                }
+            }
+        } finally {
+            if (journal.size() > properties.getJournal().getMaxSize().toBytes())
+                flushSoon();
+        }
+    }
+
+    /**
+     * @return the user's cart, loaded from the database (and created there if {@code create}) on first use, or
+     * {@code null} if they have none
+     */
+    private CachedCart cached(String username, boolean create) {
+        // Loading inside computeIfAbsent keeps a concurrent eviction from slipping in between load and insert
+        return carts.computeIfAbsent(username, key -> {
+            CartSnapshot loaded = store.load(username);
+            if (loaded == null && create) {
+                try {
+                    loaded = store.create(username);
+                } catch (DuplicateKeyException e) {
+                    loaded = store.load(username);
+                }
+            }
+            if (loaded == null)
+                return null;
+            usernamesByCartId.put(loaded.cartId(), username);
+            return new CachedCart(username, loaded);
+        });
+    }
+
+    private <T> T writeThrough(String username, Supplier<T> work) {
+        if (username == null)
+            return work.get();
+
+        evict(username);
+        T result = work.get();
+        // Someone may have loaded the cart again before the caller's transaction commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(username);
+                }
+            });
+        }
+        return result;
+    }
+
+    private void evict(String username) {
+        CachedCart cart = carts.get(username);
+        if (cart == null)
+            return;
+
+        cart.lock.lock();
+        try {
+            if (cart.evicted)
+                return;
+            if (cart.isDirty())
+                write(List.of(cart));
+            // Already dropped by the write if the cart was deleted
+            if (!cart.evicted)
+                drop(cart);
+        } finally {
+            cart.lock.unlock();
+        }
+    }
+
+    private void dropIdleCarts() {
+        long idleSince = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        for (CachedCart cart : carts.values()) {
+            if (cart.lastUsed - idleSince > 0 || cart.isDirty() || !cart.lock.tryLock())
+                continue;
+            try {
+                if (!cart.evicted && !cart.isDirty())
+                    drop(cart);
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+    }
+
+    // Caller holds the cart's lock
+    private void drop(CachedCart cart) {
+        Long cartId = cart.current.snapshot().cartId();
+        cart.evicted = true;
+        carts.remove(cart.username, cart);
+        usernamesByCartId.remove(cartId, cart.username);
+        // From now on the database is ahead of anything journaled for this cart
+        journal.forget(cartId);
+    }
+
+    private void write(List<CachedCart> batch) {
+        List<CachedCart> deleted = new ArrayList<>();
+        writeLock.lock();
+        try {
+            List<Version> versions = batch.stream().map(cart -> cart.current).toList();
+            List<Long> missing = store.save(versions.stream().map(Version::snapshot).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).flushedVersion.accumulateAndGet(versions.get(i).number(), Math::max);
+                if (missing.contains(versions.get(i).snapshot().cartId()))
+                    deleted.add(batch.get(i));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        // Deleted from the database meanwhile; the owner starts over from the database on next use
+        for (CachedCart cart : deleted) {
+            logger.warn("Cart {} of {} no longer exists; its latest changes were not saved",
+                    cart.current.snapshot().cartId(), cart.username);
+            cart.lock.lock();
+            try {
+                if (!cart.evicted)
+                    drop(cart);
+            } finally {
+                cart.lock.unlock();
+            }
+        }
+    }
+
+    private void flushSoon() {
+        if (!earlyFlushScheduled.compareAndSet(false, true))
+            return;
+        taskScheduler.schedule(() -> {
+            try {
+                flushAllCarts();
+            } finally {
+                earlyFlushScheduled.set(false);
+            }
+        }, Instant.now());
+    }
+
+    private CartDTO toDTO(CartSnapshot cart) {
+        // Products come from the second-level cache; items of products deleted since are left out
+        List<ProductDTO> products = cart.items().stream()
+                .map(item -> productRepository.findById(item.productId()).map(product -> {
+                    ProductDTO productDTO = modelMapper.map(product, ProductDTO.class);
+                    productDTO.setQuantity(item.quantity());
+                    return productDTO;
+                }))
+                .flatMap(Optional::stream)
+                .toList();
+        return new CartDTO(cart.cartId(), cart.totalPrice(), products);
+    }
+
+    private static boolean inCallerTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    private record Version(CartSnapshot snapshot, long number) {
+    }
+
+    private static class CachedCart {
+        final String username;
+        final ReentrantLock lock = new ReentrantLock();
+        final AtomicLong flushedVersion = new AtomicLong();
+        volatile Version current;
+        volatile long lastUsed = System.nanoTime();
+        // Guarded by lock
+        boolean evicted;
+
+        CachedCart(String username, CartSnapshot loaded) {
+            this.username = username;
+            this.current = new Version(loaded, 0);
+        }
+
+        boolean isDirty() {
+            return current.number() > flushedVersion.get();
+        }
+    }
+}
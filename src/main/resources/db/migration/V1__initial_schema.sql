@@ -0,0 +1,157 @@
+-- Schema as Hibernate generated it from the entities before migrations were introduced, plus indexes for the
+-- repository queries. The indexes come before the foreign keys: H2 indexes every foreign key, reusing an index on
+-- exactly its columns if there is one. QueryPlanTests checks every query below is served by its index.
+
+create sequence products_seq start with 1 increment by 50;
+
+create table address (
+    address_id bigint generated by default as identity,
+    building_name varchar(255),
+    city varchar(255),
+    country varchar(255),
+    state varchar(255),
+    street varchar(255),
+    zip_code varchar(255),
+    primary key (address_id)
+);
+
+create table users (
+    user_id bigint generated by default as identity,
+    username varchar(20) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    primary key (user_id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
+
+create table roles (
+    role_id integer generated by default as identity,
+    role_name enum ('ROLE_ADMIN','ROLE_SELLER','ROLE_USER'),
+    primary key (role_id)
+);
+
+create table user_role (
+    role_id integer not null,
+    user_id bigint not null,
+    primary key (role_id, user_id)
+);
+
+create table user_address (
+    address_id bigint not null,
+    user_id bigint not null
+);
+
+create table categories (
+    category_id bigint generated by default as identity,
+    category_name varchar(255),
+    primary key (category_id),
+    constraint uk_categories_name unique (category_name)
+);
+
+create table products (
+    product_id bigint not null,
+    product_name varchar(255),
+    image varchar(255),
+    description varchar(255),
+    quantity integer,
+    price float(53) not null,
+    discount float(53) not null,
+    special_price float(53) not null,
+    change_version bigint,
+    category_id bigint,
+    seller_id bigint,
+    primary key (product_id),
+    constraint uk_products_name_category unique (product_name, category_id)
+);
+
+create index ix_products_change_version on products (change_version);
+
+create table product_tombstones (
+    product_id bigint not null,
+    change_version bigint not null,
+    deleted_at timestamp(6) with time zone,
+    primary key (product_id)
+);
+
+create index ix_product_tombstones_change_version on product_tombstones (change_version);
+
+create table carts (
+    cart_id bigint generated by default as identity,
+    total_price float(53),
+    user_id bigint,
+    primary key (cart_id),
+    constraint uk_carts_user unique (user_id)
+);
+
+create table cart_items (
+    cart_item_id bigint generated by default as identity,
+    discount float(53),
+    product_price float(53),
+    quantity integer,
+    cart_id bigint,
+    product_id bigint,
+    primary key (cart_item_id)
+);
+
+create table payments (
+    payment_id bigint generated by default as identity,
+    payment_method varchar(255),
+    pg_name varchar(255),
+    pg_payment_id varchar(255),
+    pg_response_message varchar(255),
+    pg_status varchar(255),
+    primary key (payment_id)
+);
+
+create table orders (
+    order_id bigint generated by default as identity,
+    total_amount float(53),
+    order_date_time timestamp(6),
+    order_status varchar(255),
+    address_id bigint,
+    payment_id bigint,
+    user_id bigint,
+    primary key (order_id),
+    constraint uk_orders_payment unique (payment_id)
+);
+
+create table order_items (
+    order_item_id bigint generated by default as identity,
+    discount float(53) not null,
+    ordered_product_price float(53) not null,
+    quantity integer,
+    order_id bigint,
+    product_id bigint,
+    primary key (order_item_id)
+);
+
+-- ProductRepository.findByCategoryOrderByPriceAsc: the category's products. H2 sorts them either way, so this
+-- is not (category_id, price), which would sit next to the index H2 adds for the foreign key
+create index ix_products_category on products (category_id);
+
+-- CartItemRepository.findCartItemByProductIdAndCartId, and loading a cart's items
+create index ix_cart_items_cart_product on cart_items (cart_id, product_id);
+
+-- CartRepository.findCartsByProductId: carts holding a product
+create index ix_cart_items_product on cart_items (product_id);
+
+-- AddressRepository.findAllByUserId: a user's addresses
+create index ix_user_address_user_address on user_address (user_id, address_id);
+
+-- CartRepository.findCartByEmail is served by uk_users_email and uk_carts_user
+
+alter table user_role add constraint fk_user_role_role foreign key (role_id) references roles;
+alter table user_role add constraint fk_user_role_user foreign key (user_id) references users;
+alter table user_address add constraint fk_user_address_address foreign key (address_id) references address;
+alter table user_address add constraint fk_user_address_user foreign key (user_id) references users;
+alter table products add constraint fk_products_category foreign key (category_id) references categories;
+alter table products add constraint fk_products_seller foreign key (seller_id) references users;
+alter table carts add constraint fk_carts_user foreign key (user_id) references users;
+alter table cart_items add constraint fk_cart_items_cart foreign key (cart_id) references carts;
+alter table cart_items add constraint fk_cart_items_product foreign key (product_id) references products;
+alter table orders add constraint fk_orders_address foreign key (address_id) references address;
+alter table orders add constraint fk_orders_payment foreign key (payment_id) references payments;
+alter table orders add constraint fk_orders_user foreign key (user_id) references users;
+alter table order_items add constraint fk_order_items_order foreign key (order_id) references orders;
+alter table order_items add constraint fk_order_items_product foreign key (product_id) references products;
@@ -0,0 +1,21 @@
+-- Amounts of money become whole minor units (cents) in bigint columns, see Money. The old values are rounded to
+-- the nearest cent first, so a total that had drifted by a fraction of a cent lands on the cent.
+
+update products set price = round(price * 100), special_price = round(special_price * 100);
+alter table products alter column price set data type bigint;
+alter table products alter column special_price set data type bigint;
+
+update carts set total_price = coalesce(round(total_price * 100), 0);
+alter table carts alter column total_price set data type bigint;
+alter table carts alter column total_price set not null;
+
+update cart_items set product_price = coalesce(round(product_price * 100), 0);
+alter table cart_items alter column product_price set data type bigint;
+alter table cart_items alter column product_price set not null;
+
+update orders set total_amount = coalesce(round(total_amount * 100), 0);
+alter table orders alter column total_amount set data type bigint;
+alter table orders alter column total_amount set not null;
+
+update order_items set ordered_product_price = round(ordered_product_price * 100);
+alter table order_items alter column ordered_product_price set data type bigint;
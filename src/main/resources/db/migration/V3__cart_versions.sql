@@ -0,0 +1,3 @@
+-- Version columns for optimistic locking of carts and their items; writes that bypass JPA increment them too
+alter table carts add column version bigint default 0 not null;
+alter table cart_items add column version bigint default 0 not null;
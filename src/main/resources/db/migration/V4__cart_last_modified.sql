@@ -0,0 +1,2 @@
+-- When each cart last changed, so carts abandoned for long can be swept; existing carts count as changed now
+alter table carts add column last_modified timestamp(6) default current_timestamp not null;
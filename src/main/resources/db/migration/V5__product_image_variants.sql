@@ -0,0 +1,2 @@
+-- Names of the resized copies of the product image that are ready, comma separated, e.g. thumbnail,list,detail
+alter table products add column image_variants varchar(255);
@@ -0,0 +1,6 @@
+-- Product change versions, see ProductChangeVersions; continues after the versions already stamped
+create sequence product_change_versions;
+
+alter sequence product_change_versions restart with (select 1 + greatest(
+        (select coalesce(max(change_version), 0) from products),
+        (select coalesce(max(change_version), 0) from product_tombstones)));
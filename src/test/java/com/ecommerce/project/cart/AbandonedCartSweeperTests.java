@@ -0,0 +1,84 @@
+package com.ecommerce.project.cart;
+
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.service.CategoryService;
+import com.ecommerce.project.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "project.cart.sweep.max-idle=1d",
+        // Small chunks, so the carts below span several of them
+        "project.cart.sweep.chunk-size=2",
+        "project.cart.sweep.pause=0ms"
+})
+class AbandonedCartSweeperTests {
+
+    @Autowired
+    private AbandonedCartSweeper sweeper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void deletesOnlyCartsIdleForLongInChunks() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Swept")).getCategoryId();
+        Long lamp = productService.addProduct(categoryId,
+                new ProductDTO(null, "Lamp", "Swept", null, 10, 1_999, 0.0, 0)).getProductId();
+
+        // Every other cart was last changed two days ago
+        List<Long> abandoned = new ArrayList<>();
+        List<Long> active = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            User user = userRepository.save(new User("sweep-" + i, "sweep-" + i + "@example.com", "password"));
+            Instant lastModified = i % 2 == 0 ? Instant.now().minus(Duration.ofDays(2)) : Instant.now();
+            jdbcTemplate.update("INSERT INTO carts (total_price, user_id, last_modified) VALUES (1999, ?, ?)",
+                    user.getUserId(), Timestamp.from(lastModified));
+            Long cartId = jdbcTemplate.queryForObject("SELECT cart_id FROM carts WHERE user_id = ?", Long.class,
+                    user.getUserId());
+            jdbcTemplate.update("INSERT INTO cart_items (quantity, discount, product_price, cart_id, product_id) "
+                    + "VALUES (1, 0, 1999, ?, ?)", cartId, lamp);
+            (i % 2 == 0 ? abandoned : active).add(cartId);
+        }
+
+        sweeper.setPaused(true);
+        assertThat(sweeper.sweep()).isZero();
+        sweeper.setPaused(false);
+
+        assertThat(sweeper.sweep()).isEqualTo(abandoned.size());
+        // Carts other tests left behind were changed just now, so only these are old enough to be swept
+        assertThat(jdbcTemplate.queryForList("SELECT cart_id FROM carts", Long.class))
+                .containsAll(active).doesNotContainAnyElementsOf(abandoned);
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT cart_id FROM cart_items", Long.class))
+                .containsAll(active).doesNotContainAnyElementsOf(abandoned);
+        assertThat(meterRegistry.get("cart.sweeper.deleted").counter().count()).isEqualTo(abandoned.size());
+        assertThat(meterRegistry.get("cart.sweeper.chunks").counter().count()).isEqualTo(2);
+        assertThat(sweeper.sweep()).isZero();
+    }
+}
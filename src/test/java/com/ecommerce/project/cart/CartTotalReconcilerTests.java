@@ -0,0 +1,67 @@
+package com.ecommerce.project.cart;
+
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.service.CategoryService;
+import com.ecommerce.project.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        // Small chunks, so the carts below span several of them
+        "project.cart.reconcile.chunk-size=2",
+        "project.cart.reconcile.parallelism=3"
+})
+class CartTotalReconcilerTests {
+
+    @Autowired
+    private CartTotalReconciler reconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void repairsOnlyTotalsThatDoNotMatchTheirItems() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Reconciled")).getCategoryId();
+        Long lamp = productService.addProduct(categoryId,
+                new ProductDTO(null, "Lamp", "Reconciled", null, 10, 1_999, 0.0, 0)).getProductId();
+
+        List<Long> cartIds = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            User user = userRepository.save(new User("reconcile-" + i, "reconcile-" + i + "@example.com", "password"));
+            // Every other cart is off by a cent
+            long total = 1_999L * (i + 1) + (i % 2);
+            jdbcTemplate.update("INSERT INTO carts (total_price, user_id) VALUES (?, ?)", total, user.getUserId());
+            Long cartId = jdbcTemplate.queryForObject("SELECT cart_id FROM carts WHERE user_id = ?", Long.class,
+                    user.getUserId());
+            jdbcTemplate.update("INSERT INTO cart_items (quantity, discount, product_price, cart_id, product_id) "
+                    + "VALUES (?, 0, 1999, ?, ?)", i + 1, cartId, lamp);
+            cartIds.add(cartId);
+        }
+
+        assertThat(reconciler.reconcile()).isEqualTo(3);
+
+        for (int i = 0; i < cartIds.size(); i++)
+            assertThat(jdbcTemplate.queryForObject("SELECT total_price FROM carts WHERE cart_id = ?", Long.class,
+                    cartIds.get(i))).isEqualTo(1_999L * (i + 1));
+        assertThat(reconciler.reconcile()).isZero();
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.project.cart;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GuestCartCodecTests {
+
+    private final GuestCartCodec codec = codec("a key for the tests");
+
+    @Test
+    void readsBackWhatItWrote() {
+        GuestCart cart = new GuestCart(List.of(new GuestCart.Line(12L, 2), new GuestCart.Line(40L, 1)));
+
+        String value = codec.encode(cart);
+
+        assertThat(value).startsWith("1~12:2.40:1~");
+        assertThat(codec.decode(value)).isEqualTo(cart);
+        assertThat(codec.cookie(cart).toString()).contains("HttpOnly", "SameSite=Lax", "Path=/api");
+    }
+
+    @Test
+    void ignoresCookiesItDidNotSign() {
+        String value = codec.encode(new GuestCart(List.of(new GuestCart.Line(12L, 2))));
+
+        assertThat(codec.decode(value.replace("12:2", "12:9"))).isEqualTo(GuestCart.EMPTY);
+        assertThat(codec.decode(value.substring(0, value.length() - 2))).isEqualTo(GuestCart.EMPTY);
+        assertThat(codec("another key").decode(value)).isEqualTo(GuestCart.EMPTY);
+        assertThat(codec.decode("12:2")).isEqualTo(GuestCart.EMPTY);
+        assertThat(codec.decode("")).isEqualTo(GuestCart.EMPTY);
+    }
+
+    private static GuestCartCodec codec(String key) {
+        return new GuestCartCodec(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256"),
+                new GuestCartProperties());
+    }
+}
@@ -0,0 +1,102 @@
+package com.ecommerce.project.changes;
+
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductChangeDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.service.CategoryService;
+import com.ecommerce.project.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ProductEventHubTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductEventHub productEventHub;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void pushesCommittedChangesToSubscribersOfTheProduct() throws Exception {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Pushed")).getCategoryId();
+        Long lamp = productService.addProduct(categoryId,
+                new ProductDTO(null, "Pushed lamp", "Pushed", null, 10, 2_000, 0.0, 0)).getProductId();
+        Long chair = productService.addProduct(categoryId,
+                new ProductDTO(null, "Pushed chair", "Pushed", null, 10, 5_000, 0.0, 0)).getProductId();
+
+        HttpResponse<Stream<String>> response = httpClient.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/public/products/events?productIds=" + lamp))
+                .timeout(Duration.ofSeconds(10))
+                .build(), HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                type -> assertThat(type).startsWith("text/event-stream"));
+        // Subscribed before the response started
+        assertThat(productEventHub.getSubscriberCount()).isEqualTo(1);
+
+        // Not subscribed to, so not sent
+        productService.updateProduct(chair, new ProductDTO(null, "Pushed chair", "Pushed", null, 9, 5_000, 0.0, 0));
+        productService.updateProduct(lamp, new ProductDTO(null, "Pushed lamp", "Pushed", null, 7, 2_500, 0.0, 0));
+        productService.deleteProduct(lamp);
+
+        Iterator<String> lines = response.body().iterator();
+        List<ProductChangeDTO> changes = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        while (changes.size() < 2) {
+            String line = lines.next();
+            if (line.startsWith("id:"))
+                ids.add(line.substring(3));
+            else if (line.startsWith("data:"))
+                changes.add(objectMapper.readValue(line.substring(5), ProductChangeDTO.class));
+        }
+        response.body().close();
+
+        assertThat(changes).extracting(ProductChangeDTO::getProductId).containsOnly(lamp);
+        assertThat(changes.get(0).getProduct().getQuantity()).isEqualTo(7);
+        assertThat(changes.get(0).getProduct().getPrice()).isEqualTo(2_500);
+        assertThat(changes.get(1).isDeleted()).isTrue();
+        assertThat(ids).containsExactly(Long.toString(changes.get(0).getChangeVersion()),
+                Long.toString(changes.get(1).getChangeVersion()));
+        assertThat(changes.get(1).getChangeVersion()).isGreaterThan(changes.get(0).getChangeVersion());
+    }
+
+    @Test
+    void rejectsSubscriptionsToTooManyProducts() throws Exception {
+        StringBuilder productIds = new StringBuilder("1");
+        for (long id = 2; id <= 101; id++)
+            productIds.append(',').append(id);
+
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/public/products/events?productIds=" + productIds))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(400);
+    }
+}
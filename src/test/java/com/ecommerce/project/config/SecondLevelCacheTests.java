@@ -0,0 +1,85 @@
+package com.ecommerce.project.config;
+
+import com.ecommerce.project.monitoring.SqlStatistics;
+import com.ecommerce.project.monitoring.StatementBudget;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.service.CartService;
+import com.ecommerce.project.service.CategoryService;
+import com.ecommerce.project.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SecondLevelCacheTests {
+
+    // The products table anywhere in a query, including joins
+    private static final Pattern PRODUCT_READ = Pattern.compile("(?is)\\s*select\\b.*\\bproducts\\b.*");
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void logout() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void cartOperationsReadProductsFromWarmCache() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Cached category")).getCategoryId();
+        ProductDTO product = new ProductDTO(null, "Cached product", "Served from the cache", null, 10, 10_000, 10.0, 0);
+        Long productId = inRequest(() -> productService.addProduct(categoryId, product)).getProductId();
+
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken("user1", null, List.of()));
+        inRequest(() -> cartService.addProductToCart(productId, 1));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        SqlStatistics sql = StatementBudget.measure(() -> {
+            inRequest(() -> cartService.updateProductQuantityInCart(productId, 1));
+            inRequest(() -> cartService.deleteProductFromCart(productId));
+            return inRequest(() -> cartService.addProductToCart(productId, 2));
+        });
+
+        assertThat(sql.getStatements()).isPositive();
+        assertThat(sql.getRepeatedStatements(1).keySet()).as("SQL statements executed:%n%s", sql.describe())
+                .noneMatch(statement -> PRODUCT_READ.matcher(statement).matches());
+        assertThat(statistics.getDomainDataRegionStatistics(CacheRegions.PRODUCTS).getHitCount()).isPositive();
+    }
+
+    /**
+     * Runs the work in one session, like open-in-view does for a web request.
+     */
+    private <T> T inRequest(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}
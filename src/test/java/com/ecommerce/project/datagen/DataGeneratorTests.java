@@ -0,0 +1,91 @@
+package com.ecommerce.project.datagen;
+
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.service.CategoryService;
+import com.ecommerce.project.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class DataGeneratorTests {
+
+    @Autowired
+    private DataGenerator dataGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void generatesRequestedRowsThatTheApplicationCanKeepWritingAfter() {
+        DataGeneratorProperties properties = new DataGeneratorProperties();
+        properties.setCategories(5);
+        properties.setProducts(500);
+        properties.setUsers(100);
+        properties.setOrders(1_000);
+        properties.setBatchSize(64);
+
+        long productsBefore = count("products");
+        long orderItemsBefore = count("order_items");
+        DataGenerator.Result result = dataGenerator.generate(properties);
+
+        assertThat(count("products") - productsBefore).isEqualTo(500);
+        assertThat(count("order_items") - orderItemsBefore).isEqualTo(result.orderItems()).isGreaterThan(1_000);
+        assertThat(result.addresses()).isEqualTo(200);
+        assertThat(result.carts()).isPositive();
+
+        // Ids handed out by JPA afterwards, including from fresh sequence blocks, must not collide with generated
+        // rows. They need not be above them: Hibernate may still hold a pooled block it fetched before generation.
+        List<Long> generatedIds = jdbcTemplate.queryForList(
+                "SELECT product_id FROM products WHERE description LIKE 'Generated product %'", Long.class);
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "After generation")).getCategoryId();
+        List<Long> savedIds = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            ProductDTO product = new ProductDTO(null, "After generation " + i, "Saved through JPA", null, 1, 1_000, 0.0, 0);
+            savedIds.add(new TransactionTemplate(transactionManager)
+                    .execute(status -> productService.addProduct(categoryId, product)).getProductId());
+        }
+        assertThat(savedIds).doesNotHaveDuplicates().doesNotContainAnyElementsOf(generatedIds);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE category_id = ?", Long.class,
+                categoryId)).isEqualTo(120);
+    }
+
+    @Test
+    void zipfSamplerFavoursLowRanks() {
+        ZipfSampler sampler = new ZipfSampler(1_000_000, 1.0);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] hits = new int[11];
+        for (int i = 0; i < 100_000; i++) {
+            int rank = sampler.sample(random);
+            assertThat(rank).isBetween(1, 1_000_000);
+            if (rank <= 10)
+                hits[rank]++;
+        }
+        // P(k) is proportional to 1/k: rank 1 is drawn about ten times as often as rank 10
+        assertThat((double) hits[1] / hits[10]).isBetween(7.0, 13.0);
+        assertThat(List.of(hits[1], hits[2], hits[5])).isSortedAccordingTo((a, b) -> b - a);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,127 @@
+package com.ecommerce.project.datasource;
+
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.service.CategoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "project.datasource.replica.enabled=true",
+        "project.datasource.replica.max-lag=5s",
+        // Replicate only when a test asks for it
+        "project.datasource.replica.stand-in.interval=1h"
+})
+class ReadWriteRoutingTests {
+
+    @Autowired
+    private H2SnapshotReplicator replicator;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CurrentDatabase currentDatabase;
+
+    @BeforeEach
+    void catchUp() {
+        replicator.replicate();
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() {
+        assertThat(databaseName(true)).startsWith("REPLICA_");
+    }
+
+    @Test
+    void readWriteTransactionsUsePrimary() {
+        assertThat(databaseName(false)).isEqualTo("TEST");
+    }
+
+    @Test
+    void repositoryReadsOutsideServiceTransactionsUsePrimary() {
+        assertThat(currentDatabase.inRepositoryStyleTransaction()).isEqualTo("TEST");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        lagMonitor.caughtUpTo(Instant.now().minus(Duration.ofMinutes(1)));
+
+        assertThat(databaseName(true)).isEqualTo("TEST");
+    }
+
+    @Test
+    void readOnlyServiceMethodsSeeReplicatedData() {
+        categoryService.createCategory(new CategoryDTO(null, "Replicated category"));
+        replicator.replicate();
+        categoryService.createCategory(new CategoryDTO(null, "Not yet replicated"));
+
+        List<String> names = categoryService.getAllCategories(0, 50, "categoryId", "asc")
+                .getContent().stream()
+                .map(CategoryDTO::getCategoryName)
+                .toList();
+
+        assertThat(names).contains("Replicated category").doesNotContain("Not yet replicated");
+    }
+
+    private String databaseName(boolean readOnly) {
+        return readOnly ? currentDatabase.inReadOnlyTransaction() : currentDatabase.inReadWriteTransaction();
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        CurrentDatabase currentDatabase(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+            return new CurrentDatabase(jdbcTemplate, transactionManager);
+        }
+    }
+
+    static class CurrentDatabase {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final PlatformTransactionManager transactionManager;
+
+        CurrentDatabase(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+            this.jdbcTemplate = jdbcTemplate;
+            this.transactionManager = transactionManager;
+        }
+
+        @Transactional(readOnly = true)
+        public String inReadOnlyTransaction() {
+            return query();
+        }
+
+        @Transactional
+        public String inReadWriteTransaction() {
+            return query();
+        }
+
+        // Like a Spring Data finder: read-only, but not declared by one of our methods
+        public String inRepositoryStyleTransaction() {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            return transaction.execute(status -> query());
+        }
+
+        private String query() {
+            return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+        }
+    }
+}
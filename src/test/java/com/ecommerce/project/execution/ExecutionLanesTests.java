@@ -0,0 +1,24 @@
+package com.ecommerce.project.execution;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExecutionLanesTests {
+
+    @Test
+    void refusesLanesThatMayHoldMoreConnectionsThanThePoolHas() {
+        ExecutionLaneProperties properties = new ExecutionLaneProperties();
+        properties.setBrowse(new ExecutionLaneProperties.Lane(12, 10));
+
+        // 12 + 6 + 4 threads against 20 connections
+        assertThatThrownBy(() -> new ExecutionLanes(properties, Mockito.mock(EntityManagerFactory.class),
+                new SimpleMeterRegistry(), new MockEnvironment(), 20))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("may hold 22 DB connections but the pool only has 20");
+    }
+}
@@ -0,0 +1,92 @@
+package com.ecommerce.project.execution;
+
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.service.CategoryService;
+import com.ecommerce.project.service.ProductService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The pinning audit for virtual thread mode: drives sign-in, the catalog and the cart over HTTP with request
+ * handling and the execution lanes on virtual threads, and fails if JFR records a virtual thread blocking while
+ * pinned to its carrier, which a monitor held across JDBC or other blocking I/O would cause. The stack traces of
+ * any such events are in the failure message, as {@code -Djdk.tracePinnedThreads=full} would print them.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true"
+})
+class VirtualThreadPinningTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    private final HttpClient client = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+
+    @Test
+    void requestPathDoesNotPinVirtualThreads() throws Exception {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Unpinned")).getCategoryId();
+        Long productId = productService.addProduct(categoryId,
+                new ProductDTO(null, "Unpinned lamp", "Unpinned", null, 100, 1_999, 0.0, 0)).getProductId();
+
+        Path dump = Files.createTempFile("pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            assertThat(send("POST", "/api/auth/signin", "{\"username\":\"user1\",\"password\":\"password1\"}"))
+                    .isEqualTo(200);
+            for (int i = 0; i < 20; i++) {
+                assertThat(send("GET", "/api/public/categories", null)).isEqualTo(200);
+                assertThat(send("GET", "/api/public/products/keyword/unpinned", null)).isEqualTo(200);
+                assertThat(send("GET", "/api/carts/users/cart", null)).isIn(200, 400);
+            }
+            assertThat(send("POST", "/api/carts/products/" + productId + "/quantity/1", null)).isEqualTo(201);
+            assertThat(send("GET", "/api/carts/users/cart", null)).isEqualTo(200);
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> pinned = RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().equals("jdk.VirtualThreadPinned"))
+                .toList();
+        Files.delete(dump);
+        assertThat(pinned).as("virtual threads pinned while blocking").isEmpty();
+    }
+
+    private int send(String method, String path, String json) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (json != null)
+            request.header("Content-Type", "application/json");
+        request.method(method, json != null
+                ? HttpRequest.BodyPublishers.ofString(json) : HttpRequest.BodyPublishers.noBody());
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.project.images;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageFileCacheTests {
+
+    @TempDir
+    private Path root;
+
+    private Path directory;
+    private ImageFileCache cache;
+
+    @BeforeEach
+    void writeFiles() throws IOException {
+        directory = Files.createDirectory(root.resolve("images"));
+        Files.writeString(directory.resolve("poster.png"), "poster");
+        Files.writeString(root.resolve("secret.txt"), "secret");
+        Files.createSymbolicLink(directory.resolve("link.png"), root.resolve("secret.txt"));
+        cache = new ImageFileCache(directory, new ImageServingProperties(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void closeCache() {
+        cache.close();
+    }
+
+    @Test
+    void opensFilesInTheDirectory() throws IOException {
+        ImageFile file = cache.open("poster.png");
+
+        assertThat(file).isNotNull();
+        assertThat(file.getSize()).isEqualTo(6);
+        file.release();
+    }
+
+    @Test
+    void tellsWhenTheNameNoLongerLeadsToTheOpenFile() throws IOException {
+        ImageFile file = cache.open("poster.png");
+        assertThat(file.isStillAtPath()).isTrue();
+
+        Files.delete(directory.resolve("poster.png"));
+        Files.createSymbolicLink(directory.resolve("poster.png"), root.resolve("secret.txt"));
+
+        assertThat(file.isStillAtPath()).isFalse();
+        file.release();
+    }
+
+    @Test
+    void opensNothingOutsideTheDirectory() throws IOException {
+        assertThat(cache.open("..")).isNull();
+        assertThat(cache.open("a/../../secret.txt")).isNull();
+        assertThat(cache.open("..\\secret.txt")).isNull();
+        assertThat(cache.open(root.resolve("secret.txt").toString())).isNull();
+        assertThat(cache.open("link.png")).isNull();
+        assertThat(cache.open("")).isNull();
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.project.images;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties =
+        "project.image=target/test-served-images")
+class ImageServerTests {
+
+    private static final Path DIRECTORY = Path.of("target/test-served-images");
+
+    // Below and above the sendfile threshold, so both ways of sending are covered
+    private static final byte[] SMALL = randomBytes(1_000);
+    private static final byte[] LARGE = randomBytes(300_000);
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void writeImages() throws IOException {
+        Files.createDirectories(DIRECTORY);
+        Files.write(DIRECTORY.resolve("small.png"), SMALL);
+        Files.write(DIRECTORY.resolve("large.jpg"), LARGE);
+        Files.write(DIRECTORY.resolve(".variant-1.tmp"), SMALL);
+    }
+
+    @Test
+    void servesWholeImagesWithCachingHeaders() throws Exception {
+        for (String fileName : new String[]{"small.png", "large.jpg"}) {
+            HttpResponse<byte[]> response = get(fileName, null, null);
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.body()).isEqualTo(fileName.equals("small.png") ? SMALL : LARGE);
+            assertThat(response.headers().firstValue("Content-Type"))
+                    .hasValue(fileName.equals("small.png") ? "image/png" : "image/jpeg");
+            assertThat(response.headers().firstValue("Cache-Control")).hasValue("max-age=31536000, public, immutable");
+            assertThat(response.headers().firstValue("ETag")).hasValueSatisfying(etag ->
+                    assertThat(etag).matches("\"[A-Za-z0-9_-]{22}\""));
+        }
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWithNotModified() throws Exception {
+        String etag = get("large.jpg", null, null).headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<byte[]> response = get("large.jpg", "If-None-Match", "\"other\", " + etag);
+
+        assertThat(response.statusCode()).isEqualTo(304);
+        assertThat(response.body()).isEmpty();
+        assertThat(response.headers().firstValue("ETag")).hasValue(etag);
+        assertThat(get("small.png", "If-None-Match", etag).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void servesSingleByteRanges() throws Exception {
+        HttpResponse<byte[]> large = get("large.jpg", "Range", "bytes=100000-");
+        assertThat(large.statusCode()).isEqualTo(206);
+        assertThat(large.headers().firstValue("Content-Range")).hasValue("bytes 100000-299999/300000");
+        assertThat(large.body()).isEqualTo(Arrays.copyOfRange(LARGE, 100_000, 300_000));
+
+        HttpResponse<byte[]> small = get("small.png", "Range", "bytes=-10");
+        assertThat(small.statusCode()).isEqualTo(206);
+        assertThat(small.headers().firstValue("Content-Range")).hasValue("bytes 990-999/1000");
+        assertThat(small.body()).isEqualTo(Arrays.copyOfRange(SMALL, 990, 1_000));
+
+        HttpResponse<byte[]> outside = get("small.png", "Range", "bytes=1000-1100");
+        assertThat(outside.statusCode()).isEqualTo(416);
+        assertThat(outside.headers().firstValue("Content-Range")).hasValue("bytes */1000");
+
+        assertThat(get("small.png", "Range", "bytes=0-1,5-6").statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void parsesRanges() {
+        assertThat(ImageServer.range("bytes=0-0", 10)).isEqualTo(new ImageServer.Range(0, 1));
+        assertThat(ImageServer.range("bytes=5-100", 10)).isEqualTo(new ImageServer.Range(5, 10));
+        assertThat(ImageServer.range("bytes=-100", 10)).isEqualTo(new ImageServer.Range(0, 10));
+        assertThat(ImageServer.range("bytes=-0", 10)).isSameAs(ImageServer.Range.UNSATISFIABLE);
+        assertThat(ImageServer.range("bytes=5-4", 10)).isNull();
+        assertThat(ImageServer.range("items=0-1", 10)).isNull();
+        assertThat(ImageServer.range("bytes=a-", 10)).isNull();
+    }
+
+    @Test
+    void hidesMissingAndPartlyWrittenFiles() throws Exception {
+        assertThat(get("missing.png", null, null).statusCode()).isEqualTo(404);
+        assertThat(get(".variant-1.tmp", null, null).statusCode()).isEqualTo(404);
+        assertThat(get("..%2Fapplication.properties", null, null).statusCode()).isIn(400, 404);
+    }
+
+    private HttpResponse<byte[]> get(String fileName, String header, String value) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/images/" + fileName));
+        if (header != null)
+            request.header(header, value);
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.project.images;
+
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.service.CategoryService;
+import com.ecommerce.project.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "project.image=target/test-images")
+class ImageVariantPipelineTests {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void uploadReturnsBeforeVariantsAreWrittenNextToTheOriginal() throws Exception {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Pictured")).getCategoryId();
+        Long productId = productService.addProduct(categoryId,
+                new ProductDTO(null, "Poster", "Pictured", null, 10, 1_999, 0.0, 0)).getProductId();
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB), "png", png);
+        ProductDTO uploaded = productService.updateProductImage(productId,
+                new MockMultipartFile("image", "poster.png", "image/png", png.toByteArray()));
+        assertThat(uploaded.getImageVariants()).isEmpty();
+
+        Map<String, String> variants = Map.of();
+        for (int i = 0; i < 200 && variants.isEmpty(); i++) {
+            Thread.sleep(50);
+            variants = productRepository.findDTOsByProductIdIn(List.of(productId)).get(0).getImageVariants();
+        }
+
+        assertThat(variants).containsOnlyKeys("thumbnail", "list", "detail");
+        assertThat(variants.get("thumbnail")).isEqualTo(ImageVariants.fileName(uploaded.getImage(), "thumbnail"));
+        BufferedImage thumbnail = ImageIO.read(new File("target/test-images", variants.get("thumbnail")));
+        assertThat(thumbnail.getWidth()).isEqualTo(160);
+        assertThat(thumbnail.getHeight()).isEqualTo(80);
+        BufferedImage detail = ImageIO.read(new File("target/test-images", variants.get("detail")));
+        assertThat(detail.getWidth()).isEqualTo(1024);
+        assertThat(detail.getHeight()).isEqualTo(512);
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.project.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * What a shopper does in one step of the workload, and the endpoint that serves it.
+ */
+enum Action {
+    BROWSE("browse", "GET /api/public/products"),
+    SEARCH("search", "GET /api/public/products/keyword/{keyword}"),
+    ADD_TO_CART("add", "POST /api/carts/products/{productId}/quantity/{quantity}"),
+    UPDATE_QUANTITY("update", "PUT /api/cart/products/{productId}/quantity/{operation}"),
+    CHECKOUT("checkout", "POST /api/users/order");
+
+    private final String label;
+    private final String endpoint;
+
+    Action(String label, String endpoint) {
+        this.label = label;
+        this.endpoint = endpoint;
+    }
+
+    String label() {
+        return label;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    static Action fromLabel(String label) {
+        return Arrays.stream(values())
+                .filter(action -> action.label.equals(label))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown load test action: " + label));
+    }
+}
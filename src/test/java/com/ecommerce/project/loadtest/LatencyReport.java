@@ -0,0 +1,82 @@
+package com.ecommerce.project.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome of every request, per endpoint.
+ *
+ * Latency is measured from when a request was meant to start, not when it was sent, so an open-model run that
+ * falls behind reports the queueing its users would have seen instead of hiding it (coordinated omission).
+ */
+class LatencyReport {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile long measureFromNanos = Long.MAX_VALUE;
+    private volatile long measureToNanos = Long.MAX_VALUE;
+
+    /**
+     * Starts counting; anything recorded for a request meant to start earlier is warmup and is dropped.
+     */
+    void startMeasuring(long fromNanos) {
+        measureFromNanos = fromNanos;
+    }
+
+    void stopMeasuring(long toNanos) {
+        measureToNanos = toNanos;
+    }
+
+    void record(String endpoint, long intendedStartNanos, long endNanos, boolean success) {
+        if (intendedStartNanos < measureFromNanos)
+            return;
+
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, e -> new Endpoint());
+        stats.latency.recordValue(Math.min(Math.max(endNanos - intendedStartNanos, 1), MAX_TRACKABLE_NANOS));
+        if (!success)
+            stats.errors.increment();
+    }
+
+    List<EndpointSummary> summarize() {
+        double seconds = (measureToNanos - measureFromNanos) / 1e9;
+        List<EndpointSummary> summaries = new ArrayList<>();
+        endpoints.forEach((name, stats) -> {
+            Histogram histogram = stats.latency.getIntervalHistogram();
+            long count = histogram.getTotalCount();
+            summaries.add(new EndpointSummary(name, count, stats.errors.sum(), count / seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())));
+        });
+        summaries.sort((a, b) -> a.endpoint().compareTo(b.endpoint()));
+        return summaries;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static class Endpoint {
+        final Recorder latency = new Recorder(MAX_TRACKABLE_NANOS, 3);
+        final LongAdder errors = new LongAdder();
+    }
+
+    record EndpointSummary(String endpoint, long requests, long errors, double throughput,
+                           double p50Millis, double p90Millis, double p99Millis, double p999Millis,
+                           double maxMillis) {
+
+        double errorRate() {
+            return requests == 0 ? 0.0 : (double) errors / requests;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ecommerce.project.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test knobs, read from system properties so they can be passed on the Maven command line, e.g.
+ * {@code -Dload.model=open -Dload.rate=100 -Dload.slo.p99-ms.checkout=2000}.
+ */
+record LoadTestSettings(
+        Model model,
+        int users,
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Duration thinkTime,
+        int products,
+        Map<Action, Integer> mix,
+        long defaultP99Millis,
+        double maxErrorRate) {
+
+    enum Model {
+        /** A fixed number of shoppers, each sending its next request when the previous one completes */
+        CLOSED,
+        /** Requests arrive at a fixed rate however slowly the server responds */
+        OPEN
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Model.valueOf(property("load.model", "closed").toUpperCase()),
+                Integer.parseInt(property("load.users", "20")),
+                Double.parseDouble(property("load.rate", "50")),
+                DurationStyle.detectAndParse(property("load.warmup", "5s")),
+                DurationStyle.detectAndParse(property("load.duration", "30s")),
+                DurationStyle.detectAndParse(property("load.think-time", "0ms")),
+                Integer.parseInt(property("load.products", "200")),
+                parseMix(property("load.mix", "browse:40,search:25,add:15,update:12,checkout:8")),
+                Long.parseLong(property("load.slo.p99-ms", "1000")),
+                Double.parseDouble(property("load.slo.error-rate", "0.01")));
+    }
+
+    /**
+     * @return the p99 latency objective for an action, {@code load.slo.p99-ms.<action>} or the global default
+     */
+    long p99MillisFor(String action) {
+        return Long.parseLong(property("load.slo.p99-ms." + action, String.valueOf(defaultP99Millis)));
+    }
+
+    private static Map<Action, Integer> parseMix(String mix) {
+        Map<Action, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(Action.fromLabel(parts[0]), Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty(name, defaultValue);
+    }
+}
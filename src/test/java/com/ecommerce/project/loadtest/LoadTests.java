@@ -0,0 +1,99 @@
+package com.ecommerce.project.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test: starts the application on a random port, seeds a catalog and shoppers through the
+ * public API and runs a browse / search / cart / checkout mix against it. Prints throughput and latency
+ * percentiles per endpoint, writes them to {@code target/load-report.json} and fails if any endpoint misses its
+ * p99 or error rate objective.
+ *
+ * Excluded from the normal build; run it with {@code ./mvnw -Pload-test test} and tune it with the
+ * {@code load.*} system properties in {@link LoadTestSettings}, e.g.
+ * <pre>
+ * ./mvnw -Pload-test test -Dload.model=open -Dload.rate=200 -Dload.users=100 -Dload.duration=2m
+ * </pre>
+ * Request logging is turned down so the run measures the application rather than the console.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework=WARN",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.com.ecommerce.project=WARN",
+        "logging.level.com.ecommerce.project.monitoring=ERROR"
+})
+class LoadTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void meetsServiceLevelObjectives() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        String baseUrl = "http://localhost:" + port;
+
+        List<Long> productIds = seedCatalog(baseUrl, settings.products());
+        List<Shopper> shoppers = new ArrayList<>();
+        for (int i = 0; i < settings.users(); i++)
+            shoppers.add(Shopper.signUp(baseUrl, "shopper" + i, productIds));
+
+        LatencyReport report = new LatencyReport();
+        new Workload(settings, shoppers, report).run();
+
+        List<LatencyReport.EndpointSummary> summaries = report.summarize();
+        print(settings, summaries);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(Path.of("target", "load-report.json").toFile(), summaries);
+
+        List<String> violations = new ArrayList<>();
+        for (LatencyReport.EndpointSummary summary : summaries) {
+            long p99Objective = settings.p99MillisFor(summary.endpoint());
+            if (summary.p99Millis() > p99Objective)
+                violations.add("%s p99 %.1f ms > %d ms".formatted(summary.endpoint(), summary.p99Millis(), p99Objective));
+            if (summary.errorRate() > settings.maxErrorRate())
+                violations.add("%s error rate %.2f%% > %.2f%%".formatted(summary.endpoint(),
+                        summary.errorRate() * 100, settings.maxErrorRate() * 100));
+        }
+        assertThat(violations).as("Service level objectives").isEmpty();
+    }
+
+    private static List<Long> seedCatalog(String baseUrl, int products) throws IOException {
+        Shopper admin = Shopper.signIn(baseUrl, "admin1", "password3");
+        long categoryId = admin.postForJson("/api/admin/categories", """
+                {"categoryName":"Load test"}""").get("categoryId").asLong();
+
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < products; i++) {
+            productIds.add(admin.postForJson("/api/admin/categories/" + categoryId + "/product", """
+                    {"productName":"Product %d","description":"Load test product %d","quantity":1000000,
+                     "price":%d.0,"discount":10}""".formatted(i, i, 10 + i)).get("productId").asLong());
+        }
+        return productIds;
+    }
+
+    private static void print(LoadTestSettings settings, List<LatencyReport.EndpointSummary> summaries) {
+        System.out.printf("%nLoad test: %s model, %d users%s, %s measured after %s warmup%n", settings.model(),
+                settings.users(), settings.model() == LoadTestSettings.Model.OPEN
+                        ? ", " + settings.rate() + " requests/s" : "", settings.duration(), settings.warmup());
+        System.out.printf("%-9s %-58s %8s %7s %8s %9s %9s %9s %9s %9s%n", "action", "endpoint", "requests",
+                "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LatencyReport.EndpointSummary s : summaries) {
+            System.out.printf("%-9s %-58s %8d %7d %8.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", s.endpoint(),
+                    Action.fromLabel(s.endpoint()).endpoint(), s.requests(), s.errors(), s.throughput(),
+                    s.p50Millis(), s.p90Millis(), s.p99Millis(), s.p999Millis(), s.maxMillis());
+        }
+    }
+}
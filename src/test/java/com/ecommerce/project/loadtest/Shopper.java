@@ -0,0 +1,156 @@
+package com.ecommerce.project.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * One signed-in user driving the API over HTTP with their own cookie jar, exactly as a browser would after
+ * {@code POST /api/auth/signin}. Remembers what is in its cart so every request it sends is a valid one.
+ *
+ * Not thread-safe: a shopper performs one step at a time.
+ */
+class Shopper {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final List<Long> productIds;
+    private final Set<Long> cart = new HashSet<>();
+    private Long addressId;
+
+    private Shopper(String baseUrl, List<Long> productIds) {
+        this.baseUrl = baseUrl;
+        this.productIds = productIds;
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(TIMEOUT)
+                .build();
+    }
+
+    static Shopper signUp(String baseUrl, String username, List<Long> productIds) throws IOException {
+        Shopper shopper = new Shopper(baseUrl, productIds);
+        String password = "password-" + username;
+        shopper.postForJson("/api/auth/signup", """
+                {"username":"%s","email":"%s@example.com","password":"%s"}""".formatted(username, username, password));
+        shopper.signIn(username, password);
+        JsonNode address = shopper.postForJson("/api/addresses", """
+                {"street":"Load street","buildingName":"Building","city":"Loadville","state":"LS",
+                 "country":"Testland","zipCode":"12345"}""");
+        shopper.addressId = address.get("addressId").asLong();
+        return shopper;
+    }
+
+    static Shopper signIn(String baseUrl, String username, String password) throws IOException {
+        Shopper shopper = new Shopper(baseUrl, List.of());
+        shopper.signIn(username, password);
+        return shopper;
+    }
+
+    /**
+     * Performs the action, or the nearest valid one when the cart does not allow it (nothing to update or
+     * check out yet, or every product already added), and records its latency.
+     */
+    void step(Action action, Random random, long intendedStartNanos, LatencyReport report) {
+        if ((action == Action.UPDATE_QUANTITY || action == Action.CHECKOUT) && cart.isEmpty())
+            action = Action.ADD_TO_CART;
+        if (action == Action.ADD_TO_CART && cart.size() == productIds.size())
+            action = Action.UPDATE_QUANTITY;
+
+        boolean success;
+        try {
+            success = switch (action) {
+                case BROWSE -> isSuccess(get("/api/public/products?pageSize=10&pageNumber="
+                        + random.nextInt(Math.max(1, productIds.size() / 10))));
+                case SEARCH -> isSuccess(get("/api/public/products/keyword/" + (random.nextInt(90) + 10)));
+                case ADD_TO_CART -> addToCart(random);
+                case UPDATE_QUANTITY -> isSuccess(send(HttpRequest.newBuilder(uri("/api/cart/products/"
+                        + cart.iterator().next() + "/quantity/add")).PUT(HttpRequest.BodyPublishers.noBody())));
+                case CHECKOUT -> checkout();
+            };
+        } catch (IOException e) {
+            success = false;
+        }
+        report.record(action.label(), intendedStartNanos, System.nanoTime(), success);
+    }
+
+    /**
+     * For setup requests, which must succeed.
+     *
+     * @throws IOException on a non-2xx response
+     */
+    JsonNode postForJson(String path, String json) throws IOException {
+        HttpResponse<String> response = post(path, json);
+        if (!isSuccess(response))
+            throw new IOException(response.statusCode() + " from " + response.request().uri() + ": "
+                    + response.body());
+        return objectMapper.readTree(response.body());
+    }
+
+    private void signIn(String username, String password) throws IOException {
+        postForJson("/api/auth/signin", """
+                {"username":"%s","password":"%s"}""".formatted(username, password));
+    }
+
+    private boolean addToCart(Random random) throws IOException {
+        Long productId;
+        do {
+            productId = productIds.get(random.nextInt(productIds.size()));
+        } while (cart.contains(productId));
+
+        boolean success = isSuccess(send(HttpRequest.newBuilder(uri("/api/carts/products/" + productId + "/quantity/1"))
+                .POST(HttpRequest.BodyPublishers.noBody())));
+        if (success)
+            cart.add(productId);
+        return success;
+    }
+
+    private boolean checkout() throws IOException {
+        boolean success = isSuccess(post("/api/users/order", """
+                {"addressId":%d,"paymentMethod":"card","pgName":"stripe","pgPaymentId":"pg-load",
+                 "pgStatus":"succeeded","pgResponseMessage":"Load test"}""".formatted(addressId)));
+        if (success)
+            cart.clear();
+        return success;
+    }
+
+    private HttpResponse<String> post(String path, String json) throws IOException {
+        return send(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    private HttpResponse<String> get(String path) throws IOException {
+        return send(HttpRequest.newBuilder(uri(path)).GET());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException {
+        try {
+            return client.send(request.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static boolean isSuccess(HttpResponse<String> response) {
+        return response.statusCode() / 100 == 2;
+    }
+}
@@ -0,0 +1,114 @@
+package com.ecommerce.project.loadtest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Drives the shoppers through a warmup and then a measured run, in either workload model.
+ */
+class Workload {
+
+    private final LoadTestSettings settings;
+    private final List<Shopper> shoppers;
+    private final LatencyReport report;
+    private final Action[] actionsByWeight;
+
+    Workload(LoadTestSettings settings, List<Shopper> shoppers, LatencyReport report) {
+        this.settings = settings;
+        this.shoppers = shoppers;
+        this.report = report;
+        this.actionsByWeight = expand(settings.mix());
+    }
+
+    void run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        report.startMeasuring(measureFrom);
+
+        if (settings.model() == LoadTestSettings.Model.CLOSED)
+            runClosed(end);
+        else
+            runOpen(start, end);
+
+        report.stopMeasuring(end);
+    }
+
+    /**
+     * Every shopper loops on its own thread: request, think, request. Throughput is whatever the server allows.
+     */
+    private void runClosed(long end) throws InterruptedException {
+        ExecutorService threads = Executors.newFixedThreadPool(shoppers.size());
+        long thinkNanos = settings.thinkTime().toNanos();
+        for (Shopper shopper : shoppers) {
+            threads.execute(() -> {
+                Random random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    shopper.step(nextAction(random), random, System.nanoTime(), report);
+                    if (thinkNanos > 0)
+                        LockSupport.parkNanos(thinkNanos);
+                }
+            });
+        }
+        shutdown(threads);
+    }
+
+    /**
+     * Requests are scheduled at {@code load.rate} per second whatever the response times. A request that has to
+     * wait for a free shopper is still timed from its scheduled start.
+     */
+    private void runOpen(long start, long end) throws InterruptedException {
+        BlockingQueue<Shopper> idle = new ArrayBlockingQueue<>(shoppers.size(), false, shoppers);
+        ExecutorService threads = Executors.newCachedThreadPool();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.rate());
+
+        for (long intendedStart = start; intendedStart < end; intendedStart += intervalNanos) {
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+
+            long scheduled = intendedStart;
+            threads.execute(() -> {
+                Shopper shopper;
+                try {
+                    shopper = idle.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    Random random = ThreadLocalRandom.current();
+                    shopper.step(nextAction(random), random, scheduled, report);
+                } finally {
+                    idle.add(shopper);
+                }
+            });
+        }
+        shutdown(threads);
+    }
+
+    private Action nextAction(Random random) {
+        return actionsByWeight[random.nextInt(actionsByWeight.length)];
+    }
+
+    private static void shutdown(ExecutorService threads) throws InterruptedException {
+        threads.shutdown();
+        if (!threads.awaitTermination(2, TimeUnit.MINUTES))
+            threads.shutdownNow();
+    }
+
+    private static Action[] expand(Map<Action, Integer> mix) {
+        return mix.entrySet().stream()
+                .flatMap(e -> Stream.generate(e::getKey).limit(e.getValue()))
+                .toArray(Action[]::new);
+    }
+}
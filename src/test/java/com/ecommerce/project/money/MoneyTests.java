@@ -0,0 +1,70 @@
+package com.ecommerce.project.money;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.payload.ProductDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTests {
+
+    @Test
+    void convertsMajorUnitsExactly() {
+        assertThat(Money.ofMajor(19.99)).isEqualTo(1999);
+        assertThat(Money.ofMajor(0.1 + 0.2)).isEqualTo(30);
+        assertThat(Money.ofMajor(new BigDecimal("0.125"))).isEqualTo(12);
+        assertThat(Money.toMajor(1999)).isEqualByComparingTo("19.99");
+    }
+
+    @Test
+    void sumsDoNotDrift() {
+        long total = 0;
+        for (int i = 0; i < 10_000; i++)
+            total += Money.times(Money.ofMajor(0.1), 3);
+        for (int i = 0; i < 10_000; i++)
+            total -= Money.times(Money.ofMajor(0.1), 3);
+
+        assertThat(total).isZero();
+    }
+
+    @Test
+    void roundsDiscountHalfEvenToMinorUnit() {
+        assertThat(Money.discounted(10_000, 10.0)).isEqualTo(9_000);
+        // 12.5% of 9.99 is 1.24875, so 1.25 off
+        assertThat(Money.discounted(999, 12.5)).isEqualTo(874);
+        // 50% of 0.01 is half a cent, rounded to the even 0
+        assertThat(Money.discounted(1, 50.0)).isEqualTo(1);
+        assertThat(Money.discounted(3, 50.0)).isEqualTo(1);
+        assertThat(Money.discounted(1_999, 0.0)).isEqualTo(1_999);
+    }
+
+    @Test
+    void rejectsOverflow() {
+        assertThatThrownBy(() -> Money.times(Long.MAX_VALUE / 2, 3)).isInstanceOf(APIException.class);
+        assertThatThrownBy(() -> Money.ofMajor(new BigDecimal("1e30"))).isInstanceOf(APIException.class)
+                .hasMessage("Amount 1E+30 is out of range");
+    }
+
+    @Test
+    void showsMajorUnitsInJsonAndCsv() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ProductDTO product = new ProductDTO(1L, "Lamp", "Desk lamp", null, 3, 17_999, 10.0, 16_199);
+
+        String json = objectMapper.writeValueAsString(product);
+        assertThat(json).contains("\"price\":179.99", "\"specialPrice\":161.99");
+        assertThat(objectMapper.readValue(json, ProductDTO.class)).isEqualTo(product);
+        assertThat(objectMapper.readValue("{\"price\":20}", ProductDTO.class).getPrice()).isEqualTo(2_000);
+
+        CsvMapper csvMapper = new CsvMapper();
+        ProductDTO fromCsv = csvMapper.readerFor(ProductDTO.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValue("productName,price\nLamp,12.50\n");
+        assertThat(fromCsv.getPrice()).isEqualTo(1_250);
+    }
+}
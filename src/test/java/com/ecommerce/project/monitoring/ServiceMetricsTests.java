@@ -0,0 +1,48 @@
+package com.ecommerce.project.monitoring;
+
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.payload.ServiceMethodMetricsDTO;
+import com.ecommerce.project.service.CategoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ServiceMetricsTests {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void recordsCallsErrorsAndPercentiles() {
+        for (int i = 0; i < 10; i++)
+            categoryService.getAllCategories(0, 50, "categoryId", "asc");
+        assertThatThrownBy(() -> categoryService.deleteCategory(-1L)).isInstanceOf(ResourceNotFoundException.class);
+
+        ServiceMethodMetricsDTO listing = metricsFor("CategoryService.getAllCategories");
+        assertThat(listing.getCalls()).isGreaterThanOrEqualTo(10);
+        assertThat(listing.getP50Millis()).isPositive();
+        assertThat(listing.getP999Millis()).isGreaterThanOrEqualTo(listing.getP50Millis());
+
+        assertThat(metricsFor("CategoryService.deleteCategory").getErrors()).isEqualTo(1);
+        assertThat(meterRegistry.get("service.calls").tag("service", "CategoryService")
+                .tag("method", "getAllCategories").timer().count()).isGreaterThanOrEqualTo(10);
+    }
+
+    private ServiceMethodMetricsDTO metricsFor(String method) {
+        return serviceMetrics.snapshot().stream()
+                .filter(m -> m.getMethod().equals(method))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.project.monitoring;
+
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.service.CategoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SqlStatisticsTests {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void categoryListingStaysWithinBudget() {
+        categoryService.createCategory(new CategoryDTO(null, "Budgeted category"));
+
+        // One page query plus one count query
+        StatementBudget.assertAtMost(2, () -> categoryService.getAllCategories(0, 50, "categoryId", "asc"));
+    }
+
+    @Test
+    void recordsStatementsRowsAndTimePerServiceMethod() {
+        categoryService.createCategory(new CategoryDTO(null, "Measured category"));
+        String method = "CategoryServiceImpl.getAllCategories";
+        long calls = meterRegistry.find("sql.method.time").tag("method", method).timers().stream()
+                .mapToLong(Timer::count).sum();
+
+        categoryService.getAllCategories(0, 50, "categoryId", "asc");
+
+        assertThat(meterRegistry.get("sql.method.time").tag("method", method).timer().count()).isEqualTo(calls + 1);
+        assertThat(meterRegistry.get("sql.method.statements").tag("method", method).summary().max()).isPositive();
+        assertThat(meterRegistry.get("sql.method.rows").tag("method", method).summary().max()).isPositive();
+    }
+
+    @Test
+    void countsStatementsAndRows() {
+        SqlStatistics statistics = StatementBudget.measure(() ->
+                jdbcTemplate.queryForList("SELECT username FROM users", String.class));
+
+        assertThat(statistics.getStatements()).isEqualTo(1);
+        assertThat(statistics.getRows()).isEqualTo(3);
+    }
+
+    @Test
+    void flagsRepeatedStatementsAsNPlusOneCandidates() {
+        SqlStatistics statistics = StatementBudget.measure(() -> List.of("user1", "seller1", "admin1").stream()
+                .map(username -> jdbcTemplate.queryForObject(
+                        "SELECT email FROM users WHERE username = ?", String.class, username))
+                .toList());
+
+        assertThat(statistics.getRepeatedStatements(3))
+                .containsEntry("SELECT email FROM users WHERE username = ?", 3L);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.project.monitoring;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test helper asserting how much SQL a piece of work may issue, e.g.
+ * <pre>
+ * StatementBudget.assertAtMost(2, () -> categoryService.getAllCategories(0, 50, "categoryId", "asc"));
+ * </pre>
+ * Failures list every statement that ran and how often.
+ */
+public final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    public static <T> T assertAtMost(int maxStatements, Supplier<T> work) {
+        SqlStatistics statistics = new SqlStatistics();
+        T result = measure(statistics, work);
+        assertThat(statistics.getStatements())
+                .as("SQL statements executed:%n%s", statistics.describe())
+                .isLessThanOrEqualTo(maxStatements);
+        return result;
+    }
+
+    public static <T> T assertNoStatementRepeated(int maxExecutions, Supplier<T> work) {
+        SqlStatistics statistics = new SqlStatistics();
+        T result = measure(statistics, work);
+        assertThat(statistics.getRepeatedStatements(maxExecutions + 1))
+                .as("Statements executed more than %d times (N+1 candidates)", maxExecutions)
+                .isEmpty();
+        return result;
+    }
+
+    public static <T> SqlStatistics measure(Supplier<T> work) {
+        SqlStatistics statistics = new SqlStatistics();
+        measure(statistics, work);
+        return statistics;
+    }
+
+    private static <T> T measure(SqlStatistics statistics, Supplier<T> work) {
+        SqlStatistics previous = SqlStatistics.bind(statistics);
+        try {
+            return work.get();
+        } finally {
+            SqlStatistics.restore(previous);
+        }
+    }
+}
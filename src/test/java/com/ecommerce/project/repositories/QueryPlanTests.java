@@ -0,0 +1,138 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.Category;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs each repository query, captures the SQL Hibernate sends and checks H2's {@code EXPLAIN} plan for it: every
+ * table must be reached through an index, and through the index the query was designed for. Index names are the
+ * ones from the Flyway migrations; H2 appends a suffix to indexes backing constraints, so they match by prefix.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.ecommerce.project.repositories.QueryPlanTests$RecordingStatementInspector")
+class QueryPlanTests {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findCartByEmail() {
+        assertPlans(() -> cartRepository.findCartByEmail("nobody@example.com"), "UK_USERS_EMAIL", "UK_CARTS_USER");
+    }
+
+    @Test
+    void findCartItemByProductIdAndCartId() {
+        assertPlans(() -> cartItemRepository.findCartItemByProductIdAndCartId(1L, 1L), "IX_CART_ITEMS_CART_PRODUCT");
+    }
+
+    @Test
+    void findCartItemRowsByUsername() {
+        assertPlans(() -> cartItemRepository.findCartItemRowsByUsername("nobody"), "UK_USERS_USERNAME",
+                "UK_CARTS_USER", "FK_CART_ITEMS_CART");
+    }
+
+    @Test
+    void findCartsByProductId() {
+        assertPlans(() -> cartRepository.findCartsByProductId(1L), "IX_CART_ITEMS_PRODUCT");
+    }
+
+    @Test
+    void cartListing() {
+        assertPlans(() -> cartRepository.findCartIdsAfter(0, Limit.of(10)), "PRIMARY_KEY");
+        assertPlans(() -> cartRepository.findCartProductRows(List.of(1L, 2L)), "PRIMARY_KEY",
+                "IX_CART_ITEMS_CART_PRODUCT");
+    }
+
+    @Test
+    void findByCategoryOrderByPriceAsc() {
+        Category category = categoryRepository.save(new Category(null, "Query plans", null));
+
+        assertPlans(() -> productRepository.findByCategoryOrderByPriceAsc(category,
+                PageRequest.of(0, 10, Sort.by("productName"))), "IX_PRODUCTS_CATEGORY");
+    }
+
+    @Test
+    void findAllByUserId() {
+        assertPlans(() -> addressRepository.findAllByUserId(1L, PageRequest.of(0, 10)),
+                "IX_USER_ADDRESS_USER_ADDRESS");
+    }
+
+    @Test
+    void duplicateNameChecks() {
+        assertPlans(() -> productRepository.existsByCategoryCategoryIdAndProductName(1L, "Phone"),
+                "UK_PRODUCTS_NAME_CATEGORY");
+        assertPlans(() -> productRepository.findExistingProductNames(1L, Set.of("Phone", "Laptop")),
+                "UK_PRODUCTS_NAME_CATEGORY");
+        assertPlans(() -> categoryRepository.existsByCategoryName("Electronics"), "UK_CATEGORIES_NAME");
+    }
+
+    @Test
+    void changeFeed() {
+        assertPlans(() -> productRepository.findChanges(0, 100, Limit.of(10)), "IX_PRODUCTS_CHANGE_VERSION");
+        assertPlans(() -> productTombstoneRepository
+                        .findByChangeVersionGreaterThanAndChangeVersionLessThanEqualOrderByChangeVersion(0, 100,
+                                Limit.of(10)),
+                "IX_PRODUCT_TOMBSTONES_CHANGE_VERSION");
+    }
+
+    /**
+     * @param expectedIndexes indexes the query's first statement must use; any further statements (such as a
+     *                        page's count query) only have to avoid table scans
+     */
+    private void assertPlans(Runnable query, String... expectedIndexes) {
+        RecordingStatementInspector.statements.clear();
+        query.run();
+        List<String> statements = List.copyOf(RecordingStatementInspector.statements);
+        assertThat(statements).isNotEmpty();
+
+        for (int i = 0; i < statements.size(); i++) {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + statements.get(i), String.class);
+            assertThat(plan).as("plan for %s", statements.get(i)).doesNotContain("tableScan");
+            if (i == 0)
+                assertThat(plan).as("plan for %s", statements.get(i)).contains(expectedIndexes);
+        }
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
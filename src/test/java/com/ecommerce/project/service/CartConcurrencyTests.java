@@ -0,0 +1,114 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        // Enough attempts that no change is lost even when every thread races for the same cart
+        "project.cart.retry.max-attempts=100",
+        "project.cart.retry.max-backoff=20ms"
+})
+class CartConcurrencyTests {
+
+    private static final int THREADS = 6;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void totalAlwaysEqualsSumOfLines() throws Exception {
+        String username = "concurrent-cart";
+        userRepository.save(new User(username, username + "@example.com", "password"));
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Concurrent cart")).getCategoryId();
+        Long shared = productService.addProduct(categoryId,
+                new ProductDTO(null, "Shared", "Concurrent cart", null, 10_000, 1_999, 10.0, 0)).getProductId();
+        List<Long> ownProducts = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++)
+            ownProducts.add(productService.addProduct(categoryId,
+                    new ProductDTO(null, "Own " + i, "Concurrent cart", null, 10_000, 1_000 + i, 0.0, 0))
+                    .getProductId());
+        runAs(username, () -> cartService.addProductToCart(shared, 1));
+
+        // Every thread bumps the shared line and adds, changes and removes a line of its own, so the cart row and
+        // the shared line are contended all the time
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Long own = ownProducts.get(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int round = 0; round < ROUNDS; round++) {
+                    runAs(username, () -> {
+                        cartService.updateProductQuantityInCart(shared, 1);
+                        cartService.addProductToCart(own, 2);
+                        cartService.updateProductQuantityInCart(own, 1);
+                        cartService.deleteProductFromCart(own);
+                    });
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get();
+        executor.shutdown();
+
+        Map<String, Object> cart = jdbcTemplate.queryForMap("SELECT c.total_price total, "
+                + "(SELECT SUM(ci.product_price * ci.quantity) FROM cart_items ci WHERE ci.cart_id = c.cart_id) lines, "
+                + "(SELECT SUM(ci.quantity) FROM cart_items ci WHERE ci.cart_id = c.cart_id) quantity "
+                + "FROM carts c JOIN users u ON u.user_id = c.user_id WHERE u.username = ?", username);
+        assertThat(((Number) cart.get("quantity")).longValue()).isEqualTo(1 + THREADS * ROUNDS);
+        assertThat(((Number) cart.get("total")).longValue())
+                .isEqualTo(((Number) cart.get("lines")).longValue())
+                .isEqualTo(1_799L * (1 + THREADS * ROUNDS));
+        assertThat(meterRegistry.find("cart.retries").counters().stream().mapToDouble(Counter::count).sum())
+                .isPositive();
+    }
+
+    private static void runAs(String username, Runnable action) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+        try {
+            action.run();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
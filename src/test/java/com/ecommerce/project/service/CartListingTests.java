@@ -0,0 +1,90 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.datagen.DataGenerator;
+import com.ecommerce.project.datagen.DataGeneratorProperties;
+import com.ecommerce.project.monitoring.StatementBudget;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A database of its own, so the generated carts are the only ones listed and stay out of other tests' way
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cart-listing")
+class CartListingTests {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private DataGenerator dataGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void pagesThroughEveryCartWithTwoQueriesPerPage() throws IOException {
+        DataGeneratorProperties properties = new DataGeneratorProperties();
+        properties.setCategories(2);
+        properties.setProducts(200);
+        properties.setUsers(40);
+        properties.setCartFraction(1.0);
+        properties.setOrders(0);
+        dataGenerator.generate(properties);
+
+        List<CartDTO> listed = new ArrayList<>();
+        long after = 0;
+        CartResponse page;
+        do {
+            long pageAfter = after;
+            // The ids of the page, then its carts and products; products' cart items are never loaded
+            page = StatementBudget.assertAtMost(2, () -> cartService.getAllCarts(pageAfter, 7));
+            assertThat(page.getContent()).hasSizeLessThanOrEqualTo(7);
+            listed.addAll(page.getContent());
+            after = page.getNextAfter();
+        } while (!page.isLastPage());
+
+        Map<Long, Long> itemCounts = jdbcTemplate.queryForList("SELECT c.cart_id, COUNT(ci.cart_item_id) items "
+                        + "FROM carts c LEFT JOIN cart_items ci ON ci.cart_id = c.cart_id GROUP BY c.cart_id")
+                .stream()
+                .collect(Collectors.toMap(row -> ((Number) row.get("CART_ID")).longValue(),
+                        row -> ((Number) row.get("ITEMS")).longValue()));
+        assertThat(listed).extracting(CartDTO::getCartId).isSorted().doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(itemCounts.keySet());
+        assertThat(listed).allSatisfy(cart ->
+                assertThat((long) cart.getProducts().size()).isEqualTo(itemCounts.get(cart.getCartId())));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = StatementBudget.assertAtMost(1, () -> export(out));
+        List<CartDTO> exported = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n"))
+            exported.add(objectMapper.readValue(line, CartDTO.class));
+
+        assertThat(written).isEqualTo(listed.size());
+        assertThat(exported).isEqualTo(listed);
+    }
+
+    private long export(ByteArrayOutputStream out) {
+        try {
+            return cartService.exportCarts(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
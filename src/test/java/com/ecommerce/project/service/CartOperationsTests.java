@@ -0,0 +1,151 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.CartOperationsException;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.monitoring.SqlStatistics;
+import com.ecommerce.project.monitoring.StatementBudget;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperationDTO;
+import com.ecommerce.project.payload.CartOperationErrorDTO;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.ecommerce.project.payload.CartOperationDTO.Op.ADD;
+import static com.ecommerce.project.payload.CartOperationDTO.Op.INCREMENT;
+import static com.ecommerce.project.payload.CartOperationDTO.Op.REMOVE;
+import static com.ecommerce.project.payload.CartOperationDTO.Op.SET_QUANTITY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class CartOperationsTests {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long widget;
+    private Long gadget;
+    private Long gizmo;
+
+    @BeforeEach
+    void createProducts() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Cart operations " + System.nanoTime()))
+                .getCategoryId();
+        widget = productService.addProduct(categoryId, product("Widget", 10_000, 10.0)).getProductId();
+        gadget = productService.addProduct(categoryId, product("Gadget", 5_000, 0.0)).getProductId();
+        gizmo = productService.addProduct(categoryId, product("Gizmo", 2_000, 0.0)).getProductId();
+    }
+
+    @AfterEach
+    void logout() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void appliesOperationsInOrderAndRecomputesTotalOnce() {
+        login("cart-operations-1");
+        cartService.addProductToCart(widget, 1);
+        cartService.addProductToCart(gizmo, 1);
+
+        List<CartOperationDTO> operations = List.of(
+                new CartOperationDTO(ADD, gadget, 2),
+                new CartOperationDTO(SET_QUANTITY, widget, 3),
+                new CartOperationDTO(REMOVE, gizmo, null),
+                new CartOperationDTO(ADD, gizmo, 5));
+        SqlStatistics statistics = StatementBudget.measure(() -> cartService.updateCart(operations));
+        // Products are loaded together, not once per operation; only the changed cart items are updated one by one
+        assertThat(statistics.getRepeatedStatements(2))
+                .allSatisfy((sql, executions) -> assertThat(sql).startsWith("update"));
+
+        CartDTO cart = cart();
+        assertThat(cart.getTotalPrice()).isEqualTo(3 * 9_000 + 2 * 5_000 + 5 * 2_000);
+        assertThat(cart.getProducts()).extracting(ProductDTO::getProductId, ProductDTO::getQuantity)
+                .containsExactlyInAnyOrder(tuple(widget, 3), tuple(gadget, 2), tuple(gizmo, 5));
+    }
+
+    @Test
+    void rejectsWholeBatchAndReportsEveryFailedOperation() {
+        login("cart-operations-2");
+        cartService.addProductToCart(widget, 1);
+
+        CartOperationsException e = catchThrowableOfType(() -> cartService.updateCart(List.of(
+                new CartOperationDTO(ADD, gadget, 1),
+                new CartOperationDTO(ADD, -1L, 1),
+                new CartOperationDTO(SET_QUANTITY, gizmo, 2),
+                new CartOperationDTO(ADD, widget, 1),
+                new CartOperationDTO(SET_QUANTITY, widget, 11))), CartOperationsException.class);
+
+        assertThat(e.getErrors()).extracting(CartOperationErrorDTO::getLine, CartOperationErrorDTO::getMessage)
+                .containsExactly(
+                        tuple(2, "Product not found with product_id: -1"),
+                        tuple(3, "ProductGizmo does not exist in the cart"),
+                        tuple(4, "Product Widget already exits in the cart"),
+                        tuple(5, "Only 10 of Widget available"));
+        CartDTO cart = cart();
+        assertThat(cart.getTotalPrice()).isEqualTo(9_000);
+        assertThat(cart.getProducts()).extracting(ProductDTO::getProductId).containsExactly(widget);
+    }
+
+    @Test
+    void incrementsQuantitiesAndLeavesOutWhatIsNotAvailable() {
+        login("cart-operations-3");
+        cartService.addProductToCart(widget, 4);
+
+        CartDTO merged = cartService.updateCartWherePossible(List.of(
+                new CartOperationDTO(INCREMENT, widget, 3),
+                new CartOperationDTO(INCREMENT, gadget, 2),
+                new CartOperationDTO(INCREMENT, gizmo, 11),
+                new CartOperationDTO(INCREMENT, -1L, 1)));
+
+        assertThat(merged.getProducts()).extracting(ProductDTO::getProductId, ProductDTO::getQuantity)
+                .containsExactlyInAnyOrder(tuple(widget, 7), tuple(gadget, 2));
+        assertThat(merged.getTotalPrice()).isEqualTo(7 * 9_000 + 2 * 5_000);
+
+        // Beyond the stock once added to what is in the cart
+        CartOperationsException e = catchThrowableOfType(() -> cartService.updateCart(List.of(
+                new CartOperationDTO(INCREMENT, widget, 4))), CartOperationsException.class);
+        assertThat(e.getErrors()).extracting(CartOperationErrorDTO::getMessage)
+                .containsExactly("Only 10 of Widget available");
+    }
+
+    private void login(String username) {
+        if (userRepository.findByUsername(username).isEmpty())
+            userRepository.save(new User(username, username + "@example.com", "password"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    // Within a session, as on the cart lane
+    private CartDTO cart() {
+        return new TransactionTemplate(transactionManager).execute(status -> cartService.getCartForLoggedInUser());
+    }
+
+    private static ProductDTO product(String name, long price, double discount) {
+        return new ProductDTO(null, name, "Cart operations", null, 10, price, discount, 0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.monitoring.StatementBudget;
+import com.ecommerce.project.payload.CartQuoteDTO;
+import com.ecommerce.project.payload.CartQuoteLineDTO;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CartQuoteTests {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void quotesCurrentPricesAndFlagsStaleLinesWithoutWriting() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Quoted")).getCategoryId();
+        Long lamp = productService.addProduct(categoryId,
+                new ProductDTO(null, "Quoted lamp", "Quoted", null, 10, 2_000, 10.0, 0)).getProductId();
+        Long chair = productService.addProduct(categoryId,
+                new ProductDTO(null, "Quoted chair", "Quoted", null, 10, 5_000, 0.0, 0)).getProductId();
+
+        String username = "quoted-cart";
+        userRepository.save(new User(username, username + "@example.com", "password"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+        try {
+            cartService.addProductToCart(lamp, 2);
+            cartService.addProductToCart(chair, 1);
+            // As if the chair's price had changed without reaching the cart
+            jdbcTemplate.update("UPDATE cart_items SET product_price = 4_500 WHERE product_id = ?", chair);
+            String before = jdbcTemplate.queryForList("SELECT * FROM cart_items ORDER BY cart_item_id").toString();
+
+            cartService.quoteCartForLoggedInUser();
+            // Once the products are in memory, a quote is a single query of the cart's items
+            CartQuoteDTO quote = StatementBudget.assertAtMost(1, cartService::quoteCartForLoggedInUser);
+
+            assertThat(quote.getLines()).extracting(CartQuoteLineDTO::getProductId).containsExactly(lamp, chair);
+            assertThat(quote.getLines()).extracting(CartQuoteLineDTO::isStale).containsExactly(false, true);
+            assertThat(quote.getLines().get(1).getCartPrice()).isEqualTo(4_500);
+            assertThat(quote.getSubtotal()).isEqualTo(2 * 2_000 + 5_000);
+            assertThat(quote.getDiscountTotal()).isEqualTo(2 * 200);
+            assertThat(quote.getTotalPrice()).isEqualTo(2 * 1_800 + 5_000);
+            assertThat(quote.isStale()).isTrue();
+            assertThat(jdbcTemplate.queryForList("SELECT * FROM cart_items ORDER BY cart_item_id").toString())
+                    .isEqualTo(before);
+
+            // A price change reaches the cart's items and, once committed, the quote too
+            productService.updateProduct(lamp, new ProductDTO(null, "Quoted lamp", "Quoted", null, 10, 2_500, 10.0, 0));
+            CartQuoteDTO repriced = cartService.quoteCartForLoggedInUser();
+            assertThat(repriced.getLines()).extracting(CartQuoteLineDTO::isStale).containsExactly(false, true);
+            assertThat(repriced.getTotalPrice()).isEqualTo(2 * 2_250 + 5_000);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.CategoryRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class DuplicateNameTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void rejectsDuplicateNamesWithinCategoryOnly() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Duplicates")).getCategoryId();
+        Long otherCategoryId = categoryService.createCategory(new CategoryDTO(null, "Other duplicates")).getCategoryId();
+        productService.addProduct(categoryId, product("Widget"));
+        Long gadget = productService.addProduct(categoryId, product("Gadget")).getProductId();
+
+        assertThatThrownBy(() -> productService.addProduct(categoryId, product("Widget")))
+                .isInstanceOf(APIException.class)
+                .hasMessage("Product with name: Widget already exists");
+        assertThat(productService.addProduct(otherCategoryId, product("Widget")).getProductId()).isNotNull();
+
+        assertThatThrownBy(() -> productService.updateProduct(gadget, product("Widget")))
+                .isInstanceOf(APIException.class)
+                .hasMessage("Product with name: Widget already exists");
+        assertThatThrownBy(() -> categoryService.createCategory(new CategoryDTO(null, "Duplicates")))
+                .isInstanceOf(APIException.class)
+                .hasMessage("Category with name Duplicates already exists");
+    }
+
+    @Test
+    void concurrentInsertThatPassesTheCheckIsReportedAsDuplicate() throws Exception {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Raced inserts")).getCategoryId();
+
+        // Hold an uncommitted insert of the same name: the service's existence check cannot see it, so only the
+        // unique constraint stops the second insert once the first one commits
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    Product product = new Product();
+                    product.setProductName("Raced");
+                    product.setCategory(categoryRepository.getReferenceById(categoryId));
+                    productRepository.saveAndFlush(product);
+                    inserted.countDown();
+                    await(commit);
+                }));
+        assertThat(inserted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<ProductDTO> second =
+                CompletableFuture.supplyAsync(() -> productService.addProduct(categoryId, product("Raced")));
+        Thread.sleep(200);
+        commit.countDown();
+        first.get(10, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> second.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOf(APIException.class)
+                .hasMessage("Product with name: Raced already exists");
+    }
+
+    private static ProductDTO product(String name) {
+        return new ProductDTO(null, name, "Duplicate name check", null, 5, 1_000, 0.0, 0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.cart.GuestCart;
+import com.ecommerce.project.exceptions.CartOperationsException;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperationDTO;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class GuestCartServiceTests {
+
+    @Autowired
+    private GuestCartService guestCartService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void keepsGuestCartsOutOfTheDatabaseAndMergesThemAtSignIn() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Guest cart")).getCategoryId();
+        Long lamp = productService.addProduct(categoryId,
+                new ProductDTO(null, "Guest lamp", "Guest cart", null, 10, 2_000, 10.0, 0)).getProductId();
+        Long chair = productService.addProduct(categoryId,
+                new ProductDTO(null, "Guest chair", "Guest cart", null, 3, 5_000, 0.0, 0)).getProductId();
+        Integer carts = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM carts", Integer.class);
+
+        GuestCart guestCart = guestCartService.updateCart(GuestCart.EMPTY, List.of(
+                new CartOperationDTO(CartOperationDTO.Op.ADD, lamp, 2),
+                new CartOperationDTO(CartOperationDTO.Op.ADD, chair, 3)));
+        assertThatThrownBy(() -> guestCartService.updateCart(guestCart, List.of(
+                new CartOperationDTO(CartOperationDTO.Op.SET_QUANTITY, chair, 4))))
+                .isInstanceOf(CartOperationsException.class);
+
+        CartDTO priced = guestCartService.getCart(guestCart);
+        assertThat(priced.getCartId()).isNull();
+        assertThat(priced.getTotalPrice()).isEqualTo(2 * 1_800 + 3 * 5_000);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM carts", Integer.class)).isEqualTo(carts);
+
+        String username = "guest-cart-merge";
+        userRepository.save(new User(username, username + "@example.com", "password"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+        try {
+            cartService.addProductToCart(lamp, 1);
+            cartService.addProductToCart(chair, 1);
+
+            // The lamps add up; the chairs would be more than are in stock, so they are left as they were
+            CartDTO merged = guestCartService.mergeIntoUserCart(guestCart);
+
+            Map<Long, Integer> quantities = merged.getProducts().stream()
+                    .collect(Collectors.toMap(ProductDTO::getProductId, ProductDTO::getQuantity));
+            assertThat(quantities).containsExactlyInAnyOrderEntriesOf(Map.of(lamp, 3, chair, 1));
+            assertThat(merged.getTotalPrice()).isEqualTo(3 * 1_800 + 5_000);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.changes.ProductChangeVersions;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductChangeDTO;
+import com.ecommerce.project.payload.ProductChangesResponse;
+import com.ecommerce.project.payload.ProductDTO;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Every change here is made through this instance, which knows when its own changes have committed
+@SpringBootTest(properties = "project.products.changes.settle-window=0s")
+class ProductChangesTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductChangeVersions productChangeVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void returnsLatestStateOfChangedProductsAndTombstones() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Change feed")).getCategoryId();
+        long since = latestVersion();
+
+        Long kept = add(categoryId, "Kept");
+        Long deleted = add(categoryId, "Deleted");
+        productService.updateProduct(kept, new ProductDTO(null, "Kept", "Now cheaper", null, 5, 5_000, 0.0, 0));
+        productService.deleteProduct(deleted);
+
+        ProductChangesResponse changes = productService.getProductChanges(since, 10);
+
+        assertThat(changes.isHasMore()).isFalse();
+        assertThat(changes.getChanges()).extracting(ProductChangeDTO::getProductId).containsExactly(kept, deleted);
+        assertThat(changes.getChanges().get(0).getProduct().getPrice()).isEqualTo(5_000);
+        assertThat(changes.getChanges().get(1).isDeleted()).isTrue();
+        assertThat(changes.getChanges()).extracting(ProductChangeDTO::getChangeVersion).isSorted();
+
+        // Deleting the category removes its remaining product, which must show up as a tombstone too
+        categoryService.deleteCategory(categoryId);
+        ProductChangesResponse afterCategoryDelete = productService.getProductChanges(changes.getNextSince(), 10);
+        assertThat(afterCategoryDelete.getChanges()).singleElement()
+                .satisfies(change -> assertThat(change.getProductId()).isEqualTo(kept))
+                .satisfies(change -> assertThat(change.isDeleted()).isTrue());
+    }
+
+    @Test
+    void pagesWithNextSince() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Paged feed")).getCategoryId();
+        long since = latestVersion();
+        Long first = add(categoryId, "First");
+        Long second = add(categoryId, "Second");
+        Long third = add(categoryId, "Third");
+
+        ProductChangesResponse page = productService.getProductChanges(since, 2);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getChanges()).extracting(ProductChangeDTO::getProductId).containsExactly(first, second);
+
+        ProductChangesResponse next = productService.getProductChanges(page.getNextSince(), 2);
+        assertThat(next.isHasMore()).isFalse();
+        assertThat(next.getChanges()).extracting(ProductChangeDTO::getProductId).containsExactly(third);
+    }
+
+    @Test
+    void stopsBeforeChangesThatHaveNotCommitted() throws Exception {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Pending feed")).getCategoryId();
+        Long slow = add(categoryId, "Slow");
+        long since = latestVersion();
+
+        CountDownLatch flushed = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> slowUpdate = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    productService.updateProduct(slow, new ProductDTO(null, "Slow", "Updated", null, 1, 2_000, 0.0, 0));
+                    entityManager.flush();
+                    flushed.countDown();
+                    await(commit);
+                }));
+        assertThat(flushed.await(10, TimeUnit.SECONDS)).isTrue();
+        Long fast = add(categoryId, "Fast");
+
+        // The committed change has a higher version than the pending one, so it is held back as well
+        assertThat(productService.getProductChanges(since, 10).getChanges()).isEmpty();
+
+        commit.countDown();
+        slowUpdate.get(10, TimeUnit.SECONDS);
+        assertThat(productService.getProductChanges(since, 10).getChanges())
+                .extracting(ProductChangeDTO::getProductId).containsExactly(slow, fast);
+    }
+
+    @Test
+    void waitsOutTheSettleWindowForVersionsHandedOutElsewhere() throws Exception {
+        // Stands in for another instance, which cannot see this one's transactions
+        ProductChangeVersions elsewhere = new ProductChangeVersions(jdbcTemplate, Duration.ofMillis(500));
+        long version = productChangeVersions.next();
+
+        assertThat(elsewhere.stableVersion()).isLessThan(version);
+        Thread.sleep(600);
+        assertThat(elsewhere.stableVersion()).isGreaterThanOrEqualTo(version);
+    }
+
+    private Long add(Long categoryId, String name) {
+        ProductDTO product = new ProductDTO(null, name, "Tracked", null, 1, 1_000, 0.0, 0);
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> productService.addProduct(categoryId, product)).getProductId();
+    }
+
+    private long latestVersion() {
+        long since = 0;
+        ProductChangesResponse response;
+        do {
+            response = productService.getProductChanges(since, 1000);
+            since = response.getNextSince();
+        } while (response.isHasMore());
+        return since;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.datagen.DataGenerator;
+import com.ecommerce.project.datagen.DataGeneratorProperties;
+import com.ecommerce.project.monitoring.StatementBudget;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductExportTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DataGenerator dataGenerator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportsEveryProductAsNdjsonWithOneQuery() throws IOException {
+        DataGeneratorProperties properties = new DataGeneratorProperties();
+        properties.setCategories(2);
+        properties.setProducts(1_500);
+        properties.setUsers(20);
+        properties.setCartFraction(1.0);
+        properties.setOrders(0);
+        dataGenerator.generate(properties);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Products with cart items must not trigger the EAGER cart item load
+        long written = StatementBudget.assertAtMost(1, () -> export(out));
+
+        List<ProductDTO> exported = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n"))
+            exported.add(objectMapper.readValue(line, ProductDTO.class));
+
+        assertThat(written).isEqualTo(productRepository.count()).isEqualTo(exported.size());
+        assertThat(exported).extracting(ProductDTO::getProductId).isSorted();
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("}\n");
+    }
+
+    private long export(ByteArrayOutputStream out) {
+        try {
+            return productService.exportProducts(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
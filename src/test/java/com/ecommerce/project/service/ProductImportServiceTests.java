@@ -0,0 +1,121 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Category;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.payload.ProductImportErrorDTO;
+import com.ecommerce.project.payload.ProductImportStatusDTO;
+import com.ecommerce.project.repositories.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductImportServiceTests {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void importsCsvAndReportsRejectedRows() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "CSV import")).getCategoryId();
+        ProductDTO existing = new ProductDTO(null, "Existing", "Added before the import", null, 1, 1_000, 0.0, 0);
+        new TransactionTemplate(transactionManager).execute(status -> productService.addProduct(categoryId, existing));
+
+        ProductImportStatusDTO result = productImportService.importProducts(categoryId, ProductImportService.CSV, upload("""
+                productName,description,quantity,price,discount,warehouse
+                Lamp,"Desk lamp, brass",5,100.0,10,ignored
+                Existing,Clashes with a saved product,1,5.0,0,
+                Lamp,Repeated in the upload,1,5.0,0,
+                ,No name,1,5.0,0,
+                Chair,Bad quantity,lots,5.0,0,
+                Table,Oak table,2,250.0,20,
+                """));
+
+        assertThat(result.getStatus()).isEqualTo("COMPLETED");
+        assertThat(result.getRowsRead()).isEqualTo(6);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getDuplicates()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(ProductImportErrorDTO::getRow).containsExactlyInAnyOrder(2L, 3L, 4L, 5L);
+        assertThat(productRepository.findExistingProductNames(categoryId, Set.of("Lamp", "Table", "Chair")))
+                .containsExactlyInAnyOrder("Lamp", "Table");
+
+        ProductDTO lamp = productService.searchProductByKeyword("Lamp", 0, 10, "productId", "asc").getContent().stream()
+                .filter(product -> product.getDescription().equals("Desk lamp, brass"))
+                .findFirst().orElseThrow();
+        assertThat(lamp.getSpecialPrice()).isEqualTo(9_000);
+        assertThat(productImportService.getImport(result.getImportId()).getImported()).isEqualTo(2);
+    }
+
+    @Test
+    void importsNdjsonInBatches() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "NDJSON import")).getCategoryId();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1_200; i++)
+            body.append("{\"productName\":\"Bulk ").append(i).append("\",\"description\":\"Imported\",")
+                    .append("\"quantity\":3,\"price\":20.0,\"discount\":50}\n");
+        body.append("{\"productName\": \"Broken\"\n");
+
+        ProductImportStatusDTO result = productImportService.importProducts(categoryId, ProductImportService.NDJSON,
+                upload(body.toString()));
+
+        assertThat(result.getImported()).isEqualTo(1_200);
+        assertThat(result.getErrors()).extracting(ProductImportErrorDTO::getRow).isEqualTo(List.of(1_201L));
+        assertThat(productService.searchByCategory(categoryId, 0, 1, "productId", "asc").getTotalElements())
+                .isEqualTo(1_200);
+    }
+
+    @Test
+    void leavesTheCallersSessionAsItWas() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Session import")).getCategoryId();
+
+        // As on a request thread, where the import shares the open-in-view session
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            Category category = entityManager.find(Category.class, categoryId);
+            Integer jdbcBatchSize = session.getJdbcBatchSize();
+
+            ProductImportStatusDTO result = productImportService.importProducts(categoryId,
+                    ProductImportService.NDJSON, upload("""
+                            {"productName":"Session lamp","description":"Imported","quantity":3,"price":20.0}
+                            """));
+
+            assertThat(result.getImported()).isEqualTo(1);
+            assertThat(entityManager.contains(category)).isTrue();
+            assertThat(session.getCacheMode()).isEqualTo(CacheMode.NORMAL);
+            assertThat(session.getJdbcBatchSize()).isEqualTo(jdbcBatchSize);
+        });
+    }
+
+    private static ByteArrayInputStream upload(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,200 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.cart.AbandonedCartSweeper;
+import com.ecommerce.project.cart.CartJournal;
+import com.ecommerce.project.cart.CartSnapshot;
+import com.ecommerce.project.cart.CartSnapshotStore;
+import com.ecommerce.project.exceptions.CartOperationsException;
+import com.ecommerce.project.model.Address;
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.monitoring.StatementBudget;
+import com.ecommerce.project.payload.CartDTO;
+import com.ecommerce.project.payload.CartOperationDTO;
+import com.ecommerce.project.payload.CategoryDTO;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.ProductDTO;
+import com.ecommerce.project.repositories.AddressRepository;
+import com.ecommerce.project.repositories.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "project.cart.store=write-behind",
+        // Flushed by the tests themselves
+        "project.cart.write-behind.flush-interval=1h",
+        "project.cart.write-behind.journal.directory=target/cart-journal-tests"
+})
+class WriteBehindCartServiceTests {
+
+    private static final Path JOURNAL = Path.of("target/cart-journal-tests");
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private CartSnapshotStore cartSnapshotStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AbandonedCartSweeper sweeper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long widget;
+    private Long gadget;
+
+    @BeforeEach
+    void createProducts() {
+        Long categoryId = categoryService.createCategory(new CategoryDTO(null, "Write-behind " + System.nanoTime()))
+                .getCategoryId();
+        widget = productService.addProduct(categoryId, new ProductDTO(null, "Widget", "Write-behind cart", null, 10,
+                10_000, 10.0, 0)).getProductId();
+        gadget = productService.addProduct(categoryId, new ProductDTO(null, "Gadget", "Write-behind cart", null, 10,
+                5_000, 0.0, 0)).getProductId();
+    }
+
+    @AfterEach
+    void logout() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void servesChangesFromMemoryAndWritesThemOnFlush() {
+        login("write-behind-1");
+        cartService.addProductToCart(widget, 2);
+        cartService.updateProductQuantityInCart(widget, 1);
+        cartService.addProductToCart(gadget, 1);
+        cartService.deleteProductFromCart(gadget);
+        Long cartId = cartService.getCartForLoggedInUser().getCartId();
+
+        assertThat(storedItems(cartId)).isEmpty();
+        // Only Product's eager cart item collection, which the second-level cache does not hold, for the one line
+        CartDTO cart = StatementBudget.assertAtMost(1, cartService::getCartForLoggedInUser);
+        assertThat(cart.getTotalPrice()).isEqualTo(27_000);
+        assertThat(cart.getProducts()).extracting(ProductDTO::getProductId, ProductDTO::getQuantity)
+                .containsExactly(tuple(widget, 3));
+
+        cartService.flushAllCarts();
+
+        assertThat(storedItems(cartId)).containsExactly(Map.of("PRODUCT_ID", widget, "QUANTITY", 3));
+        assertThat(jdbcTemplate.queryForObject("SELECT total_price FROM carts WHERE cart_id = ?", Long.class,
+                cartId)).isEqualTo(27_000);
+    }
+
+    @Test
+    void appliesBatchOfOperationsInMemory() {
+        login("write-behind-4");
+        cartService.addProductToCart(widget, 1);
+
+        CartDTO cart = cartService.updateCart(List.of(
+                new CartOperationDTO(CartOperationDTO.Op.ADD, gadget, 2),
+                new CartOperationDTO(CartOperationDTO.Op.SET_QUANTITY, widget, 4)));
+
+        assertThat(cart.getTotalPrice()).isEqualTo(46_000);
+        assertThat(cart.getProducts()).extracting(ProductDTO::getProductId, ProductDTO::getQuantity)
+                .containsExactly(tuple(widget, 4), tuple(gadget, 2));
+        assertThat(storedItems(cart.getCartId())).isEmpty();
+        assertThatThrownBy(() -> cartService.updateCart(List.of(
+                new CartOperationDTO(CartOperationDTO.Op.REMOVE, widget, null),
+                new CartOperationDTO(CartOperationDTO.Op.REMOVE, widget, null))))
+                .isInstanceOf(CartOperationsException.class);
+        assertThat(cartService.getCartForLoggedInUser().getProducts()).hasSize(2);
+    }
+
+    @Test
+    void checkoutSeesChangesNotYetWritten() {
+        User user = login("write-behind-2");
+        cartService.addProductToCart(widget, 1);
+        Long addressId = addressRepository.save(new Address("1 Main Street", "Main Building", "Springfield",
+                "State", "Country", "123456")).getAddressId();
+
+        OrderDTO order = orderService.placeOrder(user, addressId, "card", "stripe", "pi_write_behind", "succeeded",
+                "Payment successful");
+
+        assertThat(order.getTotalAmount()).isEqualTo(9_000);
+        assertThat(order.getOrderItems()).hasSize(1);
+        CartDTO cart = cartService.getCartForLoggedInUser();
+        assertThat(cart.getProducts()).isEmpty();
+        assertThat(storedItems(cart.getCartId())).isEmpty();
+    }
+
+    @Test
+    void journalRecoversChangesNotYetWritten() throws Exception {
+        login("write-behind-3");
+        cartService.addProductToCart(widget, 4);
+        Long cartId = cartService.getCartForLoggedInUser().getCartId();
+        assertThat(storedItems(cartId)).isEmpty();
+
+        // What the next start does with the journal a crashed run left behind
+        try (CartJournal journal = new CartJournal(JOURNAL, false, objectMapper)) {
+            assertThat(journal.recover(cartSnapshotStore::save)).isPositive();
+        }
+
+        assertThat(storedItems(cartId)).containsExactly(Map.of("PRODUCT_ID", widget, "QUANTITY", 4));
+    }
+
+    @Test
+    void sweptCartIsDroppedFromMemory() {
+        login("write-behind-5");
+        cartService.addProductToCart(widget, 1);
+        cartService.flushAllCarts();
+        Long cartId = cartService.getCartForLoggedInUser().getCartId();
+        jdbcTemplate.update("UPDATE carts SET last_modified = DATEADD('DAY', -60, CURRENT_TIMESTAMP) WHERE cart_id = ?",
+                cartId);
+
+        assertThat(sweeper.sweep()).isPositive();
+        cartService.addProductToCart(gadget, 1);
+        cartService.flushAllCarts();
+
+        Long newCartId = cartService.getCartForLoggedInUser().getCartId();
+        assertThat(newCartId).isNotEqualTo(cartId);
+        assertThat(storedItems(newCartId)).containsExactly(Map.of("PRODUCT_ID", gadget, "QUANTITY", 1));
+        assertThat(cartSnapshotStore.save(List.of(new CartSnapshot(-1L, "nobody", 0, List.of()))))
+                .containsExactly(-1L);
+    }
+
+    private User login(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseGet(() -> userRepository.save(new User(username, username + "@example.com", "password")));
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(username, null, List.of()));
+        return user;
+    }
+
+    private List<Map<String, Object>> storedItems(Long cartId) {
+        return jdbcTemplate.queryForList("SELECT product_id, quantity FROM cart_items WHERE cart_id = ?", cartId);
+    }
+}